@@ -1,15 +1,26 @@
 package com.company;
 
 
+import com.company.cli.CatalogueImportRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 @EnableWebMvc
+@EnableScheduling
+@EnableAsync
+@EnableRetry
 @SpringBootApplication
 public class Application {
 
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class, args);
+        if (!context.getBeansOfType(CatalogueImportRunner.class).isEmpty()) {
+            System.exit(SpringApplication.exit(context));
+        }
     }
 }
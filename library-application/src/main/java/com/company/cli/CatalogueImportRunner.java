@@ -0,0 +1,68 @@
+package com.company.cli;
+
+import com.company.service.catalogue.CatalogueFormat;
+import com.company.service.catalogue.CatalogueImportReport;
+import com.company.service.catalogue.CatalogueImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty("library.catalogue-import.file")
+public class CatalogueImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private final CatalogueImportService catalogueImportService;
+
+    @Value("${library.catalogue-import.file}")
+    private Path file;
+    @Value("${library.catalogue-import.format:}")
+    private String format;
+    private int exitCode;
+
+    /**
+     * Method to import catalogue given by library.catalogue-import.file property, application is stopped by main with exit code of
+     * import, format is taken from library.catalogue-import.format property or from file extension
+     *
+     * @param args
+     * @throws Exception, if file can't be read
+     */
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        CatalogueImportReport report;
+        try (InputStream input = Files.newInputStream(file)) {
+            report = catalogueImportService.importCatalogue(input, resolveFormat());
+        }
+        report.getErrors().forEach(error -> log.warn("Rejected catalogue record, {}", error));
+        exitCode = report.getRejectedRecords() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Method to give exit code of import to SpringApplication.exit, 1 if any record was rejected
+     *
+     * @return
+     */
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    private CatalogueFormat resolveFormat() {
+        if (!format.isBlank()) {
+            return CatalogueFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        }
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl") ? CatalogueFormat.NDJSON : CatalogueFormat.CSV;
+    }
+}
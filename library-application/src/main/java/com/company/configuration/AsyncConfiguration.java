@@ -0,0 +1,60 @@
+package com.company.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class AsyncConfiguration implements WebMvcConfigurer {
+
+    private final ExportProperties exportProperties;
+
+    /**
+     * Method to create threads which stream exports, every export holds its thread until whole table is written, so exports above
+     * limit are rejected instead of queued
+     *
+     * @return
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("export-");
+        executor.setCorePoolSize(exportProperties.getMaxParallelExports());
+        executor.setMaxPoolSize(exportProperties.getMaxParallelExports());
+        executor.setQueueCapacity(0);
+        return executor;
+    }
+
+    /**
+     * Method to keep executor of @Async methods configured by spring boot, which backs off when any other executor is a bean, so
+     * purges of loans history don't run on threads of exports
+     *
+     * @param builder
+     * @return
+     */
+    @Primary
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Method to run streamed responses on threads of exports, timeout is left as container default and long timeout is set only for
+     * export of loans
+     *
+     * @param configurer
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportTaskExecutor());
+    }
+}
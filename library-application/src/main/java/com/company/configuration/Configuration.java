@@ -1,10 +1,11 @@
 package com.company.configuration;
 
+import com.zaxxer.hikari.HikariDataSource;
 import liquibase.integration.spring.SpringLiquibase;
-import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
@@ -28,15 +29,29 @@ public SpringLiquibase liquibase(DataSource dataSource) {
     }
 
     /**
-     * Method to create DataSource bean based on values in application.yaml file
+     * Method to create DataSourceProperties bean with connection data from spring.datasource in application.yaml file
      *
      * @return
      */
     @Bean
+    @Primary
     @ConfigurationProperties("spring.datasource")
-    public DataSource liquibaseDataSource() {
-        return DataSourceBuilder.create()
-                .type(PGSimpleDataSource.class)
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * Method to create pooled DataSource bean, size of pool, leak detection and driver properties like prepared statement cache
+     * are set from spring.datasource.hikari in application.yaml file
+     *
+     * @param dataSourceProperties
+     * @return
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
                 .build();
     }
 
@@ -0,0 +1,14 @@
+package com.company.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties("library.export")
+public class ExportProperties {
+
+    private long timeout = 3600000;
+    private int maxParallelExports = 4;
+}
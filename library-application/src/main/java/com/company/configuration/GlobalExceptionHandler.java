@@ -24,6 +24,11 @@ public final ResponseEntity handleException(BookIsCurrentlyBorrowedException ex)
         return new ResponseEntity(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BookQuantityLowerThanBorrowedCopiesException.class)
+    public final ResponseEntity handleException(BookQuantityLowerThanBorrowedCopiesException ex) {
+        return new ResponseEntity(ex.getMessage(), HttpStatus.NOT_ACCEPTABLE);
+    }
+
     @ExceptionHandler(AuthorWithGivenNameAndSurnameExistsException.class)
     public final ResponseEntity handleException(AuthorWithGivenNameAndSurnameExistsException ex) {
         return new ResponseEntity(ex.getMessage(), HttpStatus.NOT_ACCEPTABLE);
@@ -89,6 +94,11 @@ public final ResponseEntity handleException(ReaderCurrentlyHaveThisBookException
         return new ResponseEntity(ex.getMessage(), HttpStatus.NOT_ACCEPTABLE);
     }
 
+    @ExceptionHandler(ReaderReturnedThisBookTodayException.class)
+    public final ResponseEntity handleException(ReaderReturnedThisBookTodayException ex) {
+        return new ResponseEntity(ex.getMessage(), HttpStatus.NOT_ACCEPTABLE);
+    }
+
     @ExceptionHandler(AuthorHaveBooksException.class)
     public final ResponseEntity handleException(AuthorHaveBooksException ex){
         return new ResponseEntity(ex.getMessage(),HttpStatus.NOT_ACCEPTABLE);
@@ -98,4 +108,14 @@ public final ResponseEntity handleException(AuthorHaveBooksException ex){
     public final ResponseEntity handleException(LoanNotFoundException ex){
         return new ResponseEntity(ex.getMessage(),HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(TooManyBooksInRequestException.class)
+    public final ResponseEntity handleException(TooManyBooksInRequestException ex){
+        return new ResponseEntity(ex.getMessage(),HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidPageTokenException.class)
+    public final ResponseEntity handleException(InvalidPageTokenException ex){
+        return new ResponseEntity(ex.getMessage(),HttpStatus.BAD_REQUEST);
+    }
 }
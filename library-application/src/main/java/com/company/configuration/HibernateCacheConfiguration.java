@@ -0,0 +1,56 @@
+package com.company.configuration;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+
+@Configuration
+public class HibernateCacheConfiguration {
+
+    @Value("${library.hibernate-cache.config:classpath:ehcache.xml}")
+    private Resource cacheConfiguration;
+
+    /**
+     * Method to create JCache manager with regions of second-level cache, size and time to live of every region are set in ehcache.xml
+     *
+     * @return
+     * @throws IOException, if configuration file can't be found
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() throws IOException {
+        return Caching.getCachingProvider().getCacheManager(cacheConfiguration.getURI(), getClass().getClassLoader());
+    }
+
+    /**
+     * Method to give Hibernate the same cache manager, whose caches are measured by hibernateCacheMetrics
+     *
+     * @param hibernateCacheManager
+     * @return
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Method to expose hits, misses, puts, removals and evictions of every region of second-level cache as cache.* metrics
+     *
+     * @param hibernateCacheManager
+     * @return
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> hibernateCacheManager.getCacheNames().forEach(name ->
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(name), Tags.of("cacheManager", "hibernate")));
+    }
+}
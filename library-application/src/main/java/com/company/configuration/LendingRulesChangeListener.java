@@ -0,0 +1,90 @@
+package com.company.configuration;
+
+import com.company.repository.models.repository.ConfigurationRepository;
+import com.company.service.LendingRulesCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(value = "library.lending-rules.listen", havingValue = "true", matchIfMissing = true)
+public class LendingRulesChangeListener implements SmartLifecycle {
+
+    private final DataSourceProperties dataSourceProperties;
+    private final LendingRulesCache lendingRulesCache;
+
+    @Value("${library.lending-rules.poll-timeout:1000}")
+    private int pollTimeout;
+    @Value("${library.lending-rules.reconnect-delay:5000}")
+    private long reconnectDelay;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "lending-rules-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Method to listen on LENDING_RULES_CHANGED_CHANNEL on dedicated connection and invalidate lending rules held in memory
+     * when any node edits them. Connection is opened outside of pool, because it is held for whole life of application.
+     * Notifications can be lost while connection is broken, so cache is also invalidated after reconnect
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + ConfigurationRepository.LENDING_RULES_CHANGED_CHANNEL);
+                }
+                lendingRulesCache.invalidate();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeout);
+                    if (notifications != null && notifications.length > 0) {
+                        lendingRulesCache.invalidate();
+                    }
+                }
+            } catch (SQLException e) {
+                log.warn("Listening on lending rules changes failed, reconnecting in {} ms", reconnectDelay, e);
+                waitBeforeReconnect();
+            }
+        }
+    }
+
+    private void waitBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.company.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricsAspect {
+    public static final String SERVICE_TIMER = "library.service";
+    public static final String SERVICE_REJECTIONS = "library.service.rejections";
+    public static final String REPOSITORY_TIMER = "spring.data.repository.invocations";
+    private static final String REJECTIONS_PACKAGE = "com.company.service.exceptions";
+    private static final String NONE = "None";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Method to time every public method of services, outcome is tagged with simple name of thrown exception. Exceptions which reject
+     * request because of business rules are counted separately
+     *
+     * @param joinPoint
+     * @return
+     * @throws Throwable
+     */
+    @Around("execution(public * com.company.service.*Service.*(..))")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        String serviceName = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String methodName = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            if (e.getClass().getPackageName().equals(REJECTIONS_PACKAGE)) {
+                Counter.builder(SERVICE_REJECTIONS)
+                        .tag("service", serviceName)
+                        .tag("method", methodName)
+                        .tag("exception", exception)
+                        .register(meterRegistry)
+                        .increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(SERVICE_TIMER)
+                    .tag("service", serviceName)
+                    .tag("method", methodName)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Method to time queries of repositories which are not spring data repositories, spring data repositories are timed by spring boot
+     * under the same metric and tags
+     *
+     * @param joinPoint
+     * @return
+     * @throws Throwable
+     */
+    @Around("execution(public * com.company.repository.models.repository.*.*(..)) " +
+            "&& !target(org.springframework.data.repository.Repository)")
+    public Object timeRepositoryMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String state = "SUCCESS";
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            state = "ERROR";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(REPOSITORY_TIMER)
+                    .tag("repository", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("state", state)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
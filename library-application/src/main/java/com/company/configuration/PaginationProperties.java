@@ -0,0 +1,27 @@
+package com.company.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Data
+@Component
+@ConfigurationProperties("library.pagination")
+public class PaginationProperties {
+
+    private int defaultPageSize = 20;
+    private int maxPageSize = 100;
+
+    /**
+     * Method to get size of page which should be returned, default size is used if size is not given and size is limited to max size
+     *
+     * @param requestedSize
+     * @return
+     */
+    public int resolvePageSize(Integer requestedSize) {
+        int size = Optional.ofNullable(requestedSize).orElse(defaultPageSize);
+        return Math.min(Math.max(size, 1), maxPageSize);
+    }
+}
@@ -0,0 +1,35 @@
+package com.company.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class RetryMetricsListener extends RetryListenerSupport {
+    public static final String SERVICE_RETRIES = "library.service.retries";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Method to count every failed attempt of @Retryable service method, listener is applied to every @Retryable method because it is
+     * a bean, so contention on locks of loans is visible next to library.service timers
+     *
+     * @param context
+     * @param callback
+     * @param throwable
+     * @param <T>
+     * @param <E>
+     */
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        Counter.builder(SERVICE_RETRIES)
+                .tag("exception", throwable.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,14 +1,19 @@
 package com.company.controller;
 
+import com.company.configuration.PaginationProperties;
 import com.company.dtos.AuthorDto;
-import com.company.dtos.BookDto;
+import com.company.dtos.BookSummaryDto;
+import com.company.dtos.PageDto;
+import com.company.mapper.mappings.AuthorMapper;
+import com.company.mapper.mappings.BookMapper;
 import com.company.repository.models.entity.AuthorEntity;
 import com.company.service.AuthorService;
 import com.company.service.exceptions.AuthorHaveBooksException;
 import com.company.service.exceptions.AuthorNotFoundException;
 import com.company.service.exceptions.AuthorWithGivenNameAndSurnameExistsException;
+import com.company.service.exceptions.InvalidPageTokenException;
+import com.company.service.pagination.KeysetPage;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,20 +29,27 @@
 @RequestMapping("/author/")
 public class AuthorController {
     private final AuthorService authorService;
-    private final ModelMapper modelMapper;
+    private final AuthorMapper authorMapper;
+    private final BookMapper bookMapper;
+    private final PaginationProperties paginationProperties;
 
     /**
-     * Method to get all authors
+     * Method to get single page of authors, and map result to dto's. Pages are ordered by key, so every page is read as fast as first one
      *
+     * @param pageToken, continuation token returned with previous page, or null for first page
+     * @param size,      number of authors on page, limited by max page size
      * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
      */
     @GetMapping("all/")
-    public ResponseEntity findAllAuthors() {
-        List<AuthorDto> authors = authorService.findAllAuthors()
+    public ResponseEntity findAllAuthors(@RequestParam(required = false) String pageToken,
+                                         @RequestParam(required = false) Integer size) throws InvalidPageTokenException {
+        KeysetPage<AuthorEntity> page = authorService.findAllAuthors(pageToken, paginationProperties.resolvePageSize(size));
+        List<AuthorDto> authors = page.getItems()
                 .stream()
-                .map(author -> modelMapper.map(author, AuthorDto.class))
+                .map(authorMapper::toAuthorDto)
                 .collect(Collectors.toList());
-        return new ResponseEntity(authors, HttpStatus.OK);
+        return new ResponseEntity(new PageDto<>(authors, page.getNextPageToken()), HttpStatus.OK);
     }
 
     /**
@@ -54,7 +66,7 @@ public ResponseEntity findAuthors(@RequestParam(required = false) Integer id,
                                       @RequestParam(required = false) String surname) {
         List<AuthorDto> authors = authorService.findAuthors(id, name, surname)
                 .stream()
-                .map(author -> modelMapper.map(author, AuthorDto.class))
+                .map(authorMapper::toAuthorDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(authors, HttpStatus.OK);
     }
@@ -68,7 +80,7 @@ public ResponseEntity findAuthors(@RequestParam(required = false) Integer id,
     @GetMapping("findAuthor/{id}")
     public ResponseEntity findAuthorById(@PathVariable Integer id) throws AuthorNotFoundException {
         AuthorEntity author = authorService.findAuthorById(id);
-        return new ResponseEntity(modelMapper.map(author, AuthorDto.class), HttpStatus.OK);
+        return new ResponseEntity(authorMapper.toAuthorDto(author), HttpStatus.OK);
     }
 
     /**
@@ -79,9 +91,9 @@ public ResponseEntity findAuthorById(@PathVariable Integer id) throws AuthorNotF
      */
     @GetMapping("findBooks/{id}")
     public ResponseEntity findAllBooksWithGivenAuthor(@PathVariable Integer id) throws AuthorNotFoundException {
-        List<BookDto> books = authorService.findAllBooksOfGivenAuthor(id)
+        List<BookSummaryDto> books = authorService.findAllBooksOfGivenAuthor(id)
                 .stream()
-                .map(book -> modelMapper.map(book, BookDto.class))
+                .map(bookMapper::toBookSummaryDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(books, HttpStatus.OK);
     }
@@ -95,8 +107,8 @@ public ResponseEntity findAllBooksWithGivenAuthor(@PathVariable Integer id) thro
      */
     @PatchMapping("edit/")
     public ResponseEntity editAuthor(@RequestBody AuthorDto authorWithNewData) throws AuthorNotFoundException, AuthorWithGivenNameAndSurnameExistsException {
-        AuthorEntity result = authorService.editAuthor(modelMapper.map(authorWithNewData, AuthorEntity.class));
-        return new ResponseEntity(modelMapper.map(result, AuthorDto.class), HttpStatus.OK);
+        AuthorEntity result = authorService.editAuthor(authorMapper.toAuthorEntity(authorWithNewData));
+        return new ResponseEntity(authorMapper.toAuthorDto(result), HttpStatus.OK);
     }
 
     /**
@@ -119,8 +131,22 @@ public ResponseEntity deleteAuthorById(@PathVariable Integer id) throws AuthorNo
      */
     @PutMapping("addAuthor/")
     public ResponseEntity addAuthor(@RequestBody AuthorDto author) throws AuthorWithGivenNameAndSurnameExistsException {
-        AuthorEntity result = authorService.addAuthor(modelMapper.map(author, AuthorEntity.class));
-        return new ResponseEntity(modelMapper.map(result, AuthorEntity.class), HttpStatus.CREATED);
+        AuthorEntity result = authorService.addAuthor(authorMapper.toAuthorEntity(author));
+        return new ResponseEntity(authorMapper.toAuthorDto(result), HttpStatus.CREATED);
+    }
+
+    /**
+     * Method to add many authors at once, authors which already exist are skipped
+     *
+     * @param authors, authors which should be added
+     * @return number of added authors
+     */
+    @PutMapping("import/")
+    public ResponseEntity importAuthors(@RequestBody List<AuthorDto> authors) {
+        List<AuthorEntity> authorsToImport = authors.stream()
+                .map(authorMapper::toAuthorEntity)
+                .collect(Collectors.toList());
+        return new ResponseEntity(authorService.importAuthors(authorsToImport), HttpStatus.OK);
     }
 
 }
@@ -1,19 +1,32 @@
 package com.company.controller;
 
+import com.company.configuration.PaginationProperties;
 import com.company.dtos.BookDto;
+import com.company.dtos.PageDto;
+import com.company.mapper.mappings.BookMapper;
 import com.company.repository.models.entity.BookEntity;
 import com.company.service.BookService;
+import com.company.service.LoanHistoryPurgeService;
+import com.company.service.catalogue.CatalogueFormat;
+import com.company.service.catalogue.CatalogueImportReport;
+import com.company.service.catalogue.CatalogueImportService;
 import com.company.service.exceptions.AuthorNotFoundException;
 import com.company.service.exceptions.BookIsCurrentlyBorrowedException;
 import com.company.service.exceptions.BookNotFoundException;
+import com.company.service.exceptions.BookQuantityLowerThanBorrowedCopiesException;
+import com.company.service.exceptions.InvalidPageTokenException;
+import com.company.service.exceptions.TooManyBooksInRequestException;
+import com.company.service.pagination.KeysetPage;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -23,42 +36,59 @@
 public class BookController {
 
     private final BookService bookService;
-    private final ModelMapper modelMapper;
+    private final CatalogueImportService catalogueImportService;
+    private final LoanHistoryPurgeService loanHistoryPurgeService;
+    private final BookMapper bookMapper;
+    private final PaginationProperties paginationProperties;
 
     /**
-     * Method to get all books, and map result to dto's
+     * Method to get single page of books, and map result to dto's. Pages are ordered by key, so every page is read as fast as first one
      *
+     * @param pageToken, continuation token returned with previous page, or null for first page
+     * @param size,      number of books on page, limited by max page size
      * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
      */
     @GetMapping("all/")
-    public ResponseEntity findAllBooks() {
-        List<BookDto> bookEntities = bookService.findAllBooks().stream()
-                .map(book -> modelMapper.map(book, BookDto.class))
+    public ResponseEntity findAllBooks(@RequestParam(required = false) String pageToken,
+                                       @RequestParam(required = false) Integer size) throws InvalidPageTokenException {
+        KeysetPage<BookEntity> page = bookService.findAllBooks(pageToken, paginationProperties.resolvePageSize(size));
+        List<BookDto> books = page.getItems()
+                .stream()
+                .map(bookMapper::toBookDto)
                 .collect(Collectors.toList());
-        return new ResponseEntity(bookEntities, HttpStatus.OK);
+        return new ResponseEntity(new PageDto<>(books, page.getNextPageToken()), HttpStatus.OK);
     }
 
     /**
-     * Method to get for multiple books with given parameters, and map result to dto's
+     * Method to get single page of books with given parameters, and map result to dto's. Pages are ordered by key and matching books
+     * aren't counted, so every page is read as fast as first one
      *
      * @param id
      * @param title
      * @param authorId
      * @param quantity
      * @param quantityAvailable
+     * @param pageToken,        continuation token returned with previous page, or null for first page
+     * @param size,             number of books on page, limited by max page size
      * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
      */
     @GetMapping("findBooks/")
     public ResponseEntity findBooksByParameters(@RequestParam(required = false) Integer id,
                                                 @RequestParam(required = false) String title,
                                                 @RequestParam(required = false) Integer authorId,
                                                 @RequestParam(required = false) Integer quantity,
-                                                @RequestParam(required = false) Integer quantityAvailable) {
-        List<BookDto> books = bookService.findBookByParameters(id, title, authorId, quantity, quantityAvailable)
+                                                @RequestParam(required = false) Integer quantityAvailable,
+                                                @RequestParam(required = false) String pageToken,
+                                                @RequestParam(required = false) Integer size) throws InvalidPageTokenException {
+        KeysetPage<BookEntity> page = bookService.findBookByParameters(id, title, authorId, quantity, quantityAvailable, pageToken,
+                paginationProperties.resolvePageSize(size));
+        List<BookDto> books = page.getItems()
                 .stream()
-                .map(book -> modelMapper.map(book, BookDto.class))
+                .map(bookMapper::toBookDto)
                 .collect(Collectors.toList());
-        return new ResponseEntity(books, HttpStatus.OK);
+        return new ResponseEntity(new PageDto<>(books, page.getNextPageToken()), HttpStatus.OK);
     }
 
     /**
@@ -70,7 +100,20 @@ public ResponseEntity findBooksByParameters(@RequestParam(required = false) Inte
     @GetMapping("findBook/{id}")
     public ResponseEntity findBookById(@PathVariable Integer id) throws BookNotFoundException {
         BookEntity foundedBook = bookService.findBookById(id);
-        return new ResponseEntity(modelMapper.map(foundedBook, BookDto.class), HttpStatus.OK);
+        return new ResponseEntity(bookMapper.toBookDto(foundedBook), HttpStatus.OK);
+    }
+
+    /**
+     * Method to get number of available copies of every given book by one query, and map result to dto's, books which don't exist are skipped
+     *
+     * @param ids, ids of books, for example ids=1,2,3, limited to BookService.MAX_BOOKS_IN_AVAILABILITY_REQUEST
+     * @return
+     * @throws TooManyBooksInRequestException, if too many ids are given
+     */
+    @GetMapping("availability/")
+    public ResponseEntity findAvailability(@RequestParam List<Integer> ids) throws TooManyBooksInRequestException {
+        Map<Integer, Integer> availability = bookService.findAvailability(ids);
+        return new ResponseEntity(bookMapper.toBookAvailabilityDtos(ids, availability), HttpStatus.OK);
     }
 
     /**
@@ -80,22 +123,30 @@ public ResponseEntity findBookById(@PathVariable Integer id) throws BookNotFound
      * @return
      */
     @PatchMapping("edit/")
-    public ResponseEntity editBook(@RequestBody BookDto book) throws AuthorNotFoundException, BookNotFoundException {
-        BookEntity result = bookService.editBook(modelMapper.map(book, BookEntity.class));
-        return new ResponseEntity(modelMapper.map(result, BookDto.class), HttpStatus.OK);
+    public ResponseEntity editBook(@RequestBody BookDto book) throws AuthorNotFoundException, BookNotFoundException,
+            BookQuantityLowerThanBorrowedCopiesException {
+        BookEntity result = bookService.editBook(bookMapper.toBookEntity(book));
+        return new ResponseEntity(bookMapper.toBookDto(result), HttpStatus.OK);
     }
 
 
     /**
-     * Method to delete a single book with given id
+     * Method to delete a single book with given id together with its loans history
      *
      * @param id
-     * @return
+     * @param async, if history should be deleted in background in chunks, useful for books with very long history
+     * @return number of deleted loans, or only accepted status if deletion is done in background
      */
     @DeleteMapping("delete/{id}")
-    public ResponseEntity deleteBookById(@PathVariable Integer id) throws BookIsCurrentlyBorrowedException, BookNotFoundException {
-        bookService.deleteBook(id);
-        return new ResponseEntity(HttpStatus.NO_CONTENT);
+    public ResponseEntity deleteBookById(@PathVariable Integer id,
+                                         @RequestParam(defaultValue = "false") boolean async) throws BookIsCurrentlyBorrowedException, BookNotFoundException {
+        if (async) {
+            bookService.checkBookCanBeDeleted(id);
+            loanHistoryPurgeService.deleteBookInChunks(id);
+            return new ResponseEntity(HttpStatus.ACCEPTED);
+        }
+        int deletedLoans = bookService.deleteBook(id);
+        return new ResponseEntity(deletedLoans, HttpStatus.OK);
     }
 
 
@@ -107,7 +158,22 @@ public ResponseEntity deleteBookById(@PathVariable Integer id) throws BookIsCurr
      */
     @PutMapping("addBook/")
     public ResponseEntity addBook(@RequestBody BookDto bookDto) throws AuthorNotFoundException {
-        BookEntity result = bookService.addBook(modelMapper.map(bookDto, BookEntity.class));
-        return new ResponseEntity(modelMapper.map(result, BookDto.class), HttpStatus.CREATED);
+        BookEntity result = bookService.addBook(bookMapper.toBookEntity(bookDto));
+        return new ResponseEntity(bookMapper.toBookDto(result), HttpStatus.CREATED);
+    }
+
+    /**
+     * Method to add books from catalogue sent as request body, body is read line by line, so catalogue can be bigger than memory.
+     * Authors of books are matched by name and surname, and added if they don't exist
+     *
+     * @param format, CSV with columns title,author_name,author_surname,quantity, or NDJSON with the same fields in camel case
+     * @param catalogue
+     * @return report with number of imported books and errors of rejected records
+     */
+    @PostMapping("import/")
+    public ResponseEntity importCatalogue(@RequestParam(defaultValue = "CSV") CatalogueFormat format,
+                                          InputStream catalogue) throws IOException {
+        CatalogueImportReport report = catalogueImportService.importCatalogue(catalogue, format);
+        return new ResponseEntity(bookMapper.toCatalogueImportReportDto(report), HttpStatus.OK);
     }
 }
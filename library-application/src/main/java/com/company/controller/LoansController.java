@@ -1,15 +1,26 @@
 package com.company.controller;
 
+import com.company.configuration.ExportProperties;
+import com.company.configuration.PaginationProperties;
+import com.company.dtos.BookLoanStatusDto;
 import com.company.dtos.LoanDto;
+import com.company.dtos.PageDto;
+import com.company.mapper.mappings.LoanMapper;
 import com.company.repository.models.entity.LoanEntity;
 import com.company.service.LoanService;
 import com.company.service.exceptions.*;
+import com.company.service.pagination.KeysetPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,20 +30,78 @@
 public class LoansController {
 
     private final LoanService loanService;
-    private final ModelMapper modelMapper;
+    private final LoanMapper loanMapper;
+    private final PaginationProperties paginationProperties;
+    private final ExportProperties exportProperties;
+    private final ObjectMapper objectMapper;
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final byte NEW_LINE = '\n';
 
     /**
-     * Method to get all loans from library
+     * Method to get single page of loans, and map result to dto's. Pages are ordered by key, so every page is read as fast as first one
      *
+     * @param pageToken, continuation token returned with previous page, or null for first page
+     * @param size,      number of loans on page, limited by max page size
      * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
      */
     @GetMapping("all/")
-    public ResponseEntity findAll() {
-        List<LoanDto> loans = loanService.findAll()
+    public ResponseEntity findAll(@RequestParam(required = false) String pageToken,
+                                  @RequestParam(required = false) Integer size) throws InvalidPageTokenException {
+        KeysetPage<LoanEntity> page = loanService.findAll(pageToken, paginationProperties.resolvePageSize(size));
+        List<LoanDto> loans = page.getItems()
                 .stream()
-                .map(loan -> modelMapper.map(loan, LoanDto.class))
+                .map(loanMapper::toLoanDto)
                 .collect(Collectors.toList());
-        return new ResponseEntity(loans, HttpStatus.OK);
+        return new ResponseEntity(new PageDto<>(loans, page.getNextPageToken()), HttpStatus.OK);
+    }
+
+    /**
+     * Method to get single page of loans which should already be returned, ordered by due date, and map result to dto's
+     *
+     * @param pageToken, continuation token returned with previous page, or null for first page
+     * @param size,      number of loans on page, limited by max page size
+     * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
+     */
+    @GetMapping("overdue/")
+    public ResponseEntity findOverdue(@RequestParam(required = false) String pageToken,
+                                      @RequestParam(required = false) Integer size) throws InvalidPageTokenException {
+        KeysetPage<LoanEntity> page = loanService.findOverdue(pageToken, paginationProperties.resolvePageSize(size));
+        List<LoanDto> loans = page.getItems()
+                .stream()
+                .map(loanMapper::toLoanDto)
+                .collect(Collectors.toList());
+        return new ResponseEntity(new PageDto<>(loans, page.getNextPageToken()), HttpStatus.OK);
+    }
+
+    /**
+     * Method to export every loan from library as newline-delimited json, loans are written one by one while they are read from database.
+     * Export runs on threads of exports with its own timeout, because whole table takes much longer than container default
+     *
+     * @param response, response to which loans are written
+     * @return
+     */
+    @GetMapping(value = "export/", produces = APPLICATION_NDJSON)
+    public WebAsyncTask<Void> exportAll(HttpServletResponse response) {
+        return new WebAsyncTask<>(exportProperties.getTimeout(), () -> {
+            response.setContentType(APPLICATION_NDJSON);
+            OutputStream outputStream = response.getOutputStream();
+            try {
+                loanService.exportAll(loan -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(loanMapper.toLoanDto(loan)));
+                        outputStream.write(NEW_LINE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            outputStream.flush();
+            return null;
+        });
     }
 
     /**
@@ -44,7 +113,7 @@ public ResponseEntity findAll() {
     public ResponseEntity getLoansForGivenReader(@PathVariable Integer readerId) throws ReaderNotFoundException {
         List<LoanDto> loans = loanService.findLoansByReader(readerId)
                 .stream()
-                .map(loan -> modelMapper.map(loan, LoanDto.class))
+                .map(loanMapper::toLoanDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(loans, HttpStatus.OK);
     }
@@ -59,7 +128,7 @@ public ResponseEntity getLoansForGivenReader(@PathVariable Integer readerId) thr
     public ResponseEntity getLoansForGivenBook(@PathVariable Integer bookId) throws BookNotFoundException {
         List<LoanDto> loans = loanService.findLoansByBookId(bookId)
                 .stream()
-                .map(loan -> modelMapper.map(loan, LoanDto.class))
+                .map(loanMapper::toLoanDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(loans, HttpStatus.OK);
     }
@@ -73,9 +142,9 @@ public ResponseEntity getLoansForGivenBook(@PathVariable Integer bookId) throws
      */
     @PatchMapping("/borrowBook/")
     public ResponseEntity borrowBook(@RequestParam Integer readerId,
-                                     @RequestParam Integer bookId) throws ReaderNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, BookNotFoundException, ReaderHaveTooMuchBooksException, BookNotAvailableException, ReaderCurrentlyHaveThisBookException {
+                                     @RequestParam Integer bookId) throws ReaderNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, BookNotFoundException, ReaderHaveTooMuchBooksException, BookNotAvailableException, ReaderCurrentlyHaveThisBookException, ReaderReturnedThisBookTodayException {
         LoanEntity loan = loanService.borrowBook(bookId, readerId);
-        return new ResponseEntity(modelMapper.map(loan, LoanDto.class), HttpStatus.OK);
+        return new ResponseEntity(loanMapper.toLoanDto(loan), HttpStatus.OK);
     }
 
     /**
@@ -87,6 +156,41 @@ public ResponseEntity borrowBook(@RequestParam Integer readerId,
     @PatchMapping("returnBook/")
     public ResponseEntity returnBook(Integer readerId, Integer bookId) throws ReaderNotFoundException, BookNotFoundException, LoanNotFoundException {
         LoanEntity loan = loanService.returnBook(readerId, bookId);
-        return new ResponseEntity(modelMapper.map(loan, LoanDto.class), HttpStatus.OK);
+        return new ResponseEntity(loanMapper.toLoanDto(loan), HttpStatus.OK);
+    }
+
+    /**
+     * Method to borrow many books by single reader at once, for example stack of books scanned by kiosk
+     *
+     * @param readerId, reader who want to borrow books
+     * @param bookIds,  books which should be borrowed
+     * @return status of every given book, books which can't be borrowed don't stop others
+     */
+    @PatchMapping("borrowBooks/")
+    public ResponseEntity borrowBooks(@RequestParam Integer readerId,
+                                      @RequestBody List<Integer> bookIds) throws ReaderNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException,
+            TooManyBooksInRequestException {
+        List<BookLoanStatusDto> statuses = loanService.borrowBooks(readerId, bookIds)
+                .stream()
+                .map(loanMapper::toBookLoanStatusDto)
+                .collect(Collectors.toList());
+        return new ResponseEntity(statuses, HttpStatus.OK);
+    }
+
+    /**
+     * Method to return many books by single reader at once
+     *
+     * @param readerId, reader who returns books
+     * @param bookIds,  books which are returned
+     * @return status of every given book
+     */
+    @PatchMapping("returnBooks/")
+    public ResponseEntity returnBooks(@RequestParam Integer readerId,
+                                      @RequestBody List<Integer> bookIds) throws ReaderNotFoundException, TooManyBooksInRequestException {
+        List<BookLoanStatusDto> statuses = loanService.returnBooks(readerId, bookIds)
+                .stream()
+                .map(loanMapper::toBookLoanStatusDto)
+                .collect(Collectors.toList());
+        return new ResponseEntity(statuses, HttpStatus.OK);
     }
 }
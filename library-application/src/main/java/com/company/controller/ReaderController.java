@@ -1,17 +1,21 @@
 package com.company.controller;
 
-
+import com.company.configuration.PaginationProperties;
 import com.company.dtos.ChildDto;
 import com.company.dtos.LoanDto;
+import com.company.dtos.PageDto;
 import com.company.dtos.ParentDto;
 import com.company.dtos.ReaderDto;
+import com.company.mapper.mappings.LoanMapper;
+import com.company.mapper.mappings.ReaderMapper;
 import com.company.repository.models.entity.ChildEntity;
 import com.company.repository.models.entity.ParentEntity;
 import com.company.repository.models.entity.ReaderEntity;
+import com.company.service.LoanHistoryPurgeService;
 import com.company.service.ReaderService;
 import com.company.service.exceptions.*;
+import com.company.service.pagination.KeysetPage;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,21 +30,29 @@
 public class ReaderController {
     public static final String READER_CAN_BORROW_A_BOOK = "Reader can borrow a book";
     private final ReaderService readerService;
-    private final ModelMapper modelMapper;
+    private final LoanHistoryPurgeService loanHistoryPurgeService;
+    private final ReaderMapper readerMapper;
+    private final LoanMapper loanMapper;
+    private final PaginationProperties paginationProperties;
 
 
     /**
-     * Method to get all readers
+     * Method to get single page of readers, and map result to dto's. Pages are ordered by key, so every page is read as fast as first one
      *
+     * @param pageToken, continuation token returned with previous page, or null for first page
+     * @param size,      number of readers on page, limited by max page size
      * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
      */
     @GetMapping("all/")
-    public ResponseEntity findAllReaders() {
-        List<ReaderDto> readers = readerService.findAllReaders()
+    public ResponseEntity findAllReaders(@RequestParam(required = false) String pageToken,
+                                         @RequestParam(required = false) Integer size) throws InvalidPageTokenException {
+        KeysetPage<ReaderEntity> page = readerService.findAllReaders(pageToken, paginationProperties.resolvePageSize(size));
+        List<ReaderDto> readers = page.getItems()
                 .stream()
-                .map(reader -> modelMapper.map(reader, ReaderDto.class))
+                .map(readerMapper::toReaderDto)
                 .collect(Collectors.toList());
-        return new ResponseEntity(readers, HttpStatus.OK);
+        return new ResponseEntity(new PageDto<>(readers, page.getNextPageToken()), HttpStatus.OK);
     }
 
     /**
@@ -52,7 +64,7 @@ public ResponseEntity findAllReaders() {
     @GetMapping("findById/{id}")
     public ResponseEntity findReaderById(@PathVariable Integer id) throws ReaderNotFoundException {
         ReaderEntity reader = readerService.findReaderById(id);
-        return new ResponseEntity(modelMapper.map(reader, ReaderDto.class), HttpStatus.OK);
+        return new ResponseEntity(readerMapper.toReaderDto(reader), HttpStatus.OK);
     }
 
     /**
@@ -75,7 +87,7 @@ public ResponseEntity findReaderByParameters(@RequestParam(required = false) Int
                                                  @RequestParam(required = false) Integer numberOfEveryBorrowedBooks) {
         List<ReaderDto> readers = readerService.findReaderByParameters(id, name, surname, birthDate, numberOfCurrentlyBorrowedBooks, numberOfEveryBorrowedBooks)
                 .stream()
-                .map(reader -> modelMapper.map(reader, ReaderDto.class))
+                .map(readerMapper::toReaderDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(readers, HttpStatus.OK);
     }
@@ -104,7 +116,7 @@ public ResponseEntity findChildByParameters(@RequestParam(required = false) Inte
         List<ReaderDto> readers = readerService.findChildByParameters(id, name, surname, birthDate,
                         numberOfCurrentlyBorrowedBooks, numberOfEveryBorrowedBooks, parentId)
                 .stream()
-                .map(reader -> modelMapper.map(reader, ReaderDto.class))
+                .map(readerMapper::toReaderDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(readers, HttpStatus.OK);
     }
@@ -134,21 +146,28 @@ public ResponseEntity findParentByParameters(@RequestParam(required = false) Int
         List<ReaderDto> readers = readerService.findParentByParameters(id, name, surname, birthDate, numberOfCurrentlyBorrowedBooks,
                         numberOfEveryBorrowedBooks, address, phoneNumber)
                 .stream()
-                .map(reader -> modelMapper.map(reader, ReaderDto.class))
+                .map(readerMapper::toReaderDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(readers, HttpStatus.OK);
     }
 
     /**
-     * Method to delete reader with given id
+     * Method to delete reader with given id together with his loans history
      *
-     * @param id, of reader which should be deleted
-     * @return
+     * @param id,    of reader which should be deleted
+     * @param async, if history should be deleted in background in chunks, useful for readers with very long history
+     * @return number of deleted loans, or only accepted status if deletion is done in background
      */
     @DeleteMapping("delete/{id}")
-    public ResponseEntity deleteReader(@PathVariable Integer id) throws ReaderHasCurrentlyBookOnLoanException, ReaderNotFoundException {
-        readerService.deleteReader(id);
-        return new ResponseEntity(HttpStatus.NO_CONTENT);
+    public ResponseEntity deleteReader(@PathVariable Integer id,
+                                       @RequestParam(defaultValue = "false") boolean async) throws ReaderHasCurrentlyBookOnLoanException, ReaderNotFoundException {
+        if (async) {
+            readerService.checkReaderCanBeDeleted(id);
+            loanHistoryPurgeService.deleteReaderInChunks(id);
+            return new ResponseEntity(HttpStatus.ACCEPTED);
+        }
+        int deletedLoans = readerService.deleteReader(id);
+        return new ResponseEntity(deletedLoans, HttpStatus.OK);
     }
 
     /**
@@ -160,7 +179,7 @@ public ResponseEntity deleteReader(@PathVariable Integer id) throws ReaderHasCur
     public ResponseEntity isReaderHaveBooksTooLong(@PathVariable Integer id) throws ReaderNotFoundException {
         List<LoanDto> loans = readerService.booksIdWhichReaderHaveTooMuchTime(id)
                 .stream()
-                .map(loan -> modelMapper.map(loan, LoanDto.class))
+                .map(loanMapper::toLoanDto)
                 .collect(Collectors.toList());
         return new ResponseEntity(loans, HttpStatus.OK);
     }
@@ -187,8 +206,26 @@ public ResponseEntity isReaderCanBorrowBook(@PathVariable Integer id) throws Rea
      */
     @PutMapping("add/")
     public ResponseEntity addReader(@RequestBody ReaderDto readerDto) {
-        ReaderEntity result = readerService.addReader(modelMapper.map(readerDto, ReaderEntity.class));
-        return new ResponseEntity(modelMapper.map(result, ReaderDto.class), HttpStatus.CREATED);
+        ReaderEntity result = readerService.addReader(readerMapper.toReaderEntity(readerDto));
+        return new ResponseEntity(readerMapper.toReaderDto(result), HttpStatus.CREATED);
+    }
+
+    /**
+     * Method to add many readers at once
+     *
+     * @param readerDtos, readers which should be added
+     * @return
+     */
+    @PutMapping("addAll/")
+    public ResponseEntity addReaders(@RequestBody List<ReaderDto> readerDtos) {
+        List<ReaderEntity> readers = readerDtos.stream()
+                .map(readerMapper::toReaderEntity)
+                .collect(Collectors.toList());
+        List<ReaderDto> result = readerService.addReaders(readers)
+                .stream()
+                .map(readerMapper::toReaderDto)
+                .collect(Collectors.toList());
+        return new ResponseEntity(result, HttpStatus.CREATED);
     }
 
     /**
@@ -199,8 +236,8 @@ public ResponseEntity addReader(@RequestBody ReaderDto readerDto) {
      */
     @PutMapping("parent/add/")
     public ResponseEntity addParentReader(@RequestBody ParentDto parentDto) {
-        ParentEntity result = readerService.addParentReader(modelMapper.map(parentDto, ParentEntity.class));
-        return new ResponseEntity(modelMapper.map(result, ParentDto.class), HttpStatus.OK);
+        ParentEntity result = readerService.addParentReader(readerMapper.toParentEntity(parentDto));
+        return new ResponseEntity(readerMapper.toParentDto(result), HttpStatus.OK);
     }
 
     /**
@@ -211,8 +248,8 @@ public ResponseEntity addParentReader(@RequestBody ParentDto parentDto) {
      */
     @PutMapping("child/add/")
     public ResponseEntity addChildReader(@RequestBody ChildDto childDto) throws ChildWithoutParentGuardianException, ParentNotFoundException {
-        ChildEntity result = readerService.addChildReader(modelMapper.map(childDto, ChildEntity.class));
-        return new ResponseEntity(modelMapper.map(result, ChildDto.class), HttpStatus.CREATED);
+        ChildEntity result = readerService.addChildReader(readerMapper.toChildEntity(childDto));
+        return new ResponseEntity(readerMapper.toChildDto(result), HttpStatus.CREATED);
     }
 
     /**
@@ -223,7 +260,7 @@ public ResponseEntity addChildReader(@RequestBody ChildDto childDto) throws Chil
      */
     @PatchMapping("edit/")
     public ResponseEntity editReader(@RequestBody ReaderDto readerWithNewData) throws ReaderNotFoundException {
-        ReaderEntity result = readerService.editReader(modelMapper.map(readerWithNewData, ReaderEntity.class));
+        ReaderEntity result = readerService.editReader(readerMapper.toReaderEntity(readerWithNewData));
         return new ResponseEntity(result, HttpStatus.OK);
     }
 
@@ -235,8 +272,8 @@ public ResponseEntity editReader(@RequestBody ReaderDto readerWithNewData) throw
      */
     @PatchMapping("parent/edit/")
     public ResponseEntity editParent(@RequestBody ParentDto parentWithNewData) throws ReaderIsNotParentException, ReaderNotFoundException {
-        ParentEntity result = readerService.editParent(modelMapper.map(parentWithNewData, ParentEntity.class));
-        return new ResponseEntity(modelMapper.map(result, ParentDto.class), HttpStatus.OK);
+        ParentEntity result = readerService.editParent(readerMapper.toParentEntity(parentWithNewData));
+        return new ResponseEntity(readerMapper.toParentDto(result), HttpStatus.OK);
     }
 
     /**
@@ -248,8 +285,8 @@ public ResponseEntity editParent(@RequestBody ParentDto parentWithNewData) throw
 
     @PatchMapping("child/edit/")
     public ResponseEntity editChild(@RequestBody ChildDto childWithNewData) throws ReaderNotFoundException, ParentNotFoundException, ReaderIsNotChildException {
-        ChildEntity result = readerService.editChild(modelMapper.map(childWithNewData, ChildEntity.class));
-        return new ResponseEntity(modelMapper.map(result, ChildDto.class), HttpStatus.OK);
+        ChildEntity result = readerService.editChild(readerMapper.toChildEntity(childWithNewData));
+        return new ResponseEntity(readerMapper.toChildDto(result), HttpStatus.OK);
     }
 
     /**
@@ -265,7 +302,7 @@ public ResponseEntity editChildToParent(@PathVariable Integer id,
                                             @RequestParam String address,
                                             @RequestParam String phoneNumber) throws ReaderNotFoundException, ReaderIsNotChildException {
         ReaderEntity result = readerService.editChildToParent(id, address, phoneNumber);
-        return new ResponseEntity(modelMapper.map(result, ReaderDto.class), HttpStatus.OK);
+        return new ResponseEntity(readerMapper.toReaderDto(result), HttpStatus.OK);
     }
 
 }
@@ -0,0 +1,17 @@
+package com.company.dtos;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookAvailabilityDto {
+
+    @ApiModelProperty(notes = "Book ID", example = "1")
+    private Integer bookId;
+    @ApiModelProperty(notes = "Quantity of current available books", example = "1")
+    private Integer quantityAvailable;
+}
@@ -0,0 +1,14 @@
+package com.company.dtos;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+@Data
+public class BookLoanStatusDto {
+
+    @ApiModelProperty(notes = "Id of book")
+    private Integer bookId;
+
+    @ApiModelProperty(notes = "Result of borrowing or returning book, for example BORROWED or BOOK_NOT_AVAILABLE")
+    private String status;
+}
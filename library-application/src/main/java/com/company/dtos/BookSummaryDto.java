@@ -0,0 +1,19 @@
+package com.company.dtos;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+@Data
+public class BookSummaryDto {
+
+    @ApiModelProperty(notes = "Book ID", example = "1")
+    private Integer id;
+    @ApiModelProperty(notes = "Book title", example = "Harry Potter")
+    private String title;
+    @ApiModelProperty(notes = "Author ID", example = "1")
+    private Integer authorId;
+    @ApiModelProperty(notes = "Author name", example = "Joanne")
+    private String authorName;
+    @ApiModelProperty(notes = "Author surname", example = "Rowling")
+    private String authorSurname;
+}
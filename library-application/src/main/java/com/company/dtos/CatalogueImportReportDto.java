@@ -0,0 +1,25 @@
+package com.company.dtos;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CatalogueImportReportDto {
+
+    @ApiModelProperty(notes = "Number of read records")
+    private long processedRecords;
+
+    @ApiModelProperty(notes = "Number of added books")
+    private long importedBooks;
+
+    @ApiModelProperty(notes = "Number of authors which didn't exist and were added")
+    private long createdAuthors;
+
+    @ApiModelProperty(notes = "Number of records which were not imported")
+    private long rejectedRecords;
+
+    @ApiModelProperty(notes = "First errors with number of line in catalogue")
+    private List<String> errors;
+}
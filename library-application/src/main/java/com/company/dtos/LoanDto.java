@@ -16,6 +16,8 @@ public class LoanDto {
 
     @ApiModelProperty(notes = "Date of borrow")
     private Date borrowDate;
+    @ApiModelProperty(notes = "Date until which book should be returned")
+    private Date dueDate;
     @ApiModelProperty(notes = "Date of return a book")
     private Date returnedDate;
 }
@@ -0,0 +1,20 @@
+package com.company.dtos;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDto<T> {
+
+    @ApiModelProperty(notes = "Items on page")
+    private List<T> items;
+
+    @ApiModelProperty(notes = "Token which should be given to get next page, empty if there is no next page")
+    private String nextPageToken;
+}
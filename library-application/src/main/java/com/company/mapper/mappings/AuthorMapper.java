@@ -0,0 +1,14 @@
+package com.company.mapper.mappings;
+
+import com.company.dtos.AuthorDto;
+import com.company.mapper.MappingConfig;
+import com.company.repository.models.entity.AuthorEntity;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MappingConfig.class)
+public interface AuthorMapper {
+
+    AuthorDto toAuthorDto(AuthorEntity authorEntity);
+
+    AuthorEntity toAuthorEntity(AuthorDto authorDto);
+}
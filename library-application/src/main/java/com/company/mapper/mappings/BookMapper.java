@@ -0,0 +1,46 @@
+package com.company.mapper.mappings;
+
+import com.company.dtos.BookAvailabilityDto;
+import com.company.dtos.BookDto;
+import com.company.dtos.BookSummaryDto;
+import com.company.dtos.CatalogueImportReportDto;
+import com.company.mapper.MappingConfig;
+import com.company.repository.models.entity.BookEntity;
+import com.company.repository.models.projection.BookSummary;
+import com.company.service.catalogue.CatalogueImportReport;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Mapper(config = MappingConfig.class, uses = AuthorMapper.class)
+public interface BookMapper {
+
+    BookDto toBookDto(BookEntity bookEntity);
+
+    @Mapping(target = "availability", ignore = true)
+    @Mapping(target = "quantityAvailable", ignore = true)
+    BookEntity toBookEntity(BookDto bookDto);
+
+    BookSummaryDto toBookSummaryDto(BookSummary bookSummary);
+
+    CatalogueImportReportDto toCatalogueImportReportDto(CatalogueImportReport catalogueImportReport);
+
+    /**
+     * Method to map available copies of books to dto's in order of requested ids, every book is returned once and books which
+     * don't exist are skipped
+     *
+     * @param bookIds,      ids of books in requested order
+     * @param availability, number of available copies by id of book
+     * @return
+     */
+    default List<BookAvailabilityDto> toBookAvailabilityDtos(List<Integer> bookIds, Map<Integer, Integer> availability) {
+        return bookIds.stream()
+                .distinct()
+                .filter(availability::containsKey)
+                .map(id -> new BookAvailabilityDto(id, availability.get(id)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.mapper.mappings;
+
+import com.company.dtos.BookLoanStatusDto;
+import com.company.dtos.LoanDto;
+import com.company.mapper.MappingConfig;
+import com.company.repository.models.entity.LoanEntity;
+import com.company.service.loans.BookLoanStatus;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MappingConfig.class, uses = {BookMapper.class, ReaderMapper.class})
+public interface LoanMapper {
+
+    LoanDto toLoanDto(LoanEntity loanEntity);
+
+    LoanEntity toLoanEntity(LoanDto loanDto);
+
+    BookLoanStatusDto toBookLoanStatusDto(BookLoanStatus bookLoanStatus);
+}
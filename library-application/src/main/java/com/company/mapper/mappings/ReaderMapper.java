@@ -0,0 +1,26 @@
+package com.company.mapper.mappings;
+
+import com.company.dtos.ChildDto;
+import com.company.dtos.ParentDto;
+import com.company.dtos.ReaderDto;
+import com.company.mapper.MappingConfig;
+import com.company.repository.models.entity.ChildEntity;
+import com.company.repository.models.entity.ParentEntity;
+import com.company.repository.models.entity.ReaderEntity;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MappingConfig.class)
+public interface ReaderMapper {
+
+    ReaderDto toReaderDto(ReaderEntity readerEntity);
+
+    ReaderEntity toReaderEntity(ReaderDto readerDto);
+
+    ParentDto toParentDto(ParentEntity parentEntity);
+
+    ParentEntity toParentEntity(ParentDto parentDto);
+
+    ChildDto toChildDto(ChildEntity childEntity);
+
+    ChildEntity toChildEntity(ChildDto childDto);
+}
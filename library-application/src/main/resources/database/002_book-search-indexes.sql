@@ -0,0 +1,5 @@
+--liquibase formatted sql
+--changeset Krystian:18 add indexes used by book search
+CREATE INDEX IF NOT EXISTS book_title_idx ON book (title);
+CREATE INDEX IF NOT EXISTS book_author_id_idx ON book (author_id);
+--rollback DROP INDEX book_author_id_idx; DROP INDEX book_title_idx;
@@ -0,0 +1,5 @@
+--liquibase formatted sql
+--changeset Krystian:19 add indexes used by reader search
+CREATE INDEX IF NOT EXISTS reader_surname_name_idx ON reader (surname, name);
+CREATE INDEX IF NOT EXISTS child_parent_id_idx ON child (parent_id);
+--rollback DROP INDEX child_parent_id_idx; DROP INDEX reader_surname_name_idx;
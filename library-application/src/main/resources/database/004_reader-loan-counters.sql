@@ -0,0 +1,19 @@
+--liquibase formatted sql
+--changeset Krystian:20 add loan counters columns to reader
+ALTER TABLE reader
+    ADD COLUMN currently_borrowed_books int NOT NULL DEFAULT 0;
+ALTER TABLE reader
+    ADD COLUMN every_borrowed_books int NOT NULL DEFAULT 0;
+--rollback ALTER TABLE reader DROP COLUMN every_borrowed_books; ALTER TABLE reader DROP COLUMN currently_borrowed_books;
+
+--changeset Krystian:21 backfill loan counters of reader
+UPDATE reader r
+SET currently_borrowed_books = c.currently_borrowed_books,
+    every_borrowed_books     = c.every_borrowed_books
+FROM (SELECT reader_id,
+             count(*) FILTER (WHERE returned_date IS NULL) AS currently_borrowed_books,
+             count(*)                                      AS every_borrowed_books
+      FROM loans
+      GROUP BY reader_id) c
+WHERE r.id = c.reader_id;
+--rollback UPDATE reader SET currently_borrowed_books = 0, every_borrowed_books = 0;
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+--changeset Krystian:22 add available copies column to book
+ALTER TABLE book
+    ADD COLUMN available_copies int;
+UPDATE book b
+SET available_copies = GREATEST(b.quantity - (SELECT count(*) FROM loans l WHERE l.book_id = b.id AND l.returned_date IS NULL), 0);
+ALTER TABLE book
+    ALTER COLUMN available_copies SET NOT NULL;
+--rollback ALTER TABLE book DROP COLUMN available_copies;
+
+--changeset Krystian:23 available copies of book can't be negative
+ALTER TABLE book
+    ADD CONSTRAINT book_available_copies_check CHECK (available_copies >= 0);
+--rollback ALTER TABLE book DROP CONSTRAINT book_available_copies_check;
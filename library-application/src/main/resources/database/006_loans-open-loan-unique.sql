@@ -0,0 +1,4 @@
+--liquibase formatted sql
+--changeset Krystian:24 reader can have only one open loan of the same book
+CREATE UNIQUE INDEX IF NOT EXISTS loans_open_loan_uidx ON loans (book_id, reader_id) WHERE returned_date IS NULL;
+--rollback DROP INDEX loans_open_loan_uidx;
@@ -0,0 +1,11 @@
+--liquibase formatted sql
+--changeset Krystian:25 create pooled id sequences of author, book and reader
+CREATE SEQUENCE IF NOT EXISTS author_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS book_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS reader_seq INCREMENT BY 50;
+SELECT setval('author_seq', COALESCE((SELECT max(id) FROM author), 0) + 50, false);
+SELECT setval('book_seq', COALESCE((SELECT max(id) FROM book), 0) + 50, false);
+SELECT setval('reader_seq', COALESCE((SELECT max(id) FROM reader), 0) + 50, false);
+--rollback DROP SEQUENCE reader_seq;
+--rollback DROP SEQUENCE book_seq;
+--rollback DROP SEQUENCE author_seq;
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+--changeset Krystian:26 runInTransaction:false index open loans of reader, covering overdue check
+CREATE INDEX CONCURRENTLY IF NOT EXISTS loans_reader_open_idx ON loans (reader_id, borrow_date) INCLUDE (book_id) WHERE returned_date IS NULL;
+--rollback DROP INDEX CONCURRENTLY loans_reader_open_idx;
+
+--changeset Krystian:27 runInTransaction:false index loans history of reader, covering loan counters
+CREATE INDEX CONCURRENTLY IF NOT EXISTS loans_reader_id_idx ON loans (reader_id) INCLUDE (returned_date);
+--rollback DROP INDEX CONCURRENTLY loans_reader_id_idx;
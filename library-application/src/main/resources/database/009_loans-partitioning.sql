@@ -0,0 +1,76 @@
+--liquibase formatted sql
+--changeset Krystian:28 splitStatements:false create functions maintaining partitions of loans history
+CREATE OR REPLACE FUNCTION create_loans_history_partitions(first_date date, last_date date) RETURNS int AS
+$$
+DECLARE
+    partition_month date := date_trunc('month', first_date)::date;
+    partition_name  text;
+    created         int  := 0;
+BEGIN
+    WHILE partition_month <= last_date
+        LOOP
+            partition_name := 'loans_returned_' || to_char(partition_month, 'YYYY_MM');
+            IF to_regclass(partition_name) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF loans (PRIMARY KEY (book_id, reader_id, borrow_date)) FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, partition_month, (partition_month + interval '1 month')::date);
+                created := created + 1;
+            END IF;
+            partition_month := (partition_month + interval '1 month')::date;
+        END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION detach_loans_history_partitions(before_date date) RETURNS SETOF text AS
+$$
+DECLARE
+    partition_name text;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'loans'::regclass
+          AND c.relname ~ '^loans_returned_\d{4}_\d{2}$'
+          AND to_date(substring(c.relname FROM 16), 'YYYY_MM') + interval '1 month' <= before_date
+        ORDER BY c.relname
+        LOOP
+            EXECUTE format('ALTER TABLE loans DETACH PARTITION %I', partition_name);
+            RETURN NEXT partition_name;
+        END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+--rollback DROP FUNCTION detach_loans_history_partitions(date); DROP FUNCTION create_loans_history_partitions(date, date);
+
+--changeset Krystian:29 partition loans by returned date, open loans are kept in default partition
+ALTER TABLE loans
+    RENAME TO loans_unpartitioned;
+CREATE TABLE loans
+(
+    book_id       int  NOT NULL REFERENCES book (id),
+    reader_id     int  NOT NULL REFERENCES reader (id),
+    borrow_date   date NOT NULL DEFAULT CURRENT_DATE,
+    returned_date date NULL
+) PARTITION BY RANGE (returned_date);
+CREATE TABLE loans_open PARTITION OF loans
+(
+    PRIMARY KEY (book_id, reader_id, borrow_date),
+    CONSTRAINT loans_open_returned_date_check CHECK (returned_date IS NULL)
+) DEFAULT;
+SELECT create_loans_history_partitions(COALESCE((SELECT min(returned_date) FROM loans_unpartitioned), CURRENT_DATE),
+                                       (CURRENT_DATE + interval '3 months')::date);
+INSERT INTO loans (book_id, reader_id, borrow_date, returned_date)
+SELECT book_id, reader_id, borrow_date, returned_date
+FROM loans_unpartitioned;
+DROP TABLE loans_unpartitioned;
+CREATE UNIQUE INDEX IF NOT EXISTS loans_open_loan_uidx ON loans_open (book_id, reader_id);
+CREATE INDEX IF NOT EXISTS loans_reader_open_idx ON loans_open (reader_id, borrow_date) INCLUDE (book_id);
+CREATE INDEX IF NOT EXISTS loans_reader_id_idx ON loans (reader_id) INCLUDE (returned_date);
+ANALYZE loans;
+--rollback ALTER TABLE loans RENAME TO loans_partitioned;
+--rollback CREATE TABLE loans (book_id int NOT NULL REFERENCES book (id), reader_id int NOT NULL REFERENCES reader (id), borrow_date date NOT NULL DEFAULT CURRENT_DATE, returned_date date NULL, CONSTRAINT key PRIMARY KEY (book_id, reader_id, borrow_date));
+--rollback INSERT INTO loans SELECT book_id, reader_id, borrow_date, returned_date FROM loans_partitioned;
+--rollback DROP TABLE loans_partitioned;
+--rollback CREATE UNIQUE INDEX loans_open_loan_uidx ON loans (book_id, reader_id) WHERE returned_date IS NULL;
+--rollback CREATE INDEX loans_reader_open_idx ON loans (reader_id, borrow_date) INCLUDE (book_id) WHERE returned_date IS NULL;
+--rollback CREATE INDEX loans_reader_id_idx ON loans (reader_id) INCLUDE (returned_date);
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+--changeset Krystian:30 add due date column to loans, due date of open loans is counted from current lending rules
+ALTER TABLE loans
+    ADD COLUMN due_date DATE NULL;
+UPDATE loans
+SET due_date = borrow_date + (SELECT maxnumberofdaystoborrowabook FROM configuration WHERE id = 1)
+WHERE returned_date IS NULL;
+--rollback ALTER TABLE loans DROP COLUMN due_date;
+
+--changeset Krystian:31 index open loans by due date, overdue check of reader is covered by due date
+CREATE INDEX IF NOT EXISTS loans_open_due_date_idx ON loans_open (due_date, reader_id, book_id);
+DROP INDEX IF EXISTS loans_reader_open_idx;
+CREATE INDEX IF NOT EXISTS loans_reader_open_idx ON loans_open (reader_id, due_date) INCLUDE (book_id);
+--rollback DROP INDEX loans_reader_open_idx; CREATE INDEX loans_reader_open_idx ON loans_open (reader_id, borrow_date) INCLUDE (book_id); DROP INDEX loans_open_due_date_idx;
@@ -0,0 +1,75 @@
+--liquibase formatted sql
+--changeset Krystian:32 splitStatements:false fail clearly when returned loan has no partition of loans history
+CREATE OR REPLACE FUNCTION check_loans_history_partition_exists() RETURNS trigger AS
+$$
+DECLARE
+    partition_name text;
+BEGIN
+    IF NEW.returned_date IS NULL THEN
+        RETURN NEW;
+    END IF;
+    partition_name := 'loans_returned_' || to_char(NEW.returned_date, 'YYYY_MM');
+    IF NOT EXISTS(SELECT 1
+                  FROM pg_inherits
+                  WHERE inhparent = 'loans'::regclass
+                    AND inhrelid = to_regclass(partition_name)) THEN
+        RAISE EXCEPTION 'Partition % of loans returned on % doesn''t exist', partition_name, NEW.returned_date
+            USING ERRCODE = 'check_violation',
+                HINT = format('Create it by SELECT create_loans_history_partitions(%L, %L)', NEW.returned_date, NEW.returned_date);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER loans_open_history_partition_check
+    BEFORE INSERT OR UPDATE OF returned_date
+    ON loans_open
+    FOR EACH ROW
+EXECUTE FUNCTION check_loans_history_partition_exists();
+--rollback DROP TRIGGER loans_open_history_partition_check ON loans_open; DROP FUNCTION check_loans_history_partition_exists();
+
+--changeset Krystian:33 splitStatements:false drop foreign keys of detached partitions, so archived loans don't block deletion of books and readers
+CREATE OR REPLACE FUNCTION detach_loans_history_partitions(before_date date) RETURNS SETOF text AS
+$$
+DECLARE
+    partition_name  text;
+    constraint_name text;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'loans'::regclass
+          AND c.relname ~ '^loans_returned_\d{4}_\d{2}$'
+          AND to_date(substring(c.relname FROM 16), 'YYYY_MM') + interval '1 month' <= before_date
+        ORDER BY c.relname
+        LOOP
+            EXECUTE format('ALTER TABLE loans DETACH PARTITION %I', partition_name);
+            FOR constraint_name IN
+                SELECT conname FROM pg_constraint WHERE conrelid = partition_name::regclass AND contype = 'f'
+                LOOP
+                    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, constraint_name);
+                END LOOP;
+            RETURN NEXT partition_name;
+        END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+DO
+$$
+    DECLARE
+        archived record;
+    BEGIN
+        FOR archived IN
+            SELECT c.relname, con.conname
+            FROM pg_class c
+                     JOIN pg_constraint con ON con.conrelid = c.oid AND con.contype = 'f'
+            WHERE c.relname ~ '^loans_returned_\d{4}_\d{2}$'
+              AND c.relkind = 'r'
+              AND NOT c.relispartition
+            LOOP
+                EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', archived.relname, archived.conname);
+            END LOOP;
+    END;
+$$;
+--rollback CREATE OR REPLACE FUNCTION detach_loans_history_partitions(before_date date) RETURNS SETOF text AS $$ DECLARE partition_name text; BEGIN FOR partition_name IN SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'loans'::regclass AND c.relname ~ '^loans_returned_\d{4}_\d{2}$' AND to_date(substring(c.relname FROM 16), 'YYYY_MM') + interval '1 month' <= before_date ORDER BY c.relname LOOP EXECUTE format('ALTER TABLE loans DETACH PARTITION %I', partition_name); RETURN NEXT partition_name; END LOOP; END; $$ LANGUAGE plpgsql;
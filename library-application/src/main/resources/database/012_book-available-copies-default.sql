@@ -0,0 +1,16 @@
+--liquibase formatted sql
+--changeset Krystian:34 splitStatements:false all copies of inserted book are available when available copies are not given
+CREATE OR REPLACE FUNCTION set_book_available_copies() RETURNS trigger AS
+$$
+BEGIN
+    NEW.available_copies := COALESCE(NEW.available_copies, NEW.quantity);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER book_available_copies_default
+    BEFORE INSERT
+    ON book
+    FOR EACH ROW
+EXECUTE FUNCTION set_book_available_copies();
+--rollback DROP TRIGGER book_available_copies_default ON book; DROP FUNCTION set_book_available_copies();
@@ -0,0 +1,55 @@
+--liquibase formatted sql
+--changeset Krystian:35 splitStatements:false count loans of readers which were moved to detached partitions
+ALTER TABLE reader
+    ADD COLUMN archived_borrowed_books integer NOT NULL DEFAULT 0;
+
+DO
+$$
+    DECLARE
+        archived record;
+    BEGIN
+        FOR archived IN
+            SELECT c.relname
+            FROM pg_class c
+            WHERE c.relname ~ '^loans_returned_\d{4}_\d{2}$'
+              AND c.relkind = 'r'
+              AND NOT c.relispartition
+            LOOP
+                EXECUTE format('UPDATE reader r SET archived_borrowed_books = r.archived_borrowed_books + c.loans ' ||
+                               'FROM (SELECT reader_id, count(*) AS loans FROM %I GROUP BY reader_id) c WHERE r.id = c.reader_id',
+                               archived.relname);
+            END LOOP;
+    END;
+$$;
+--rollback ALTER TABLE reader DROP COLUMN archived_borrowed_books;
+
+--changeset Krystian:36 splitStatements:false add loans of detached partition to archived loans of its readers
+CREATE OR REPLACE FUNCTION detach_loans_history_partitions(before_date date) RETURNS SETOF text AS
+$$
+DECLARE
+    partition_name  text;
+    constraint_name text;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'loans'::regclass
+          AND c.relname ~ '^loans_returned_\d{4}_\d{2}$'
+          AND to_date(substring(c.relname FROM 16), 'YYYY_MM') + interval '1 month' <= before_date
+        ORDER BY c.relname
+        LOOP
+            EXECUTE format('UPDATE reader r SET archived_borrowed_books = r.archived_borrowed_books + c.loans ' ||
+                           'FROM (SELECT reader_id, count(*) AS loans FROM %I GROUP BY reader_id) c WHERE r.id = c.reader_id',
+                           partition_name);
+            EXECUTE format('ALTER TABLE loans DETACH PARTITION %I', partition_name);
+            FOR constraint_name IN
+                SELECT conname FROM pg_constraint WHERE conrelid = partition_name::regclass AND contype = 'f'
+                LOOP
+                    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, constraint_name);
+                END LOOP;
+            RETURN NEXT partition_name;
+        END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+--rollback CREATE OR REPLACE FUNCTION detach_loans_history_partitions(before_date date) RETURNS SETOF text AS $$ DECLARE partition_name text; constraint_name text; BEGIN FOR partition_name IN SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'loans'::regclass AND c.relname ~ '^loans_returned_\d{4}_\d{2}$' AND to_date(substring(c.relname FROM 16), 'YYYY_MM') + interval '1 month' <= before_date ORDER BY c.relname LOOP EXECUTE format('ALTER TABLE loans DETACH PARTITION %I', partition_name); FOR constraint_name IN SELECT conname FROM pg_constraint WHERE conrelid = partition_name::regclass AND contype = 'f' LOOP EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, constraint_name); END LOOP; RETURN NEXT partition_name; END LOOP; END; $$ LANGUAGE plpgsql;
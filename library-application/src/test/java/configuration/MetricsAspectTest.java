@@ -0,0 +1,63 @@
+package configuration;
+
+import com.company.configuration.MetricsAspect;
+import com.company.repository.models.configuration.LendingRules;
+import com.company.repository.models.repository.ConfigurationRepository;
+import com.company.service.ConfigurationService;
+import com.company.service.LendingRulesCache;
+import com.company.service.exceptions.ConfigurationValueIncorrectException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConfigurationService configurationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ConfigurationRepository configurationRepository = mock(ConfigurationRepository.class);
+        when(configurationRepository.getLendingRules()).thenReturn(new LendingRules(5, 30, 12));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new ConfigurationService(configurationRepository,
+                new LendingRulesCache(configurationRepository)));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new MetricsAspect(meterRegistry));
+        configurationService = proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Should time service method")
+    void shouldTimeServiceMethod() {
+        //when
+        configurationService.getMaxNumberOfBorrowedBooks();
+        //then
+        Assertions.assertEquals(1, meterRegistry.get(MetricsAspect.SERVICE_TIMER)
+                .tag("service", "ConfigurationService")
+                .tag("method", "getMaxNumberOfBorrowedBooks")
+                .tag("exception", "None")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("Should count rejection by type of exception")
+    void shouldCountRejectionByTypeOfException() {
+        //when
+        Assertions.assertThrows(ConfigurationValueIncorrectException.class, () -> configurationService.editMinAgeToBorrowABook(-1));
+        //then
+        Assertions.assertEquals(1, meterRegistry.get(MetricsAspect.SERVICE_REJECTIONS)
+                .tag("method", "editMinAgeToBorrowABook")
+                .tag("exception", "ConfigurationValueIncorrectException")
+                .counter().count());
+        Assertions.assertEquals(1, meterRegistry.get(MetricsAspect.SERVICE_TIMER)
+                .tag("exception", "ConfigurationValueIncorrectException")
+                .timer().count());
+    }
+}
@@ -3,19 +3,25 @@
 import com.company.dtos.*;
 import com.company.mapper.mappings.*;
 import com.company.repository.models.entity.*;
+import com.company.repository.models.projection.BookSummary;
+import com.company.service.loans.BookLoanStatus;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
 
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 public class MappingsTest {
 
 
-    private ModelMapper modelMapper;
+    private AuthorMapper authorMapper;
+    private BookMapper bookMapper;
+    private ReaderMapper readerMapper;
+    private LoanMapper loanMapper;
     private static AuthorDto authorDto;
     private static AuthorEntity authorEntity;
     private static BookDto bookDto;
@@ -31,19 +37,10 @@ public class MappingsTest {
 
     @BeforeEach
     void setUp() {
-        modelMapper = new ModelMapper();
-        modelMapper.addConverter(new AuthorDtoToAuthorEntity());
-        modelMapper.addConverter(new AuthorEntityToAuthorDto());
-        modelMapper.addConverter(new BookDtoToBookEntity());
-        modelMapper.addConverter(new BookEntityToBookDto());
-        modelMapper.addConverter(new ChildDtoToChildEntity());
-        modelMapper.addConverter(new ChildEntityToChildDto());
-        modelMapper.addConverter(new LoanDtoToLoanEntity());
-        modelMapper.addConverter(new LoanEntityToLoanDto());
-        modelMapper.addConverter(new ParentDtoToParentEntity());
-        modelMapper.addConverter(new ParentEntityToParentDto());
-        modelMapper.addConverter(new ReaderDtoToReaderEntity());
-        modelMapper.addConverter(new ReaderEntityToReaderDto());
+        authorMapper = new AuthorMapperImpl();
+        bookMapper = new BookMapperImpl(authorMapper);
+        readerMapper = new ReaderMapperImpl();
+        loanMapper = new LoanMapperImpl(bookMapper, readerMapper);
     }
 
     @BeforeEach
@@ -67,7 +64,7 @@ void initValues() {
     void authorDtoToAuthorEntity() {
         //given
         //when
-        AuthorEntity authorEntity = modelMapper.map(authorDto, AuthorEntity.class);
+        AuthorEntity authorEntity = authorMapper.toAuthorEntity(authorDto);
         //then
         equalsAuthors(authorDto, authorEntity);
     }
@@ -77,7 +74,7 @@ void authorDtoToAuthorEntity() {
     void authorEntityToAuthorDto() {
         //given
         //when
-        AuthorDto authorDto = modelMapper.map(authorEntity, AuthorDto.class);
+        AuthorDto authorDto = authorMapper.toAuthorDto(authorEntity);
         //then
         equalsAuthors(authorDto, authorEntity);
     }
@@ -87,9 +84,10 @@ void authorEntityToAuthorDto() {
     void bookDtoToBookEntity() {
         //given
         //when
-        BookEntity bookEntity = modelMapper.map(bookDto, BookEntity.class);
+        BookEntity bookEntity = bookMapper.toBookEntity(bookDto);
         //then
         equalsBooks(bookDto, bookEntity);
+        Assertions.assertNull(bookEntity.getQuantityAvailable());
     }
 
     @Test
@@ -97,9 +95,62 @@ void bookDtoToBookEntity() {
     void bookEntityToBookDto() {
         //given
         //when
-        BookDto bookDto = modelMapper.map(bookEntity, BookDto.class);
+        BookDto bookDto = bookMapper.toBookDto(bookEntity);
         //then
         equalsBooks(bookDto, bookEntity);
+        Assertions.assertEquals(bookEntity.getQuantityAvailable(), bookDto.getQuantityAvailable());
+    }
+
+    @Test
+    @DisplayName("Should map book summary to book summary dto")
+    void bookSummaryToBookSummaryDto() {
+        //given
+        BookSummary bookSummary = new BookSummary() {
+            @Override
+            public Integer getId() {
+                return bookEntity.getId();
+            }
+
+            @Override
+            public String getTitle() {
+                return bookEntity.getTitle();
+            }
+
+            @Override
+            public Integer getAuthorId() {
+                return bookEntity.getAuthor().getId();
+            }
+
+            @Override
+            public String getAuthorName() {
+                return bookEntity.getAuthor().getName();
+            }
+
+            @Override
+            public String getAuthorSurname() {
+                return bookEntity.getAuthor().getSurname();
+            }
+        };
+        //when
+        BookSummaryDto bookSummaryDto = bookMapper.toBookSummaryDto(bookSummary);
+        //then
+        Assertions.assertEquals(bookEntity.getId(), bookSummaryDto.getId());
+        Assertions.assertEquals(bookEntity.getTitle(), bookSummaryDto.getTitle());
+        Assertions.assertEquals(bookEntity.getAuthor().getId(), bookSummaryDto.getAuthorId());
+        Assertions.assertEquals(bookEntity.getAuthor().getName(), bookSummaryDto.getAuthorName());
+        Assertions.assertEquals(bookEntity.getAuthor().getSurname(), bookSummaryDto.getAuthorSurname());
+    }
+
+    @Test
+    @DisplayName("Should map availability of books in requested order and skip books which don't exist")
+    void availabilityToBookAvailabilityDtos() {
+        //given
+        List<Integer> bookIds = List.of(3, 99, 1, 3, 2);
+        Map<Integer, Integer> availability = Map.of(1, 0, 2, 5, 3, 1);
+        //when
+        List<BookAvailabilityDto> result = bookMapper.toBookAvailabilityDtos(bookIds, availability);
+        //then
+        Assertions.assertEquals(List.of(new BookAvailabilityDto(3, 1), new BookAvailabilityDto(1, 0), new BookAvailabilityDto(2, 5)), result);
     }
 
     @Test
@@ -107,7 +158,7 @@ void bookEntityToBookDto() {
     void readerDtoToReaderEntity() {
         //given
         //when
-        ReaderEntity readerEntity = modelMapper.map(readerDto, ReaderEntity.class);
+        ReaderEntity readerEntity = readerMapper.toReaderEntity(readerDto);
         //then
         equalsReaders(readerDto,readerEntity);
     }
@@ -117,7 +168,7 @@ void readerDtoToReaderEntity() {
     void readerEntityToReaderDto(){
         //given
         //when
-        ReaderDto readerDto = modelMapper.map(readerEntity,ReaderDto.class);
+        ReaderDto readerDto = readerMapper.toReaderDto(readerEntity);
         //then
         equalsReaders(readerDto,readerEntity);
     }
@@ -127,7 +178,7 @@ void readerEntityToReaderDto(){
     void parentDtoToParentEntity(){
         //given
         //when
-        ParentEntity parentEntity = modelMapper.map(parentDto,ParentEntity.class);
+        ParentEntity parentEntity = readerMapper.toParentEntity(parentDto);
         //then
         equalsParents(parentDto,parentEntity);
     }
@@ -137,7 +188,7 @@ void parentDtoToParentEntity(){
     void shouldMapParentEntityToParentDto(){
         //given
         //when
-        ParentDto parentDto = modelMapper.map(parentEntity,ParentDto.class);
+        ParentDto parentDto = readerMapper.toParentDto(parentEntity);
         //then
         equalsParents(parentDto,parentEntity);
     }
@@ -147,7 +198,7 @@ void shouldMapParentEntityToParentDto(){
     void childEntityToChildDto(){
         //given
         //when
-        ChildDto childDto = modelMapper.map(childEntity,ChildDto.class);
+        ChildDto childDto = readerMapper.toChildDto(childEntity);
         //then
         equalsChild(childDto,childEntity);
     }
@@ -157,7 +208,7 @@ void childEntityToChildDto(){
     void childDtoToChildEntity(){
         //given
         //when
-        ChildEntity childEntity = modelMapper.map(childDto,ChildEntity.class);
+        ChildEntity childEntity = readerMapper.toChildEntity(childDto);
         //then
         equalsChild(childDto,childEntity);
     }
@@ -167,17 +218,29 @@ void childDtoToChildEntity(){
     void loanDtoToLoanEntity(){
         //given
         //when
-        LoanEntity loanEntity = modelMapper.map(loanDto,LoanEntity.class);
+        LoanEntity loanEntity = loanMapper.toLoanEntity(loanDto);
         //then
         equalsLoan(loanDto,loanEntity);
     }
 
+    @Test
+    @DisplayName("Should map status of book loan to dto")
+    void bookLoanStatusToBookLoanStatusDto(){
+        //given
+        BookLoanStatus bookLoanStatus = new BookLoanStatus(1, BookLoanStatus.Status.BOOK_NOT_AVAILABLE);
+        //when
+        BookLoanStatusDto bookLoanStatusDto = loanMapper.toBookLoanStatusDto(bookLoanStatus);
+        //then
+        Assertions.assertEquals(1, bookLoanStatusDto.getBookId());
+        Assertions.assertEquals("BOOK_NOT_AVAILABLE", bookLoanStatusDto.getStatus());
+    }
+
     @Test
     @DisplayName("Should map loan entity to loan dto")
     void loanEntityToLoanDto(){
         //given
         //when
-        LoanDto loanDto = modelMapper.map(loanEntity,LoanDto.class);
+        LoanDto loanDto = loanMapper.toLoanDto(loanEntity);
         //then
         equalsLoan(loanDto,loanEntity);
     }
@@ -187,6 +250,7 @@ private void equalsLoan(LoanDto loanDto, LoanEntity loanEntity) {
         equalsBooks(loanDto.getBook(),loanEntity.getBook());
         equalsReaders(loanDto.getReader(),loanEntity.getReader());
         Assertions.assertEquals(loanDto.getBorrowDate(),loanEntity.getBorrowDate());
+        Assertions.assertEquals(loanDto.getDueDate(),loanEntity.getDueDate());
         Assertions.assertEquals(loanDto.getReturnedDate(),loanDto.getReturnedDate());
     }
     private void equalsChild(ChildDto childDto, ChildEntity childEntity) {
@@ -213,7 +277,6 @@ private void equalsBooks(BookDto bookDto, BookEntity bookEntity) {
         Assertions.assertEquals(bookDto.getTitle(), bookEntity.getTitle());
         Assertions.assertEquals(bookDto.getId(), bookEntity.getId());
         Assertions.assertEquals(bookDto.getQuantity(), bookEntity.getQuantity());
-        Assertions.assertEquals(bookDto.getQuantityAvailable(), bookEntity.getQuantityAvailable());
         equalsAuthors(bookDto.getAuthor(), bookEntity.getAuthor());
     }
 
@@ -228,6 +291,7 @@ private void initLoanEntity(){
         loanEntity.setBook(bookEntity);
         loanEntity.setReader(readerEntity);
         loanEntity.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(10)));
+        loanEntity.setDueDate(Date.valueOf(LocalDate.now()));
         loanEntity.setReturnedDate(Date.valueOf(LocalDate.now().minusYears(1)));
     }
 
@@ -236,6 +300,7 @@ private void initLoanDto(){
         loanDto.setBook(bookDto);
         loanDto.setReader(readerDto);
         loanDto.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(10)));
+        loanDto.setDueDate(Date.valueOf(LocalDate.now()));
         loanDto.setReturnedDate(Date.valueOf(LocalDate.now().minusYears(1)));
     }
 
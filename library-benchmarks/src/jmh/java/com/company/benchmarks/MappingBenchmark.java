@@ -0,0 +1,176 @@
+package com.company.benchmarks;
+
+import com.company.benchmarks.modelmapper.*;
+import com.company.benchmarks.support.SyntheticDataset;
+import com.company.dtos.*;
+import com.company.mapper.mappings.*;
+import com.company.repository.models.entity.*;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Every mapper generated by MapStruct from com.company.mapper.mappings, each benchmark maps single page of rows taken from synthetic
+ * dataset in both directions. Loans and books are also mapped by reflective ModelMapper converters, which were used by controllers
+ * before, so both paths can be compared on the same page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    private static final int ROWS = 10000;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ModelMapper modelMapper;
+    private AuthorMapper authorMapper;
+    private BookMapper bookMapper;
+    private ReaderMapper readerMapper;
+    private LoanMapper loanMapper;
+
+    private List<AuthorEntity> authors;
+    private List<BookEntity> books;
+    private List<ReaderEntity> readers;
+    private List<ParentEntity> parents;
+    private List<ChildEntity> children;
+    private List<LoanEntity> loans;
+    private List<AuthorDto> authorDtos;
+    private List<BookDto> bookDtos;
+    private List<ReaderDto> readerDtos;
+    private List<ParentDto> parentDtos;
+    private List<ChildDto> childDtos;
+    private List<LoanDto> loanDtos;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.addConverter(new AuthorDtoToAuthorEntity());
+        modelMapper.addConverter(new AuthorEntityToAuthorDto());
+        modelMapper.addConverter(new BookDtoToBookEntity());
+        modelMapper.addConverter(new BookEntityToBookDto());
+        modelMapper.addConverter(new ChildDtoToChildEntity());
+        modelMapper.addConverter(new ChildEntityToChildDto());
+        modelMapper.addConverter(new LoanDtoToLoanEntity());
+        modelMapper.addConverter(new LoanEntityToLoanDto());
+        modelMapper.addConverter(new ParentDtoToParentEntity());
+        modelMapper.addConverter(new ParentEntityToParentDto());
+        modelMapper.addConverter(new ReaderDtoToReaderEntity());
+        modelMapper.addConverter(new ReaderEntityToReaderDto());
+
+        authorMapper = new AuthorMapperImpl();
+        bookMapper = new BookMapperImpl(authorMapper);
+        readerMapper = new ReaderMapperImpl();
+        loanMapper = new LoanMapperImpl(bookMapper, readerMapper);
+
+        SyntheticDataset dataset = new SyntheticDataset(ROWS);
+        authors = dataset.getAuthors().subList(0, pageSize);
+        books = dataset.getBooks().subList(0, pageSize);
+        readers = dataset.getReaders().subList(0, pageSize);
+        parents = dataset.getReaders().stream().filter(ParentEntity.class::isInstance).map(ParentEntity.class::cast)
+                .limit(pageSize).collect(Collectors.toList());
+        children = dataset.getReaders().stream().filter(ChildEntity.class::isInstance).map(ChildEntity.class::cast)
+                .limit(pageSize).collect(Collectors.toList());
+        loans = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            LoanEntity loan = new LoanEntity();
+            loan.setBook(books.get(i));
+            loan.setReader(readers.get(i));
+            loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(i % 30)));
+            loans.add(loan);
+        }
+
+        authorDtos = map(authors, authorMapper::toAuthorDto);
+        bookDtos = map(books, bookMapper::toBookDto);
+        readerDtos = map(readers, readerMapper::toReaderDto);
+        parentDtos = map(parents, readerMapper::toParentDto);
+        childDtos = map(children, readerMapper::toChildDto);
+        loanDtos = map(loans, loanMapper::toLoanDto);
+    }
+
+    @Benchmark
+    public List<AuthorDto> toAuthorDto() {
+        return map(authors, authorMapper::toAuthorDto);
+    }
+
+    @Benchmark
+    public List<AuthorEntity> toAuthorEntity() {
+        return map(authorDtos, authorMapper::toAuthorEntity);
+    }
+
+    @Benchmark
+    public List<BookDto> toBookDto() {
+        return map(books, bookMapper::toBookDto);
+    }
+
+    @Benchmark
+    public List<BookEntity> toBookEntity() {
+        return map(bookDtos, bookMapper::toBookEntity);
+    }
+
+    @Benchmark
+    public List<BookEntity> modelMapperToBookEntity() {
+        return map(bookDtos, book -> modelMapper.map(book, BookEntity.class));
+    }
+
+    @Benchmark
+    public List<ReaderDto> toReaderDto() {
+        return map(readers, readerMapper::toReaderDto);
+    }
+
+    @Benchmark
+    public List<ReaderEntity> toReaderEntity() {
+        return map(readerDtos, readerMapper::toReaderEntity);
+    }
+
+    @Benchmark
+    public List<ParentDto> toParentDto() {
+        return map(parents, readerMapper::toParentDto);
+    }
+
+    @Benchmark
+    public List<ParentEntity> toParentEntity() {
+        return map(parentDtos, readerMapper::toParentEntity);
+    }
+
+    @Benchmark
+    public List<ChildDto> toChildDto() {
+        return map(children, readerMapper::toChildDto);
+    }
+
+    @Benchmark
+    public List<ChildEntity> toChildEntity() {
+        return map(childDtos, readerMapper::toChildEntity);
+    }
+
+    @Benchmark
+    public List<LoanDto> toLoanDto() {
+        return map(loans, loanMapper::toLoanDto);
+    }
+
+    @Benchmark
+    public List<LoanDto> modelMapperToLoanDto() {
+        return map(loans, loan -> modelMapper.map(loan, LoanDto.class));
+    }
+
+    @Benchmark
+    public List<LoanEntity> toLoanEntity() {
+        return map(loanDtos, loanMapper::toLoanEntity);
+    }
+
+    private static <S, T> List<T> map(List<S> source, Function<S, T> mapper) {
+        List<T> result = new ArrayList<>(source.size());
+        for (S element : source) {
+            result.add(mapper.apply(element));
+        }
+        return result;
+    }
+}
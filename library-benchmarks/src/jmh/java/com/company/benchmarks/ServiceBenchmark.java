@@ -0,0 +1,149 @@
+package com.company.benchmarks;
+
+import com.company.benchmarks.support.Eligibility;
+import com.company.benchmarks.support.RepositoryStubs;
+import com.company.benchmarks.support.SyntheticDataset;
+import com.company.repository.models.configuration.LendingRules;
+import com.company.repository.models.entity.AuthorEntity;
+import com.company.repository.models.entity.BookEntity;
+import com.company.repository.models.entity.ReaderEntity;
+import com.company.repository.models.repository.*;
+import com.company.service.*;
+import com.company.service.exceptions.InvalidPageTokenException;
+import com.company.service.pagination.KeysetPage;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of services run against repository stubs seeded with synthetic dataset. Filtering by specifications is done by database,
+ * so stubs of findAll(specification) return precomputed matches and these benchmarks measure only overhead of service, while
+ * AuthorService.findAuthors filters every author in memory and its cost grows with size of dataset
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServiceBenchmark {
+
+    private static final int NUMBER_OF_REQUESTS = 1024;
+    private static final LendingRules LENDING_RULES = new LendingRules(3, 30, 12);
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private SyntheticDataset dataset;
+    private BookService bookService;
+    private AuthorService authorService;
+    private ReaderService readerService;
+    private LoanService loanService;
+    private String[] surnames;
+    private int[] readerIds;
+    private int[] bookIds;
+    private Eligibility[] eligibilities;
+    private int request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = new SyntheticDataset(rows);
+
+        SplittableRandom random = new SplittableRandom(rows);
+        surnames = new String[NUMBER_OF_REQUESTS];
+        readerIds = new int[NUMBER_OF_REQUESTS];
+        bookIds = new int[NUMBER_OF_REQUESTS];
+        eligibilities = new Eligibility[NUMBER_OF_REQUESTS];
+        for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+            ReaderEntity reader = dataset.getReader(1 + random.nextInt(rows));
+            surnames[i] = reader.getSurname();
+            readerIds[i] = reader.getId();
+            bookIds[i] = 1 + random.nextInt(rows);
+            eligibilities[i] = Eligibility.of(reader, random.nextInt(20) == 0 ? 1 : 0, random.nextInt(50) == 0);
+        }
+
+        AuthorRepository authorRepository = RepositoryStubs.of(AuthorRepository.class)
+                .answer("findAll", 0, arguments -> dataset.getAuthors())
+                .build();
+        BookRepository bookRepository = RepositoryStubs.of(BookRepository.class)
+                .answer("findAllOrderedById", 2, arguments -> firstBooks((Integer) arguments[1]))
+                .answer("getReferenceById", 1, arguments -> dataset.getBook((Integer) arguments[0]))
+                .answer("reserveCopy", 1, arguments -> dataset.getBook((Integer) arguments[0]).getQuantityAvailable() > 0 ? 1 : 0)
+                .build();
+        ReaderRepository readerRepository = RepositoryStubs.of(ReaderRepository.class)
+                .answer("findAll", 1, arguments -> dataset.getReadersWithSurname(surnames[request]))
+                .answer("findBorrowEligibilityForUpdate", 2, arguments -> Optional.of(eligibilities[request]))
+                .answer("getReferenceById", 1, arguments -> dataset.getReader((Integer) arguments[0]))
+                .answer("incrementLoanCounters", 1, arguments -> 1)
+                .answer("refreshLoanCounters", 1, arguments -> null)
+                .build();
+        LoansRepository loansRepository = RepositoryStubs.of(LoansRepository.class)
+                .answer("existsReturnedLoanBorrowedOn", 3, arguments -> false)
+                .build();
+        BulkLoansRepository bulkLoansRepository = new BulkLoansRepository(null) {
+            @Override
+            public Date insertLoan(Integer bookId, Integer readerId, Date borrowDate) {
+                return Date.valueOf(borrowDate.toLocalDate().plusDays(LENDING_RULES.getMaxNumberOfDaysToBorrowABook()));
+            }
+        };
+        ConfigurationRepository configurationRepository = new ConfigurationRepository(null) {
+            @Override
+            public LendingRules getLendingRules() {
+                return LENDING_RULES;
+            }
+        };
+
+        authorService = new AuthorService(authorRepository, bookRepository, new BulkAuthorsRepository(null));
+        bookService = new BookService(authorService, bookRepository, loansRepository);
+        LendingRulesCache lendingRulesCache = new LendingRulesCache(configurationRepository);
+        readerService = new ReaderService(readerRepository, RepositoryStubs.of(ParentRepository.class).build(),
+                RepositoryStubs.of(ChildRepository.class).build(), loansRepository, lendingRulesCache);
+        loanService = new LoanService(loansRepository, bulkLoansRepository, readerService, bookService, null);
+    }
+
+    @Benchmark
+    public KeysetPage<BookEntity> findBookByParameters() throws InvalidPageTokenException {
+        return bookService.findBookByParameters(null, "Title 1", null, null, null, null, 20);
+    }
+
+    @Benchmark
+    public List<ReaderEntity> findReaderByParameters() {
+        return readerService.findReaderByParameters(null, null, surnames[nextRequest()], null, null, null);
+    }
+
+    @Benchmark
+    public List<AuthorEntity> findAuthors() {
+        return authorService.findAuthors(null, null, surnames[nextRequest()]);
+    }
+
+    @Benchmark
+    public Object checkReaderCanBorrowABook() {
+        try {
+            int current = nextRequest();
+            return readerService.checkReaderCanBorrowABook(readerIds[current], bookIds[current]);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object borrowBook() {
+        try {
+            int current = nextRequest();
+            return loanService.borrowBook(bookIds[current], readerIds[current]);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private int nextRequest() {
+        request = (request + 1) % NUMBER_OF_REQUESTS;
+        return request;
+    }
+
+    private List<BookEntity> firstBooks(int limit) {
+        List<BookEntity> books = dataset.getBooks();
+        return books.subList(0, Math.min(limit, books.size()));
+    }
+}
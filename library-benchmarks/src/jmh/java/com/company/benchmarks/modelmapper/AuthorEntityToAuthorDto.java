@@ -1,14 +1,12 @@
-package com.company.mapper.mappings;
+package com.company.benchmarks.modelmapper;
 
 import com.company.repository.models.entity.AuthorEntity;
 import com.company.dtos.AuthorDto;
 import org.modelmapper.Converter;
 import org.modelmapper.spi.MappingContext;
-import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
-@Service
 public class AuthorEntityToAuthorDto implements Converter<AuthorEntity, AuthorDto> {
 
     @Override
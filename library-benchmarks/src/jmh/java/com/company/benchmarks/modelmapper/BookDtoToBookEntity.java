@@ -1,4 +1,4 @@
-package com.company.mapper.mappings;
+package com.company.benchmarks.modelmapper;
 
 import com.company.dtos.BookDto;
 import com.company.repository.models.entity.AuthorEntity;
@@ -6,11 +6,9 @@
 import org.modelmapper.Converter;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.spi.MappingContext;
-import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
-@Service
 public class BookDtoToBookEntity implements Converter<BookDto, BookEntity> {
 
     private final ModelMapper modelMapper = new ModelMapper();
@@ -1,4 +1,4 @@
-package com.company.mapper.mappings;
+package com.company.benchmarks.modelmapper;
 
 import com.company.dtos.LoanDto;
 import com.company.repository.models.entity.BookEntity;
@@ -7,11 +7,9 @@
 import org.modelmapper.Converter;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.spi.MappingContext;
-import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
-@Service
 public class LoanDtoToLoanEntity implements Converter<LoanDto, LoanEntity> {
 
     private final ModelMapper modelMapper = new ModelMapper();
@@ -32,6 +30,7 @@ public LoanEntity convert(MappingContext<LoanDto, LoanEntity> context) {
             loanEntity.setReader(modelMapper.map(reader, ReaderEntity.class));
         });
         Optional.ofNullable(loanDto.getBorrowDate()).ifPresent(loanEntity::setBorrowDate);
+        Optional.ofNullable(loanDto.getDueDate()).ifPresent(loanEntity::setDueDate);
         Optional.ofNullable(loanDto.getReturnedDate()).ifPresent(loanEntity::setReturnedDate);
 
         return loanEntity;
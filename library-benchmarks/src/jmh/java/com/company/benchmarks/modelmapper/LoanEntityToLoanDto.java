@@ -1,4 +1,4 @@
-package com.company.mapper.mappings;
+package com.company.benchmarks.modelmapper;
 
 import com.company.dtos.BookDto;
 import com.company.dtos.LoanDto;
@@ -7,11 +7,9 @@
 import org.modelmapper.Converter;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.spi.MappingContext;
-import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
-@Service
 public class LoanEntityToLoanDto implements Converter<LoanEntity, LoanDto> {
 
     private final ModelMapper modelMapper = new ModelMapper();
@@ -32,6 +30,7 @@ public LoanDto convert(MappingContext<LoanEntity, LoanDto> context) {
             loanDto.setReader(modelMapper.map(reader, ReaderDto.class));
         });
         Optional.ofNullable(loanEntity.getBorrowDate()).ifPresent(loanDto::setBorrowDate);
+        Optional.ofNullable(loanEntity.getDueDate()).ifPresent(loanDto::setDueDate);
         Optional.ofNullable(loanEntity.getReturnedDate()).ifPresent(loanDto::setReturnedDate);
 
         return loanDto;
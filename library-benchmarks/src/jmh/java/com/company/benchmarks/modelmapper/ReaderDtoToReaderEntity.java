@@ -1,14 +1,12 @@
-package com.company.mapper.mappings;
+package com.company.benchmarks.modelmapper;
 
 import com.company.repository.models.entity.ReaderEntity;
 import com.company.dtos.ReaderDto;
 import org.modelmapper.Converter;
 import org.modelmapper.spi.MappingContext;
-import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
-@Service
 public class ReaderDtoToReaderEntity implements Converter<ReaderDto, ReaderEntity> {
     @Override
     public ReaderEntity convert(MappingContext<ReaderDto, ReaderEntity> context) {
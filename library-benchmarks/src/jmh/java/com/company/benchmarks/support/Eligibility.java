@@ -0,0 +1,23 @@
+package com.company.benchmarks.support;
+
+import com.company.repository.models.entity.ReaderEntity;
+import com.company.repository.models.projection.BorrowEligibility;
+import lombok.Value;
+
+import java.sql.Date;
+
+/**
+ * Result of borrow eligibility query computed from reader of synthetic dataset
+ */
+@Value
+public class Eligibility implements BorrowEligibility {
+    Date birthDate;
+    Integer numberOfCurrentlyBorrowedBooks;
+    Integer numberOfOverdueBooks;
+    Boolean bookExists;
+    Boolean readerHasBook;
+
+    public static Eligibility of(ReaderEntity reader, int numberOfOverdueBooks, boolean readerHasBook) {
+        return new Eligibility(reader.getBirthDate(), reader.getNumberOfCurrentlyBorrowedBooks(), numberOfOverdueBooks, true, readerHasBook);
+    }
+}
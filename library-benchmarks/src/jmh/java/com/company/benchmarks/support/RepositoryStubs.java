@@ -0,0 +1,54 @@
+package com.company.benchmarks.support;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Stub of spring data repository interface, answers are given by method name and number of parameters, because repositories have
+ * overloaded findAll. Calling method without answer fails, so benchmark can't silently measure path which doesn't touch data
+ */
+public final class RepositoryStubs<R> {
+
+    private final Class<R> repositoryInterface;
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private RepositoryStubs(Class<R> repositoryInterface) {
+        this.repositoryInterface = repositoryInterface;
+    }
+
+    public static <R> RepositoryStubs<R> of(Class<R> repositoryInterface) {
+        return new RepositoryStubs<>(repositoryInterface);
+    }
+
+    public RepositoryStubs<R> answer(String methodName, int parameterCount, Function<Object[], Object> answer) {
+        answers.put(key(methodName, parameterCount), answer);
+        return this;
+    }
+
+    public R build() {
+        Object stub = Proxy.newProxyInstance(repositoryInterface.getClassLoader(), new Class<?>[]{repositoryInterface},
+                (proxy, method, arguments) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == arguments[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return repositoryInterface.getSimpleName() + " stub";
+                        default:
+                            Function<Object[], Object> answer = answers.get(key(method.getName(), method.getParameterCount()));
+                            if (answer == null) {
+                                throw new UnsupportedOperationException("Not stubbed: " + method);
+                            }
+                            return answer.apply(arguments);
+                    }
+                });
+        return repositoryInterface.cast(stub);
+    }
+
+    private static String key(String methodName, int parameterCount) {
+        return methodName + "/" + parameterCount;
+    }
+}
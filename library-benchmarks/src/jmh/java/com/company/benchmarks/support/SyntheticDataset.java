@@ -0,0 +1,130 @@
+package com.company.benchmarks.support;
+
+import com.company.dataset.DatasetSpec;
+import com.company.dataset.DatasetWriter;
+import com.company.dataset.LibraryDatasetGenerator;
+import com.company.repository.models.entity.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entities of dataset generated by LibraryDatasetGenerator with given number of readers and books, kept in memory for repository stubs.
+ * Loan history is not generated, only open loans are counted into readers
+ */
+public class SyntheticDataset implements DatasetWriter {
+
+    private static final long SEED = 20220901L;
+    private static final LocalDate REFERENCE_DATE = LocalDate.of(2022, 9, 1);
+    private static final int BOOKS_PER_AUTHOR = 10;
+
+    private final List<AuthorEntity> authors = new ArrayList<>();
+    private final List<BookEntity> books = new ArrayList<>();
+    private final List<ReaderEntity> readers = new ArrayList<>();
+    private final Map<String, List<ReaderEntity>> readersBySurname = new HashMap<>();
+
+    public SyntheticDataset(int rows) {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setSeed(SEED);
+        spec.setReferenceDate(REFERENCE_DATE);
+        spec.setAuthors(Math.max(rows / BOOKS_PER_AUTHOR, 1));
+        spec.setBooks(rows);
+        spec.setReaders(rows);
+        spec.setHistoryYears(0);
+        new LibraryDatasetGenerator(spec).generate(this);
+        readers.forEach(reader -> readersBySurname.computeIfAbsent(reader.getSurname(), surname -> new ArrayList<>()).add(reader));
+    }
+
+    public List<AuthorEntity> getAuthors() {
+        return authors;
+    }
+
+    public List<BookEntity> getBooks() {
+        return books;
+    }
+
+    public List<ReaderEntity> getReaders() {
+        return readers;
+    }
+
+    public List<ReaderEntity> getReadersWithSurname(String surname) {
+        return readersBySurname.getOrDefault(surname, List.of());
+    }
+
+    public BookEntity getBook(int id) {
+        return books.get(id - 1);
+    }
+
+    public ReaderEntity getReader(int id) {
+        return readers.get(id - 1);
+    }
+
+    @Override
+    public void author(int id, String name, String surname) {
+        AuthorEntity author = new AuthorEntity();
+        author.setId(id);
+        author.setName(name);
+        author.setSurname(surname);
+        authors.add(author);
+    }
+
+    @Override
+    public void book(int id, String title, int authorId, int quantity) {
+        BookEntity book = new BookEntity();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(authors.get(authorId - 1));
+        book.setQuantity(quantity);
+        book.setQuantityAvailable(quantity);
+        books.add(book);
+    }
+
+    @Override
+    public void reader(int id, String name, String surname, LocalDate birthDate) {
+        ReaderEntity reader = new ReaderEntity();
+        reader.setId(id);
+        reader.setName(name);
+        reader.setSurname(surname);
+        reader.setBirthDate(Date.valueOf(birthDate));
+        readers.add(reader);
+    }
+
+    @Override
+    public void parent(int id, String address, String phoneNumber) {
+        ParentEntity parent = new ParentEntity();
+        copyReader(getReader(id), parent);
+        parent.setAddress(address);
+        parent.setPhoneNumber(phoneNumber);
+        readers.set(id - 1, parent);
+    }
+
+    @Override
+    public void child(int id, int parentId) {
+        ChildEntity child = new ChildEntity();
+        copyReader(getReader(id), child);
+        child.setParent((ParentEntity) getReader(parentId));
+        readers.set(id - 1, child);
+    }
+
+    @Override
+    public void loan(int bookId, int readerId, LocalDate borrowDate, LocalDate returnedDate) {
+        ReaderEntity reader = getReader(readerId);
+        reader.setNumberOfEveryBorrowedBooks(reader.getNumberOfEveryBorrowedBooks() + 1);
+        if (returnedDate == null) {
+            reader.setNumberOfCurrentlyBorrowedBooks(reader.getNumberOfCurrentlyBorrowedBooks() + 1);
+            BookEntity book = getBook(bookId);
+            book.setQuantityAvailable(book.getQuantityAvailable() - 1);
+        }
+    }
+
+    private static void copyReader(ReaderEntity source, ReaderEntity target) {
+        target.setId(source.getId());
+        target.setName(source.getName());
+        target.setSurname(source.getSurname());
+        target.setBirthDate(source.getBirthDate());
+    }
+}
@@ -0,0 +1,7 @@
+package com.company.dataset;
+
+public class DatasetGenerationException extends RuntimeException {
+    public DatasetGenerationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
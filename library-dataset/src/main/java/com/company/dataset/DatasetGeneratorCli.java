@@ -0,0 +1,56 @@
+package com.company.dataset;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDate;
+
+/**
+ * Command line entry of generator, options are given as --name=value, for example:
+ * --url=jdbc:postgresql://localhost:5432/library --readers=1000000 --books=200000 --seed=7 --truncate=true
+ */
+public class DatasetGeneratorCli {
+    private static final String DEFAULT_URL = "jdbc:postgresql://localhost:5432/library";
+    private static final String DEFAULT_USER = "postgres";
+
+    public static void main(String[] args) throws Exception {
+        DatasetSpec spec = new DatasetSpec();
+        String url = DEFAULT_URL;
+        String username = DEFAULT_USER;
+        String password = DEFAULT_USER;
+        boolean truncate = false;
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Option should have form --name=value: " + arg);
+            }
+            String value = option[1];
+            switch (option[0]) {
+                case "url": url = value; break;
+                case "username": username = value; break;
+                case "password": password = value; break;
+                case "truncate": truncate = Boolean.parseBoolean(value); break;
+                case "seed": spec.setSeed(Long.parseLong(value)); break;
+                case "reference-date": spec.setReferenceDate(LocalDate.parse(value)); break;
+                case "authors": spec.setAuthors(Integer.parseInt(value)); break;
+                case "books": spec.setBooks(Integer.parseInt(value)); break;
+                case "max-copies-per-book": spec.setMaxCopiesPerBook(Integer.parseInt(value)); break;
+                case "readers": spec.setReaders(Integer.parseInt(value)); break;
+                case "max-children-per-parent": spec.setMaxChildrenPerParent(Integer.parseInt(value)); break;
+                case "popularity-skew": spec.setPopularitySkew(Double.parseDouble(value)); break;
+                case "history-years": spec.setHistoryYears(Integer.parseInt(value)); break;
+                case "loans-per-reader-per-year": spec.setLoansPerReaderPerYear(Double.parseDouble(value)); break;
+                case "max-open-loans-per-reader": spec.setMaxOpenLoansPerReader(Integer.parseInt(value)); break;
+                case "loan-period-days": spec.setLoanPeriodDays(Integer.parseInt(value)); break;
+                default: throw new IllegalArgumentException("Unknown option: " + option[0]);
+            }
+        }
+
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             PostgresCopyWriter writer = new PostgresCopyWriter(connection, truncate)) {
+            new LibraryDatasetGenerator(spec).generate(writer);
+            writer.finish();
+        }
+        System.out.printf("Generated dataset %s in %d s%n", spec, (System.nanoTime() - start) / 1_000_000_000);
+    }
+}
@@ -0,0 +1,24 @@
+package com.company.dataset;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Size and shape of generated dataset. Generator gives the same rows for the same spec, dates are counted back from reference date
+ */
+@Data
+public class DatasetSpec {
+    private long seed = 1;
+    private LocalDate referenceDate = LocalDate.now();
+    private int authors = 10000;
+    private int books = 100000;
+    private int maxCopiesPerBook = 10;
+    private int readers = 200000;
+    private int maxChildrenPerParent = 4;
+    private double popularitySkew = 1.0;
+    private int historyYears = 3;
+    private double loansPerReaderPerYear = 6;
+    private int maxOpenLoansPerReader = 3;
+    private int loanPeriodDays = 10;
+}
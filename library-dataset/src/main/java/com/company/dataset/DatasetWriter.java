@@ -0,0 +1,34 @@
+package com.company.dataset;
+
+import java.time.LocalDate;
+
+/**
+ * Receiver of generated rows. Rows come grouped by table in order: authors, books, readers, parents, children and loans, so every row
+ * is written after rows which it references
+ */
+public interface DatasetWriter {
+
+    void author(int id, String name, String surname);
+
+    void book(int id, String title, int authorId, int quantity);
+
+    void reader(int id, String name, String surname, LocalDate birthDate);
+
+    void parent(int id, String address, String phoneNumber);
+
+    void child(int id, int parentId);
+
+    /**
+     * Called once before loans, writers which need to prepare storage of loans history can use range of returned dates
+     *
+     * @param firstReturnedDate, no loan is returned earlier
+     * @param lastReturnedDate,  no loan is returned later
+     */
+    default void loansPeriod(LocalDate firstReturnedDate, LocalDate lastReturnedDate) {
+    }
+
+    /**
+     * @param returnedDate, null for loans which are still open
+     */
+    void loan(int bookId, int readerId, LocalDate borrowDate, LocalDate returnedDate);
+}
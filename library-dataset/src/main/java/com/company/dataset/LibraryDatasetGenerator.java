@@ -0,0 +1,169 @@
+package com.company.dataset;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of referentially consistent library. Popularity of books follows Zipf distribution, parents have up to few children with
+ * consecutive ids, and every reader has loan history spread over given number of years, returned loans are followed by open loans
+ * which never exceed number of copies of book. Every table is generated from its own random derived from seed, so rows of one table
+ * don't depend on size of others
+ */
+public class LibraryDatasetGenerator {
+    private static final int BOOK_ROWS = 2;
+    private static final int READER_ROWS = 3;
+    private static final int PARENT_ROWS = 4;
+    private static final int LOAN_ROWS = 5;
+    private static final int MIN_PARENT_AGE = 25;
+    private static final int MAX_PARENT_AGE = 75;
+    private static final int MIN_CHILD_AGE = 10;
+    private static final int MAX_CHILD_AGE = 17;
+    private static final int DAYS_IN_YEAR = 365;
+    private static final int ATTEMPTS_TO_FIND_AVAILABLE_BOOK = 10;
+
+    private final DatasetSpec spec;
+    private int[] parentOf;
+    private int[] quantities;
+
+    public LibraryDatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Method to generate every row of dataset and pass it to given writer
+     *
+     * @param writer
+     */
+    public void generate(DatasetWriter writer) {
+        generateAuthors(writer);
+        generateBooks(writer);
+        generateReaders(writer);
+        generateParents(writer);
+        generateChildren(writer);
+        generateLoans(writer);
+    }
+
+    private void generateAuthors(DatasetWriter writer) {
+        int pairs = Names.NAMES.length * Names.SURNAMES.length;
+        for (int id = 1; id <= spec.getAuthors(); id++) {
+            int pair = id - 1;
+            String surname = Names.SURNAMES[pair / Names.NAMES.length % Names.SURNAMES.length];
+            writer.author(id, Names.NAMES[pair % Names.NAMES.length], pair < pairs ? surname : surname + "-" + pair / pairs);
+        }
+    }
+
+    private void generateBooks(DatasetWriter writer) {
+        SplittableRandom random = random(BOOK_ROWS);
+        ZipfDistribution authorPopularity = new ZipfDistribution(spec.getAuthors(), spec.getPopularitySkew());
+        quantities = new int[spec.getBooks() + 1];
+        for (int id = 1; id <= spec.getBooks(); id++) {
+            String title = pick(random, Names.TITLE_WORDS) + " " + pick(random, Names.TITLE_WORDS);
+            quantities[id] = 1 + random.nextInt(spec.getMaxCopiesPerBook());
+            writer.book(id, random.nextInt(4) == 0 ? title + " " + (2 + random.nextInt(8)) : title, 1 + authorPopularity.sample(random), quantities[id]);
+        }
+    }
+
+    private void generateReaders(DatasetWriter writer) {
+        SplittableRandom random = random(READER_ROWS);
+        parentOf = new int[spec.getReaders() + 1];
+        int id = 1;
+        while (id <= spec.getReaders()) {
+            int parentId = id;
+            String surname = pick(random, Names.SURNAMES);
+            writer.reader(parentId, pick(random, Names.NAMES), surname, birthDate(random, MIN_PARENT_AGE, MAX_PARENT_AGE));
+            int children = random.nextInt(3) == 0 ? 1 + random.nextInt(spec.getMaxChildrenPerParent()) : 0;
+            for (id++; children > 0 && id <= spec.getReaders(); children--, id++) {
+                parentOf[id] = parentId;
+                writer.reader(id, pick(random, Names.NAMES), surname, birthDate(random, MIN_CHILD_AGE, MAX_CHILD_AGE));
+            }
+        }
+    }
+
+    private void generateParents(DatasetWriter writer) {
+        SplittableRandom random = random(PARENT_ROWS);
+        for (int id = 1; id <= spec.getReaders(); id++) {
+            if (parentOf[id] == 0) {
+                writer.parent(id, pick(random, Names.STREETS) + " " + (1 + random.nextInt(200)), String.format("5%08d", id % 100000000));
+            }
+        }
+    }
+
+    private void generateChildren(DatasetWriter writer) {
+        for (int id = 1; id <= spec.getReaders(); id++) {
+            if (parentOf[id] != 0) {
+                writer.child(id, parentOf[id]);
+            }
+        }
+    }
+
+    private void generateLoans(DatasetWriter writer) {
+        SplittableRandom random = random(LOAN_ROWS);
+        ZipfDistribution bookPopularity = new ZipfDistribution(spec.getBooks(), spec.getPopularitySkew());
+        int[] bookOfRank = shuffledBookIds(random);
+        int[] openLoans = new int[spec.getBooks() + 1];
+        int historyDays = spec.getHistoryYears() * DAYS_IN_YEAR;
+        int period = spec.getLoanPeriodDays();
+        Set<Long> loanKeys = new HashSet<>();
+        Set<Integer> openBooks = new HashSet<>();
+        writer.loansPeriod(spec.getReferenceDate().minusDays(historyDays), spec.getReferenceDate());
+        for (int readerId = 1; readerId <= spec.getReaders(); readerId++) {
+            loanKeys.clear();
+            openBooks.clear();
+            double activity = -Math.log(1 - random.nextDouble());
+            long history = Math.round(activity * spec.getLoansPerReaderPerYear() * spec.getHistoryYears());
+            for (long i = 0; i < history && historyDays > 2 * period; i++) {
+                int bookId = bookOfRank[bookPopularity.sample(random)];
+                int daysAgo = 2 * period + random.nextInt(historyDays - 2 * period);
+                if (loanKeys.add(key(bookId, daysAgo))) {
+                    LocalDate borrowDate = spec.getReferenceDate().minusDays(daysAgo);
+                    writer.loan(bookId, readerId, borrowDate, borrowDate.plusDays(1 + random.nextInt(2 * period)));
+                }
+            }
+            int open = random.nextInt(spec.getMaxOpenLoansPerReader() + 1) * (random.nextInt(3) == 0 ? 1 : 0);
+            for (int i = 0; i < open; i++) {
+                for (int attempt = 0; attempt < ATTEMPTS_TO_FIND_AVAILABLE_BOOK; attempt++) {
+                    int bookId = bookOfRank[bookPopularity.sample(random)];
+                    int daysAgo = random.nextInt(2 * period);
+                    if (openLoans[bookId] < quantities[bookId] && !openBooks.contains(bookId) && loanKeys.add(key(bookId, daysAgo))) {
+                        openLoans[bookId]++;
+                        openBooks.add(bookId);
+                        writer.loan(bookId, readerId, spec.getReferenceDate().minusDays(daysAgo), null);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private int[] shuffledBookIds(SplittableRandom random) {
+        int[] bookIds = new int[spec.getBooks()];
+        for (int i = 0; i < bookIds.length; i++) {
+            bookIds[i] = i + 1;
+        }
+        for (int i = bookIds.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int bookId = bookIds[i];
+            bookIds[i] = bookIds[j];
+            bookIds[j] = bookId;
+        }
+        return bookIds;
+    }
+
+    private LocalDate birthDate(SplittableRandom random, int minAge, int maxAge) {
+        return spec.getReferenceDate().minusDays(minAge * DAYS_IN_YEAR + random.nextInt((maxAge - minAge) * DAYS_IN_YEAR));
+    }
+
+    private SplittableRandom random(int table) {
+        return new SplittableRandom(spec.getSeed() * 31 + table);
+    }
+
+    private static String pick(SplittableRandom random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    private static long key(int bookId, int daysAgo) {
+        return (long) bookId << 32 | daysAgo;
+    }
+}
@@ -0,0 +1,25 @@
+package com.company.dataset;
+
+/**
+ * Pools of words used by generator, every generated value fits into columns of database
+ */
+public final class Names {
+
+    public static final String[] NAMES = {"Jan", "Anna", "Piotr", "Maria", "Krzysztof", "Katarzyna", "Tomasz", "Agnieszka", "Pawel",
+            "Magdalena", "Michal", "Joanna", "Marcin", "Ewa", "Adam", "Zofia", "Jakub", "Barbara", "Lukasz", "Monika", "Kamil", "Alicja",
+            "Mateusz", "Natalia", "Szymon", "Julia", "Filip", "Oliwia", "Wojciech", "Karolina", "Dawid", "Hanna"};
+    public static final String[] SURNAMES = {"Nowak", "Kowalski", "Wisniewski", "Wojcik", "Kowalczyk", "Kaminski", "Lewandowski",
+            "Zielinski", "Szymanski", "Wozniak", "Dabrowski", "Kozlowski", "Jankowski", "Mazur", "Wojciechowski", "Kwiatkowski",
+            "Krawczyk", "Kaczmarek", "Piotrowski", "Grabowski", "Zajac", "Pawlowski", "Michalski", "Krol", "Wieczorek", "Jablonski",
+            "Wrobel", "Nowakowski", "Majewski", "Olszewski", "Stepien", "Malinowski", "Jaworski", "Adamczyk", "Dudek", "Nowicki",
+            "Pawlak", "Gorski", "Witkowski", "Walczak", "Sikora", "Baran", "Rutkowski", "Michalak", "Szewczyk", "Ostrowski", "Tomaszewski",
+            "Pietrzak", "Zalewski", "Wroblewski"};
+    public static final String[] TITLE_WORDS = {"Night", "River", "Stone", "Winter", "Garden", "Shadow", "Storm", "Silver", "Forest",
+            "Fire", "Glass", "Iron", "Ocean", "Crown", "Island", "Secret", "Summer", "Mirror", "Wolf", "Letter", "Road", "Star", "Castle",
+            "Bridge", "Dream", "House", "King", "Queen", "City", "Sky"};
+    public static final String[] STREETS = {"Polna", "Lesna", "Sloneczna", "Krotka", "Szkolna", "Ogrodowa", "Lipowa", "Brzozowa",
+            "Lakowa", "Kwiatowa", "Sosnowa", "Dluga", "Wiejska", "Parkowa", "Zielona", "Kolejowa"};
+
+    private Names() {
+    }
+}
@@ -0,0 +1,166 @@
+package com.company.dataset;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Writer which streams rows to PostgreSQL by COPY, table by table in single transaction. Partitions of loans history are created before
+ * loans are copied. Loan counters of readers, available copies of books, due dates of open loans and id sequences are recomputed from
+ * written rows and everything is committed only by finish, writer closed without finish rolls back all written rows
+ */
+public class PostgresCopyWriter implements DatasetWriter, AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String NULL = "\\N";
+    private static final String TRUNCATE = "TRUNCATE loans, child, parent, reader, book, author";
+    private static final String RECOMPUTE_READER_COUNTERS = "UPDATE reader r SET currently_borrowed_books = c.currently_borrowed_books, " +
+            "every_borrowed_books = c.every_borrowed_books " +
+            "FROM (SELECT reader_id, count(*) FILTER (WHERE returned_date IS NULL) AS currently_borrowed_books, count(*) AS every_borrowed_books " +
+            "FROM loans GROUP BY reader_id) c WHERE r.id = c.reader_id";
+    private static final String RECOMPUTE_AVAILABLE_COPIES = "UPDATE book b SET available_copies = b.quantity - c.open_loans " +
+            "FROM (SELECT book_id, count(*) AS open_loans FROM loans WHERE returned_date IS NULL GROUP BY book_id) c WHERE b.id = c.book_id";
+    private static final String RECOMPUTE_DUE_DATES = "UPDATE loans SET due_date = borrow_date + " +
+            "(SELECT maxnumberofdaystoborrowabook FROM configuration WHERE id = 1) WHERE returned_date IS NULL";
+    private static final String MOVE_SEQUENCES = "SELECT setval('author_seq', COALESCE((SELECT max(id) FROM author), 0) + 50, false), " +
+            "setval('book_seq', COALESCE((SELECT max(id) FROM book), 0) + 50, false), " +
+            "setval('reader_seq', COALESCE((SELECT max(id) FROM reader), 0) + 50, false)";
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+    private String table;
+    private CopyIn copyIn;
+    private boolean finished;
+
+    /**
+     * @param connection, connection to database with library schema, writer takes control of its transaction
+     * @param truncate,   if existing rows of library tables should be deleted before writing
+     * @throws SQLException
+     */
+    public PostgresCopyWriter(Connection connection, boolean truncate) throws SQLException {
+        this.connection = connection;
+        this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        connection.setAutoCommit(false);
+        if (truncate) {
+            execute(TRUNCATE);
+        }
+    }
+
+    @Override
+    public void author(int id, String name, String surname) {
+        row("author (id, name, surname)", id, name, surname);
+    }
+
+    @Override
+    public void book(int id, String title, int authorId, int quantity) {
+        row("book (id, title, author_id, quantity, available_copies)", id, title, authorId, quantity, quantity);
+    }
+
+    @Override
+    public void reader(int id, String name, String surname, LocalDate birthDate) {
+        row("reader (id, name, surname, birth_date)", id, name, surname, birthDate);
+    }
+
+    @Override
+    public void parent(int id, String address, String phoneNumber) {
+        row("parent (id, address, phone_number)", id, address, phoneNumber);
+    }
+
+    @Override
+    public void child(int id, int parentId) {
+        row("child (id, parent_id)", id, parentId);
+    }
+
+    @Override
+    public void loansPeriod(LocalDate firstReturnedDate, LocalDate lastReturnedDate) {
+        try {
+            endCopy();
+            execute("SELECT create_loans_history_partitions(DATE '" + firstReturnedDate + "', DATE '" + lastReturnedDate + "')");
+        } catch (SQLException e) {
+            throw new DatasetGenerationException("Failed to create partitions of loans history", e);
+        }
+    }
+
+    @Override
+    public void loan(int bookId, int readerId, LocalDate borrowDate, LocalDate returnedDate) {
+        row("loans (book_id, reader_id, borrow_date, returned_date)", bookId, readerId, borrowDate, returnedDate);
+    }
+
+    /**
+     * Method to end copying, recompute counters, available copies, due dates and sequences from written rows and commit them, should be
+     * called once after all rows are written successfully
+     *
+     * @throws SQLException
+     */
+    public void finish() throws SQLException {
+        endCopy();
+        execute(RECOMPUTE_READER_COUNTERS);
+        execute(RECOMPUTE_AVAILABLE_COPIES);
+        execute(RECOMPUTE_DUE_DATES);
+        execute(MOVE_SEQUENCES);
+        execute("ANALYZE");
+        connection.commit();
+        finished = true;
+    }
+
+    /**
+     * Method to roll back written rows if writer wasn't finished, for example because generation failed
+     *
+     * @throws SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        if (finished) {
+            return;
+        }
+        if (copyIn != null && copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+        connection.rollback();
+    }
+
+    private void row(String table, Object... values) {
+        try {
+            if (!table.equals(this.table)) {
+                endCopy();
+                this.table = table;
+                copyIn = copyManager.copyIn("COPY " + table + " FROM STDIN");
+            }
+            for (int i = 0; i < values.length; i++) {
+                buffer.append(i == 0 ? "" : "\t").append(values[i] == null ? NULL : values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= BUFFER_SIZE) {
+                flush();
+            }
+        } catch (SQLException e) {
+            throw new DatasetGenerationException("Failed to copy rows into " + table, e);
+        }
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private void endCopy() throws SQLException {
+        if (copyIn != null) {
+            flush();
+            copyIn.endCopy();
+            copyIn = null;
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
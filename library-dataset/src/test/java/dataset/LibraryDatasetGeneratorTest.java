@@ -0,0 +1,140 @@
+package dataset;
+
+import com.company.dataset.DatasetSpec;
+import com.company.dataset.DatasetWriter;
+import com.company.dataset.LibraryDatasetGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class LibraryDatasetGeneratorTest {
+
+    @Test
+    @DisplayName("Should generate the same rows for the same seed")
+    void shouldGenerateTheSameRowsForTheSameSeed() {
+        //given
+        DatasetSpec spec = createSpec(7);
+        //when
+        RecordingWriter first = generate(spec);
+        RecordingWriter second = generate(spec);
+        RecordingWriter otherSeed = generate(createSpec(8));
+        //then
+        Assertions.assertEquals(first.rows, second.rows);
+        Assertions.assertNotEquals(first.rows, otherSeed.rows);
+    }
+
+    @Test
+    @DisplayName("Should generate rows which reference existing rows")
+    void shouldGenerateRowsWhichReferenceExistingRows() {
+        //given
+        DatasetSpec spec = createSpec(7);
+        //when
+        RecordingWriter writer = generate(spec);
+        //then
+        Assertions.assertEquals(spec.getReaders(), writer.parents.size() + writer.children.size());
+        Assertions.assertFalse(writer.children.isEmpty());
+        writer.children.values().forEach(parentId -> Assertions.assertTrue(writer.parents.contains(parentId)));
+        Assertions.assertFalse(writer.openLoansOfBook.isEmpty());
+        writer.openLoansOfBook.forEach((bookId, openLoans) -> Assertions.assertTrue(openLoans <= writer.quantities.get(bookId)));
+        Assertions.assertEquals(writer.loanKeys.size(), writer.loans);
+    }
+
+    @Test
+    @DisplayName("Should announce loans period which contains every returned date")
+    void shouldAnnounceLoansPeriodWhichContainsEveryReturnedDate() {
+        //given
+        DatasetSpec spec = createSpec(7);
+        //when
+        RecordingWriter writer = generate(spec);
+        //then
+        Assertions.assertFalse(writer.returnedDates.isEmpty());
+        writer.returnedDates.forEach(returnedDate -> {
+            Assertions.assertFalse(returnedDate.isBefore(writer.firstReturnedDate));
+            Assertions.assertFalse(returnedDate.isAfter(writer.lastReturnedDate));
+        });
+    }
+
+    private DatasetSpec createSpec(long seed) {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setSeed(seed);
+        spec.setReferenceDate(LocalDate.of(2022, 9, 1));
+        spec.setAuthors(50);
+        spec.setBooks(200);
+        spec.setMaxCopiesPerBook(2);
+        spec.setReaders(1000);
+        return spec;
+    }
+
+    private RecordingWriter generate(DatasetSpec spec) {
+        RecordingWriter writer = new RecordingWriter();
+        new LibraryDatasetGenerator(spec).generate(writer);
+        return writer;
+    }
+
+    private static class RecordingWriter implements DatasetWriter {
+        private final List<String> rows = new ArrayList<>();
+        private final Map<Integer, Integer> quantities = new HashMap<>();
+        private final Set<Integer> parents = new HashSet<>();
+        private final Map<Integer, Integer> children = new HashMap<>();
+        private final Map<Integer, Integer> openLoansOfBook = new HashMap<>();
+        private final Set<String> loanKeys = new HashSet<>();
+        private final List<LocalDate> returnedDates = new ArrayList<>();
+        private LocalDate firstReturnedDate;
+        private LocalDate lastReturnedDate;
+        private int loans;
+
+        @Override
+        public void author(int id, String name, String surname) {
+            rows.add("author " + id + " " + name + " " + surname);
+        }
+
+        @Override
+        public void book(int id, String title, int authorId, int quantity) {
+            rows.add("book " + id + " " + title + " " + authorId + " " + quantity);
+            quantities.put(id, quantity);
+        }
+
+        @Override
+        public void reader(int id, String name, String surname, LocalDate birthDate) {
+            rows.add("reader " + id + " " + name + " " + surname + " " + birthDate);
+        }
+
+        @Override
+        public void parent(int id, String address, String phoneNumber) {
+            rows.add("parent " + id + " " + address + " " + phoneNumber);
+            parents.add(id);
+        }
+
+        @Override
+        public void child(int id, int parentId) {
+            rows.add("child " + id + " " + parentId);
+            children.put(id, parentId);
+        }
+
+        @Override
+        public void loansPeriod(LocalDate firstReturnedDate, LocalDate lastReturnedDate) {
+            this.firstReturnedDate = firstReturnedDate;
+            this.lastReturnedDate = lastReturnedDate;
+        }
+
+        @Override
+        public void loan(int bookId, int readerId, LocalDate borrowDate, LocalDate returnedDate) {
+            rows.add("loan " + bookId + " " + readerId + " " + borrowDate + " " + returnedDate);
+            loans++;
+            loanKeys.add(bookId + " " + readerId + " " + borrowDate);
+            if (returnedDate == null) {
+                openLoansOfBook.merge(bookId, 1, Integer::sum);
+            } else {
+                returnedDates.add(returnedDate);
+            }
+        }
+    }
+}
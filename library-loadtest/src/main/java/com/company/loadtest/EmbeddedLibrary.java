@@ -0,0 +1,68 @@
+package com.company.loadtest;
+
+import com.company.Application;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Application started on random port against PostgreSQL binary spawned in temporary directory, schema is created by liquibase as in
+ * production
+ */
+public class EmbeddedLibrary implements AutoCloseable {
+    private static final String DATABASE = "postgres";
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedLibrary(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    public static EmbeddedLibrary start() throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        try {
+            ConfigurableApplicationContext context = SpringApplication.run(Application.class,
+                    "--spring.datasource.url=" + postgres.getJdbcUrl(DATABASE, DATABASE),
+                    "--spring.datasource.username=" + DATABASE,
+                    "--spring.datasource.password=" + DATABASE,
+                    "--server.port=0");
+            return new EmbeddedLibrary(postgres, context);
+        } catch (RuntimeException e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    public URI getBaseUri() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://localhost:" + port);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Method to get connection which bypasses pool of application, so long running work like seeding doesn't hold pooled connection
+     *
+     * @return
+     * @throws SQLException
+     */
+    public Connection getConnection() throws SQLException {
+        return postgres.getPostgresDatabase().getConnection();
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        postgres.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.company.loadtest;
+
+import lombok.RequiredArgsConstructor;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open model load generator, requests are sent at constant rate independently of responses. When more than max in flight requests
+ * wait for response, next requests are dropped and counted instead of being delayed
+ */
+@RequiredArgsConstructor
+public class LoadGenerator {
+
+    private final HttpClient httpClient;
+    private final Workload workload;
+    private final Scenario.Load load;
+    private final Map<Operation, Integer> mix;
+
+    /**
+     * Method to send requests for given time and collect statistics of every operation from mix
+     *
+     * @param seconds, how long requests should be sent
+     * @return
+     * @throws InterruptedException
+     */
+    public Map<Operation, OperationStats> run(int seconds) throws InterruptedException {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        mix.keySet().forEach(operation -> stats.put(operation, new OperationStats()));
+        Semaphore inFlight = new Semaphore(load.getMaxInFlight());
+        long interval = TimeUnit.SECONDS.toNanos(1) / load.getRate();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (long intendedStart = start; intendedStart < end; intendedStart += interval) {
+            waitUntil(intendedStart);
+            Operation operation = pickOperation();
+            OperationStats operationStats = stats.get(operation);
+            if (!inFlight.tryAcquire()) {
+                operationStats.recordDropped();
+                continue;
+            }
+            send(operation.call(workload), operationStats, inFlight, intendedStart);
+        }
+        inFlight.acquire(load.getMaxInFlight());
+        return stats;
+    }
+
+    private void send(Workload.Call call, OperationStats stats, Semaphore inFlight, long intendedStart) {
+        httpClient.sendAsync(call.getRequest(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, exception) -> {
+                    long latency = System.nanoTime() - intendedStart;
+                    if (exception != null) {
+                        stats.recordFailure(latency);
+                    } else {
+                        stats.recordResponse(response.statusCode(), latency);
+                        if (response.statusCode() < 400 && call.getOnSuccess() != null) {
+                            call.getOnSuccess().run();
+                        }
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private Operation pickOperation() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Mix of scenario is empty");
+    }
+
+    private static void waitUntil(long time) throws InterruptedException {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
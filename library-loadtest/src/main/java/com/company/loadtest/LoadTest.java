@@ -0,0 +1,63 @@
+package com.company.loadtest;
+
+import com.company.dataset.LibraryDatasetGenerator;
+import com.company.dataset.PostgresCopyWriter;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Starts application against embedded PostgreSQL, seeds dataset and drives mix of requests defined in scenario file given as first
+ * argument, or in default scenario. Throughput and p50/p99/p999 latency of every endpoint are printed at the end
+ */
+public class LoadTest {
+    private static final double MICROS_IN_MILLI = 1000.0;
+    private static final int CONNECT_TIMEOUT_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = Scenario.load(args.length > 0 ? args[0] : null);
+        try (EmbeddedLibrary library = EmbeddedLibrary.start()) {
+            try (Connection connection = library.getConnection();
+                 PostgresCopyWriter writer = new PostgresCopyWriter(connection, true)) {
+                new LibraryDatasetGenerator(scenario.getDataset()).generate(writer);
+                writer.finish();
+            }
+
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(CONNECT_TIMEOUT_SECONDS))
+                    .build();
+            Workload workload = new Workload(library.getBaseUri(), scenario);
+            LoadGenerator generator = new LoadGenerator(httpClient, workload, scenario.getLoad(), scenario.getMix());
+
+            generator.run(scenario.getLoad().getWarmupSeconds());
+            Map<Operation, OperationStats> stats = generator.run(scenario.getLoad().getDurationSeconds());
+            report(System.out, stats, scenario.getLoad().getDurationSeconds());
+        }
+    }
+
+    private static void report(PrintStream out, Map<Operation, OperationStats> stats, int seconds) {
+        String format = "%-28s %10s %10s %10s %10s %10s %10s %10s %10s%n";
+        out.printf(format, "endpoint", "req/s", "ok", "4xx", "errors", "dropped", "p50 ms", "p99 ms", "p999 ms");
+        Histogram total = new Histogram(3);
+        long totalRequests = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram latencies = operationStats.getLatencies();
+            total.add(latencies);
+            totalRequests += latencies.getTotalCount();
+            out.printf(format, entry.getKey().getEndpoint(), String.format("%.1f", (double) latencies.getTotalCount() / seconds),
+                    operationStats.getSucceeded(), operationStats.getRejected(), operationStats.getFailed(), operationStats.getDropped(),
+                    millis(latencies, 50), millis(latencies, 99), millis(latencies, 99.9));
+        }
+        out.printf(format, "total", String.format("%.1f", (double) totalRequests / seconds), "", "", "", "",
+                millis(total, 50), millis(total, 99), millis(total, 99.9));
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+        return String.format("%.2f", histogram.getValueAtPercentile(percentile) / MICROS_IN_MILLI);
+    }
+}
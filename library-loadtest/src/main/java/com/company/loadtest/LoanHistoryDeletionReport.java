@@ -0,0 +1,124 @@
+package com.company.loadtest;
+
+import com.company.dataset.DatasetSpec;
+import com.company.dataset.LibraryDatasetGenerator;
+import com.company.dataset.PostgresCopyWriter;
+import com.company.repository.models.entity.LoanEntity;
+import com.company.repository.models.entity.ReaderEntity;
+import com.company.service.LoanHistoryPurgeService;
+import com.company.service.ReaderService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares deletion of readers with long history of returned loans: row by row as derived delete of Spring Data did,
+ * by single set-based statement, and in chunks in background. Number of loans of every reader can be given as first argument
+ */
+public class LoanHistoryDeletionReport {
+    private static final int DEFAULT_LOANS_PER_READER = 100000;
+    private static final int BOOKS = 1000;
+    private static final int READERS = 1000;
+    private static final int DELETED_READERS = 3;
+    private static final String INSERT_HISTORY = "INSERT INTO loans (book_id, reader_id, borrow_date, returned_date) " +
+            "SELECT 1 + g % " + BOOKS + ", ?, DATE '2000-01-01' + g / " + BOOKS + ", DATE '2000-01-02' + g / " + BOOKS + " " +
+            "FROM generate_series(0, ? - 1) g";
+    private static final String CREATE_HISTORY_PARTITIONS = "SELECT create_loans_history_partitions(DATE '2000-01-02', " +
+            "DATE '2000-01-02' + ? / " + BOOKS + ")";
+    private static final String READERS_WITHOUT_CHILDREN = "SELECT r.id FROM reader r " +
+            "WHERE NOT EXISTS (SELECT 1 FROM child c WHERE c.parent_id = r.id) ORDER BY r.id LIMIT " + DELETED_READERS;
+
+    public static void main(String[] args) throws Exception {
+        int loansPerReader = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LOANS_PER_READER;
+        DatasetSpec spec = new DatasetSpec();
+        spec.setAuthors(BOOKS / 10);
+        spec.setBooks(BOOKS);
+        spec.setReaders(READERS);
+        spec.setHistoryYears(0);
+
+        try (EmbeddedLibrary library = EmbeddedLibrary.start()) {
+            List<Integer> readers = new ArrayList<>();
+            try (Connection connection = library.getConnection()) {
+                try (PostgresCopyWriter writer = new PostgresCopyWriter(library.getConnection(), true)) {
+                    new LibraryDatasetGenerator(spec).generate(writer);
+                    writer.finish();
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(READERS_WITHOUT_CHILDREN)) {
+                    while (resultSet.next()) {
+                        readers.add(resultSet.getInt(1));
+                    }
+                }
+                for (Integer readerId : readers) {
+                    prepareHistory(connection, readerId, loansPerReader);
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ANALYZE loans");
+                }
+            }
+
+            PrintStream out = System.out;
+            String format = "%-30s %14s %10s%n";
+            out.printf(format, "strategy", "deleted loans", "ms");
+            measure(out, format, "row by row", () -> deleteRowByRow(library, readers.get(0)));
+            measure(out, format, "single statement", () -> library.getBean(ReaderService.class).deleteReader(readers.get(1)));
+            measure(out, format, "chunks in background", () -> library.getBean(LoanHistoryPurgeService.class)
+                    .deleteReaderInChunks(readers.get(2))
+                    .get());
+        }
+    }
+
+    private static void prepareHistory(Connection connection, Integer readerId, int loans) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM loans WHERE reader_id = ?");
+             PreparedStatement partitions = connection.prepareStatement(CREATE_HISTORY_PARTITIONS);
+             PreparedStatement insert = connection.prepareStatement(INSERT_HISTORY)) {
+            delete.setInt(1, readerId);
+            delete.executeUpdate();
+            partitions.setInt(1, loans);
+            partitions.execute();
+            insert.setInt(1, readerId);
+            insert.setInt(2, loans);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Method to delete reader the same way as derived deleteAllByReader did, every loan is loaded and removed by its own statement
+     */
+    private static int deleteRowByRow(EmbeddedLibrary library, Integer readerId) {
+        EntityManager entityManager = library.getBean(EntityManagerFactory.class).createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            ReaderEntity reader = entityManager.find(ReaderEntity.class, readerId);
+            List<LoanEntity> loans = entityManager.createQuery("SELECT l FROM LoanEntity l WHERE l.reader = :reader", LoanEntity.class)
+                    .setParameter("reader", reader)
+                    .getResultList();
+            loans.forEach(entityManager::remove);
+            entityManager.remove(reader);
+            entityManager.getTransaction().commit();
+            return loans.size();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static void measure(PrintStream out, String format, String strategy, Deletion deletion) throws Exception {
+        long start = System.nanoTime();
+        int deletedLoans = deletion.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        out.printf(format, strategy, deletedLoans, millis);
+    }
+
+    @FunctionalInterface
+    private interface Deletion {
+        int run() throws Exception;
+    }
+}
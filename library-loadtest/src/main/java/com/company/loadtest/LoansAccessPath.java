@@ -0,0 +1,48 @@
+package com.company.loadtest;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Queries of loans table used by application, reduced to plain sql with the same predicates
+ */
+enum LoansAccessPath {
+    READER_OVERDUE_LOANS("SELECT count(*) FROM loans WHERE reader_id = ? AND returned_date IS NULL AND due_date <= current_date",
+            (statement, readerId, bookId) -> statement.setInt(1, readerId)),
+    READER_OPEN_LOANS("SELECT book_id, borrow_date FROM loans WHERE reader_id = ? AND returned_date IS NULL",
+            (statement, readerId, bookId) -> statement.setInt(1, readerId)),
+    BOOK_OPEN_LOANS("SELECT reader_id, borrow_date FROM loans WHERE book_id = ? AND returned_date IS NULL",
+            (statement, readerId, bookId) -> statement.setInt(1, bookId)),
+    READER_HAS_BOOK("SELECT 1 FROM loans WHERE reader_id = ? AND book_id = ? AND returned_date IS NULL",
+            (statement, readerId, bookId) -> {
+                statement.setInt(1, readerId);
+                statement.setInt(2, bookId);
+            }),
+    READER_LOAN_COUNTERS("SELECT count(*) FILTER (WHERE returned_date IS NULL), count(*) FROM loans WHERE reader_id = ?",
+            (statement, readerId, bookId) -> statement.setInt(1, readerId)),
+    READER_HISTORY("SELECT book_id, borrow_date, returned_date FROM loans WHERE reader_id = ?",
+            (statement, readerId, bookId) -> statement.setInt(1, readerId)),
+    READER_RETURNED_LOANS("SELECT book_id, borrow_date FROM loans WHERE reader_id = ? AND returned_date IS NOT NULL LIMIT 10000",
+            (statement, readerId, bookId) -> statement.setInt(1, readerId));
+
+    private final String sql;
+    private final Binder binder;
+
+    LoansAccessPath(String sql, Binder binder) {
+        this.sql = sql;
+        this.binder = binder;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    void bind(PreparedStatement statement, int readerId, int bookId) throws SQLException {
+        binder.bind(statement, readerId, bookId);
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement, int readerId, int bookId) throws SQLException;
+    }
+}
@@ -0,0 +1,181 @@
+package com.company.loadtest;
+
+import com.company.dataset.DatasetSpec;
+import com.company.dataset.LibraryDatasetGenerator;
+import com.company.dataset.PostgresCopyWriter;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Seeds loans table with about 10M rows, and compares plans and latency of loans access paths without and with non unique indexes
+ * from loans partitioning and due date changesets. Number of readers can be given as first argument and number of samples of every
+ * query as second one
+ */
+public class LoansIndexReport {
+    private static final List<String> INDEXES_CHANGELOGS = List.of("database/009_loans-partitioning.sql", "database/010_loans-due-date.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile("CREATE INDEX IF NOT EXISTS (\\w+) .*;");
+    private static final int DEFAULT_READERS = 500000;
+    private static final int DEFAULT_SAMPLES = 5000;
+    private static final int PLAN_READER_ID = 1;
+    private static final int PLAN_BOOK_ID = 1;
+    private static final long SEED = 20220901;
+    private static final double NANOS_IN_MICRO = 1000.0;
+    private static final double MICROS_IN_MILLI = 1000.0;
+
+    public static void main(String[] args) throws Exception {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_READERS;
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SAMPLES;
+        DatasetSpec spec = new DatasetSpec();
+        spec.setSeed(SEED);
+        spec.setReaders(readers);
+        spec.setBooks(readers / 2);
+        spec.setAuthors(readers / 20);
+        spec.setHistoryYears(3);
+        spec.setLoansPerReaderPerYear(7);
+
+        try (EmbeddedLibrary library = EmbeddedLibrary.start()) {
+            try (Connection connection = library.getConnection();
+                 PostgresCopyWriter writer = new PostgresCopyWriter(connection, true)) {
+                new LibraryDatasetGenerator(spec).generate(writer);
+                writer.finish();
+            }
+            try (Connection connection = library.getConnection()) {
+                Map<String, String> indexes = readIndexes();
+                PrintStream out = System.out;
+                out.printf("loans rows: %d%n", count(connection));
+
+                for (String index : indexes.keySet()) {
+                    execute(connection, "DROP INDEX IF EXISTS " + index);
+                }
+                execute(connection, "ANALYZE loans");
+                Map<LoansAccessPath, String> plansBefore = explain(connection);
+                Map<LoansAccessPath, Histogram> latenciesBefore = measure(connection, spec, samples);
+
+                for (String createIndex : indexes.values()) {
+                    execute(connection, createIndex);
+                }
+                execute(connection, "ANALYZE loans");
+                Map<LoansAccessPath, String> plansAfter = explain(connection);
+                Map<LoansAccessPath, Histogram> latenciesAfter = measure(connection, spec, samples);
+
+                for (LoansAccessPath path : LoansAccessPath.values()) {
+                    out.printf("%n===== %s =====%n%s%n----- without indexes -----%n%s----- with indexes -----%n%s", path, path.getSql(),
+                            plansBefore.get(path), plansAfter.get(path));
+                }
+                report(out, latenciesBefore, latenciesAfter);
+            }
+        }
+    }
+
+    /**
+     * Method to read non unique indexes of loans, index recreated by later changelog replaces its previous definition
+     */
+    private static Map<String, String> readIndexes() throws IOException {
+        Map<String, String> indexes = new LinkedHashMap<>();
+        for (String indexesChangelog : INDEXES_CHANGELOGS) {
+            InputStream changelog = LoansIndexReport.class.getClassLoader().getResourceAsStream(indexesChangelog);
+            if (changelog == null) {
+                throw new IOException("Not found " + indexesChangelog + " on classpath");
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(changelog, StandardCharsets.UTF_8))) {
+                reader.lines()
+                        .map(CREATE_INDEX::matcher)
+                        .filter(Matcher::matches)
+                        .forEach(matcher -> indexes.put(matcher.group(1), matcher.group()));
+            }
+        }
+        return indexes;
+    }
+
+    private static Map<LoansAccessPath, String> explain(Connection connection) throws SQLException {
+        Map<LoansAccessPath, String> plans = new EnumMap<>(LoansAccessPath.class);
+        for (LoansAccessPath path : LoansAccessPath.values()) {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + path.getSql())) {
+                path.bind(statement, PLAN_READER_ID, PLAN_BOOK_ID);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append(System.lineSeparator());
+                    }
+                }
+                plans.put(path, plan.toString());
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * Method to run every access path with random reader and book, first tenth of samples warms up caches and isn't recorded
+     */
+    private static Map<LoansAccessPath, Histogram> measure(Connection connection, DatasetSpec spec, int samples) throws SQLException {
+        Map<LoansAccessPath, Histogram> latencies = new EnumMap<>(LoansAccessPath.class);
+        for (LoansAccessPath path : LoansAccessPath.values()) {
+            Random random = new Random(SEED);
+            Histogram histogram = new Histogram(3);
+            int warmup = samples / 10;
+            try (PreparedStatement statement = connection.prepareStatement(path.getSql())) {
+                for (int i = 0; i < warmup + samples; i++) {
+                    path.bind(statement, 1 + random.nextInt(spec.getReaders()), 1 + random.nextInt(spec.getBooks()));
+                    long start = System.nanoTime();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            resultSet.getObject(1);
+                        }
+                    }
+                    long micros = Math.round((System.nanoTime() - start) / NANOS_IN_MICRO);
+                    if (i >= warmup) {
+                        histogram.recordValue(micros);
+                    }
+                }
+            }
+            latencies.put(path, histogram);
+        }
+        return latencies;
+    }
+
+    private static void report(PrintStream out, Map<LoansAccessPath, Histogram> before, Map<LoansAccessPath, Histogram> after) {
+        String format = "%-22s %14s %14s %14s %14s%n";
+        out.printf("%n");
+        out.printf(format, "access path", "p50 ms before", "p50 ms after", "p99 ms before", "p99 ms after");
+        for (LoansAccessPath path : LoansAccessPath.values()) {
+            out.printf(format, path, millis(before.get(path), 50), millis(after.get(path), 50),
+                    millis(before.get(path), 99), millis(after.get(path), 99));
+        }
+    }
+
+    private static long count(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM loans")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+        return String.format("%.3f", histogram.getValueAtPercentile(percentile) / MICROS_IN_MILLI);
+    }
+}
@@ -0,0 +1,94 @@
+package com.company.loadtest;
+
+import com.company.dataset.DatasetSpec;
+import com.company.dataset.LibraryDatasetGenerator;
+import com.company.dataset.PostgresCopyWriter;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Seeds partitioned loans table and explains every access path of loans, to check that queries of open loans read only partition of
+ * open loans, and queries of returned loans skip it. Fails if any access path reads more than expected. Number of readers can be
+ * given as first argument
+ */
+public class LoansPartitionPruningReport {
+    private static final String OPEN_LOANS_PARTITION = "loans_open";
+    private static final Pattern SCANNED_PARTITION = Pattern.compile(" on (loans_open|loans_returned_\\d{4}_\\d{2})\\b");
+    private static final int DEFAULT_READERS = 100000;
+    private static final int PLAN_READER_ID = 1;
+    private static final int PLAN_BOOK_ID = 1;
+    private static final long SEED = 20220901;
+
+    public static void main(String[] args) throws Exception {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_READERS;
+        DatasetSpec spec = new DatasetSpec();
+        spec.setSeed(SEED);
+        spec.setReaders(readers);
+        spec.setBooks(readers / 2);
+        spec.setAuthors(readers / 20);
+        spec.setHistoryYears(3);
+
+        try (EmbeddedLibrary library = EmbeddedLibrary.start()) {
+            try (Connection connection = library.getConnection();
+                 PostgresCopyWriter writer = new PostgresCopyWriter(connection, true)) {
+                new LibraryDatasetGenerator(spec).generate(writer);
+                writer.finish();
+            }
+            try (Connection connection = library.getConnection()) {
+                PrintStream out = System.out;
+                out.printf("partitions of loans: %d%n%n", countPartitions(connection));
+                String format = "%-22s %10s %s%n";
+                out.printf(format, "access path", "scanned", "partitions");
+                List<String> unexpectedScans = new ArrayList<>();
+                for (LoansAccessPath path : LoansAccessPath.values()) {
+                    Set<String> scanned = scannedPartitions(connection, path);
+                    out.printf(format, path, scanned.size(), scanned.size() > 3 ? scanned.size() + " partitions" : scanned);
+                    if (path.getSql().contains("returned_date IS NULL") && !scanned.equals(Set.of(OPEN_LOANS_PARTITION))) {
+                        unexpectedScans.add(path + " should read only " + OPEN_LOANS_PARTITION + " but read " + scanned);
+                    }
+                    if (path.getSql().contains("returned_date IS NOT NULL") && scanned.contains(OPEN_LOANS_PARTITION)) {
+                        unexpectedScans.add(path + " shouldn't read " + OPEN_LOANS_PARTITION);
+                    }
+                }
+                if (!unexpectedScans.isEmpty()) {
+                    throw new IllegalStateException("Partitions of loans were not pruned: " + unexpectedScans);
+                }
+            }
+        }
+    }
+
+    private static Set<String> scannedPartitions(Connection connection, LoansAccessPath path) throws SQLException {
+        Set<String> partitions = new TreeSet<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, COSTS OFF) " + path.getSql())) {
+            path.bind(statement, PLAN_READER_ID, PLAN_BOOK_ID);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Matcher matcher = SCANNED_PARTITION.matcher(resultSet.getString(1));
+                    while (matcher.find()) {
+                        partitions.add(matcher.group(1));
+                    }
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static long countPartitions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM pg_inherits WHERE inhparent = 'loans'::regclass")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
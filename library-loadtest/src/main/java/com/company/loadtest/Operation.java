@@ -0,0 +1,81 @@
+package com.company.loadtest;
+
+import com.company.service.pagination.PageTokens;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Operations which can be used in mix of scenario, every operation is reported as separate endpoint
+ */
+public enum Operation {
+    BORROW_BOOK("PATCH /loans/borrowBook/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            int readerId = workload.randomReaderId();
+            int bookId = workload.randomBookId();
+            return workload.patch("/loans/borrowBook/?readerId=" + readerId + "&bookId=" + bookId,
+                    () -> workload.loanOpened(readerId, bookId));
+        }
+    },
+    RETURN_BOOK("PATCH /loans/returnBook/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            Workload.OpenLoan loan = workload.pollOpenLoan();
+            return workload.patch("/loans/returnBook/?readerId=" + loan.getReaderId() + "&bookId=" + loan.getBookId(), null);
+        }
+    },
+    FIND_BOOKS("GET /book/findBooks/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            return workload.get("/book/findBooks/?title=" + workload.randomTitleWord() + "&size=20");
+        }
+    },
+    FIND_READERS("GET /reader/find/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            return workload.get("/reader/find/?surname=" + workload.randomSurname());
+        }
+    },
+    FIND_AUTHORS("GET /author/findAuthors/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            return workload.get("/author/findAuthors/?surname=" + workload.randomSurname());
+        }
+    },
+    ALL_BOOKS("GET /book/all/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            return workload.get("/book/all/?pageToken=" + PageTokens.encode(workload.randomBookId()));
+        }
+    },
+    ALL_READERS("GET /reader/all/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            return workload.get("/reader/all/?pageToken=" + PageTokens.encode(workload.randomReaderId()));
+        }
+    },
+    ALL_LOANS("GET /loans/all/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            return workload.get("/loans/all/?size=" + (10 + ThreadLocalRandom.current().nextInt(91)));
+        }
+    },
+    OVERDUE_LOANS("GET /loans/overdue/") {
+        @Override
+        public Workload.Call call(Workload workload) {
+            return workload.get("/loans/overdue/?size=" + (10 + ThreadLocalRandom.current().nextInt(91)));
+        }
+    };
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public abstract Workload.Call call(Workload workload);
+}
@@ -0,0 +1,65 @@
+package com.company.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcomes of single operation. Latency is measured from time at which request should have been sent, so stalls of
+ * application are not hidden by requests which were sent late
+ */
+public class OperationStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder latencies = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public void recordResponse(int status, long latencyNanos) {
+        latencies.recordValue(latencyNanos / 1000);
+        if (status < 400) {
+            succeeded.increment();
+        } else if (status < 500) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    public void recordFailure(long latencyNanos) {
+        latencies.recordValue(latencyNanos / 1000);
+        failed.increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Method to get latencies in microseconds recorded so far
+     *
+     * @return
+     */
+    public Histogram getLatencies() {
+        return latencies.getIntervalHistogram();
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
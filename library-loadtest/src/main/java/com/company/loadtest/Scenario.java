@@ -0,0 +1,57 @@
+package com.company.loadtest;
+
+import com.company.dataset.DatasetSpec;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test scenario: spec of seeded dataset, request rate and weights of operations
+ */
+@Data
+public class Scenario {
+    private static final String DEFAULT_SCENARIO = "/scenario.yaml";
+
+    private DatasetSpec dataset = new DatasetSpec();
+    private Load load = new Load();
+    private Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    @Data
+    public static class Load {
+        private int rate = 200;
+        private int warmupSeconds = 30;
+        private int durationSeconds = 120;
+        private int maxInFlight = 256;
+        private int requestTimeoutMillis = 5000;
+    }
+
+    /**
+     * Method to read scenario from given yaml file, or default scenario from classpath if path is not given
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public static Scenario load(String path) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper(new YAMLFactory())
+                .findAndRegisterModules()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+        try (InputStream input = path == null ? Scenario.class.getResourceAsStream(DEFAULT_SCENARIO) : Files.newInputStream(Path.of(path))) {
+            Scenario scenario = objectMapper.readValue(input, Scenario.class);
+            if (scenario.getMix().values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+                throw new IllegalArgumentException("Mix of scenario must contain at least one operation with positive weight");
+            }
+            return scenario;
+        }
+    }
+}
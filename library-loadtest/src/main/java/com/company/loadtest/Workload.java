@@ -0,0 +1,87 @@
+package com.company.loadtest;
+
+import com.company.dataset.DatasetSpec;
+import com.company.dataset.Names;
+import lombok.Value;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * State shared by operations of load test. Loans opened by successful borrow requests are remembered, so return requests return books
+ * which are really borrowed
+ */
+public class Workload {
+
+    private final URI baseUri;
+    private final DatasetSpec dataset;
+    private final Duration requestTimeout;
+    private final Queue<OpenLoan> openLoans = new ConcurrentLinkedQueue<>();
+
+    public Workload(URI baseUri, Scenario scenario) {
+        this.baseUri = baseUri;
+        this.dataset = scenario.getDataset();
+        this.requestTimeout = Duration.ofMillis(scenario.getLoad().getRequestTimeoutMillis());
+    }
+
+    @Value
+    public static class Call {
+        HttpRequest request;
+        Runnable onSuccess;
+    }
+
+    @Value
+    static class OpenLoan {
+        int readerId;
+        int bookId;
+    }
+
+    public Call get(String pathAndQuery) {
+        return new Call(request(pathAndQuery).GET().build(), null);
+    }
+
+    public Call patch(String pathAndQuery, Runnable onSuccess) {
+        return new Call(request(pathAndQuery).method("PATCH", HttpRequest.BodyPublishers.noBody()).build(), onSuccess);
+    }
+
+    public int randomBookId() {
+        return randomId(dataset.getBooks());
+    }
+
+    public int randomReaderId() {
+        return randomId(dataset.getReaders());
+    }
+
+    public String randomSurname() {
+        return pick(Names.SURNAMES);
+    }
+
+    public String randomTitleWord() {
+        return pick(Names.TITLE_WORDS);
+    }
+
+    public void loanOpened(int readerId, int bookId) {
+        openLoans.add(new OpenLoan(readerId, bookId));
+    }
+
+    public OpenLoan pollOpenLoan() {
+        OpenLoan loan = openLoans.poll();
+        return loan != null ? loan : new OpenLoan(randomReaderId(), randomBookId());
+    }
+
+    private static String pick(String[] words) {
+        return words[ThreadLocalRandom.current().nextInt(words.length)];
+    }
+
+    private int randomId(int rows) {
+        return 1 + ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(baseUri.resolve(pathAndQuery)).timeout(requestTimeout);
+    }
+}
@@ -0,0 +1,140 @@
+package integration;
+
+import com.company.loadtest.EmbeddedLibrary;
+import com.company.repository.models.entity.BookEntity;
+import com.company.repository.models.repository.BookRepository;
+import com.company.service.BookService;
+import com.company.service.LoanService;
+import com.company.service.exceptions.BookQuantityLowerThanBorrowedCopiesException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+
+public class BookAvailabilityTest {
+    private static EmbeddedLibrary library;
+    private static LibraryRows rows;
+
+    @BeforeAll
+    static void startLibrary() throws IOException {
+        library = EmbeddedLibrary.start();
+        rows = new LibraryRows(library);
+    }
+
+    @AfterAll
+    static void closeLibrary() throws IOException {
+        library.close();
+    }
+
+    @Test
+    @DisplayName("Should read changed available copies of cached book after borrow and return")
+    void shouldReadChangedAvailableCopiesOfCachedBookAfterBorrowAndReturn() throws Exception {
+        //given
+        Integer bookId = rows.book(3);
+        Integer readerId = rows.readers(1).get(0);
+        BookService bookService = library.getBean(BookService.class);
+        LoanService loanService = library.getBean(LoanService.class);
+        bookService.findBookById(bookId);
+        bookService.findBookById(bookId);
+        //when
+        loanService.borrowBook(bookId, readerId);
+        Integer availableAfterBorrow = bookService.findBookById(bookId).getQuantityAvailable();
+        loanService.returnBook(readerId, bookId);
+        Integer availableAfterReturn = bookService.findBookById(bookId).getQuantityAvailable();
+        //then
+        Assertions.assertEquals(2, availableAfterBorrow);
+        Assertions.assertEquals(3, availableAfterReturn);
+    }
+
+    @Test
+    @DisplayName("Should read changed available copies of book loaded earlier in the same transaction")
+    void shouldReadChangedAvailableCopiesOfBookLoadedEarlierInTheSameTransaction() throws Exception {
+        //given
+        Integer bookId = rows.book(3);
+        BookRepository bookRepository = library.getBean(BookRepository.class);
+        TransactionTemplate transaction = new TransactionTemplate(library.getBean(PlatformTransactionManager.class));
+        //when
+        List<Integer> result = transaction.execute(status -> {
+            BookEntity book = bookRepository.findById(bookId).orElseThrow();
+            bookRepository.reserveCopy(bookId);
+            Integer availableAfterReserve = book.getQuantityAvailable();
+            bookRepository.releaseCopy(bookId);
+            return List.of(availableAfterReserve, book.getQuantityAvailable());
+        });
+        //then
+        Assertions.assertEquals(List.of(2, 3), result);
+    }
+
+    @Test
+    @DisplayName("Should add book with all copies available")
+    void shouldAddBookWithAllCopiesAvailable() throws Exception {
+        //given
+        Integer existingBookId = rows.book(1);
+        BookService bookService = library.getBean(BookService.class);
+        BookEntity book = BookEntity.builder()
+                .title("New book")
+                .author(bookService.findBookById(existingBookId).getAuthor())
+                .quantity(4)
+                .build();
+        //when
+        BookEntity result = bookService.addBook(book);
+        //then
+        Assertions.assertEquals(4, result.getQuantityAvailable());
+        Assertions.assertEquals(4, bookService.findBookById(result.getId()).getQuantityAvailable());
+        Assertions.assertEquals(4, bookService.findAvailability(List.of(result.getId())).get(result.getId()));
+    }
+
+    @Test
+    @DisplayName("Should return edited book with changed available copies and reject quantity lower than borrowed copies")
+    void shouldReturnEditedBookWithChangedAvailableCopiesAndRejectQuantityLowerThanBorrowedCopies() throws Exception {
+        //given
+        Integer bookId = rows.book(3);
+        List<Integer> readerIds = rows.readers(2);
+        BookService bookService = library.getBean(BookService.class);
+        LoanService loanService = library.getBean(LoanService.class);
+        loanService.borrowBook(bookId, readerIds.get(0));
+        loanService.borrowBook(bookId, readerIds.get(1));
+        BookEntity biggerQuantity = new BookEntity();
+        biggerQuantity.setId(bookId);
+        biggerQuantity.setQuantity(5);
+        BookEntity quantityLowerThanBorrowed = new BookEntity();
+        quantityLowerThanBorrowed.setId(bookId);
+        quantityLowerThanBorrowed.setTitle("Changed title");
+        quantityLowerThanBorrowed.setQuantity(1);
+        //when
+        BookEntity result = bookService.editBook(biggerQuantity);
+        Exception rejected = Assertions.assertThrows(BookQuantityLowerThanBorrowedCopiesException.class,
+                () -> bookService.editBook(quantityLowerThanBorrowed));
+        //then
+        Assertions.assertEquals(5, result.getQuantity());
+        Assertions.assertEquals(3, result.getQuantityAvailable());
+        Assertions.assertEquals(BookService.QUANTITY_LOWER_THAN_BORROWED_COPIES, rejected.getMessage());
+        BookEntity stored = bookService.findBookById(bookId);
+        Assertions.assertEquals(5, stored.getQuantity());
+        Assertions.assertEquals(3, stored.getQuantityAvailable());
+        Assertions.assertEquals("Book " + bookId, stored.getTitle());
+    }
+
+    @Test
+    @DisplayName("Should expose hits of book cache region as metrics")
+    void shouldExposeHitsOfBookCacheRegionAsMetrics() throws Exception {
+        //given
+        Integer bookId = rows.book(1);
+        BookService bookService = library.getBean(BookService.class);
+        MeterRegistry registry = library.getBean(MeterRegistry.class);
+        double hitsBefore = registry.get("cache.gets").tags("cache", BookEntity.CACHE_REGION, "result", "hit").functionCounter().count();
+        //when
+        bookService.findBookById(bookId);
+        bookService.findBookById(bookId);
+        //then
+        double hitsAfter = registry.get("cache.gets").tags("cache", BookEntity.CACHE_REGION, "result", "hit").functionCounter().count();
+        Assertions.assertTrue(hitsAfter > hitsBefore, "hits before " + hitsBefore + ", after " + hitsAfter);
+    }
+}
@@ -0,0 +1,154 @@
+package integration;
+
+import com.company.configuration.RetryMetricsListener;
+import com.company.loadtest.EmbeddedLibrary;
+import com.company.service.LoanService;
+import com.company.service.exceptions.BookNotAvailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentBorrowTest {
+    private static final int NUMBER_OF_BORROWERS = 200;
+    private static final double MIN_BORROWS_PER_SECOND = 20;
+
+    private static EmbeddedLibrary library;
+    private static LibraryRows rows;
+
+    @BeforeAll
+    static void startLibrary() throws IOException {
+        library = EmbeddedLibrary.start();
+        rows = new LibraryRows(library);
+    }
+
+    @AfterAll
+    static void closeLibrary() throws IOException {
+        library.close();
+    }
+
+    @Test
+    @DisplayName("Should not lend more copies than available when many readers borrow a book at the same time")
+    void shouldNotLendMoreCopiesThanAvailableWhenManyReadersBorrowBookAtTheSameTime() throws Exception {
+        //given
+        int numberOfCopies = 50;
+        Integer bookId = rows.book(numberOfCopies);
+        List<Integer> readerIds = rows.readers(NUMBER_OF_BORROWERS);
+        LoanService loanService = library.getBean(LoanService.class);
+        double retriesBefore = countRetries();
+        ExecutorService executor = Executors.newFixedThreadPool(readerIds.size());
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        //when
+        for (Integer readerId : readerIds) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.borrowBook(bookId, readerId);
+                    borrowed.incrementAndGet();
+                } catch (BookNotAvailableException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double borrowsPerSecond = readerIds.size() / ((System.nanoTime() - startTime) / 1e9);
+        double retries = countRetries() - retriesBefore;
+        System.out.printf("%d concurrent borrowers: %.1f borrows/s, %.0f retries%n", readerIds.size(), borrowsPerSecond, retries);
+        //then
+        int openLoans = queryForInt("SELECT count(*) FROM loans WHERE book_id = ? AND returned_date IS NULL", bookId);
+        int availableCopies = queryForInt("SELECT available_copies FROM book WHERE id = ?", bookId);
+        Assertions.assertTrue(borrowsPerSecond >= MIN_BORROWS_PER_SECOND, "borrows per second: " + borrowsPerSecond);
+        Assertions.assertEquals(numberOfCopies, openLoans);
+        Assertions.assertEquals(numberOfCopies, borrowed.get());
+        Assertions.assertEquals(readerIds.size() - numberOfCopies, rejected.get());
+        Assertions.assertEquals(0, availableCopies);
+    }
+
+    @Test
+    @DisplayName("Should keep available copies equal to quantity without open loans when readers borrow and return at the same time")
+    void shouldKeepAvailableCopiesEqualToQuantityWithoutOpenLoansWhenReadersBorrowAndReturnAtTheSameTime() throws Exception {
+        //given
+        int numberOfCopies = 5;
+        Integer bookId = rows.book(numberOfCopies);
+        List<Integer> readerIds = rows.readers(40);
+        LoanService loanService = library.getBean(LoanService.class);
+        ExecutorService executor = Executors.newFixedThreadPool(readerIds.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        //when
+        for (Integer readerId : readerIds) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.borrowBook(bookId, readerId);
+                } catch (BookNotAvailableException e) {
+                    return null;
+                }
+                if (readerId % 2 == 0) {
+                    loanService.returnBook(readerId, bookId);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        //then
+        int openLoans = queryForInt("SELECT count(*) FROM loans WHERE book_id = ? AND returned_date IS NULL", bookId);
+        int availableCopies = queryForInt("SELECT available_copies FROM book WHERE id = ?", bookId);
+        Assertions.assertTrue(openLoans <= numberOfCopies, "open loans: " + openLoans);
+        Assertions.assertTrue(availableCopies >= 0, "available copies: " + availableCopies);
+        Assertions.assertEquals(numberOfCopies - openLoans, availableCopies);
+    }
+
+    private static double countRetries() {
+        return library.getBean(MeterRegistry.class).find(RetryMetricsListener.SERVICE_RETRIES).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static int queryForInt(String sql, Integer id) throws SQLException {
+        try (Connection connection = library.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package integration;
+
+import com.company.dataset.PostgresCopyWriter;
+import com.company.loadtest.EmbeddedLibrary;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Authors, books and readers written into database of embedded library by the same writer as synthetic dataset, every call gives new
+ * ids, far above ids given by sequences of application
+ */
+class LibraryRows {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1_000_000);
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1990, 1, 1);
+
+    private final EmbeddedLibrary library;
+
+    LibraryRows(EmbeddedLibrary library) {
+        this.library = library;
+    }
+
+    /**
+     * @param quantity, number of copies of book
+     * @return id of written book
+     * @throws SQLException
+     */
+    Integer book(int quantity) throws SQLException {
+        int id = NEXT_ID.incrementAndGet();
+        try (Connection connection = library.getConnection();
+             PostgresCopyWriter writer = new PostgresCopyWriter(connection, false)) {
+            writer.author(id, "Author", "Surname");
+            writer.book(id, "Book " + id, id, quantity);
+            writer.finish();
+        }
+        return id;
+    }
+
+    /**
+     * @param count, number of readers, every reader is adult parent
+     * @return ids of written readers
+     * @throws SQLException
+     */
+    List<Integer> readers(int count) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(NEXT_ID.incrementAndGet());
+        }
+        try (Connection connection = library.getConnection();
+             PostgresCopyWriter writer = new PostgresCopyWriter(connection, false)) {
+            ids.forEach(id -> writer.reader(id, "Reader", "Surname", BIRTH_DATE));
+            ids.forEach(id -> writer.parent(id, "Street 1", "123456789"));
+            writer.finish();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,85 @@
+package integration;
+
+import com.company.loadtest.EmbeddedLibrary;
+import com.company.repository.models.entity.LoanEntity;
+import com.company.service.LoanService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LoanDueDateTest {
+    private static final int DAYS_TO_BORROW_A_BOOK = 45;
+
+    private static EmbeddedLibrary library;
+    private static LibraryRows rows;
+
+    @BeforeAll
+    static void startLibrary() throws IOException {
+        library = EmbeddedLibrary.start();
+        rows = new LibraryRows(library);
+    }
+
+    @AfterAll
+    static void closeLibrary() throws IOException {
+        library.close();
+    }
+
+    @Test
+    @DisplayName("Should count due date of borrowed books from configuration row, even if cached lending rules are old")
+    void shouldCountDueDateOfBorrowedBooksFromConfigurationRowEvenIfCachedLendingRulesAreOld() throws Exception {
+        //given
+        List<Integer> bookIds = List.of(rows.book(1), rows.book(1));
+        Integer readerId = rows.readers(1).get(0);
+        LoanService loanService = library.getBean(LoanService.class);
+        int previousDays = setDaysToBorrowABookWithoutNotification(DAYS_TO_BORROW_A_BOOK);
+        try {
+            //when
+            LoanEntity loan = loanService.borrowBook(bookIds.get(0), readerId);
+            loanService.borrowBooks(readerId, List.of(bookIds.get(1)));
+            //then
+            Date expectedDueDate = Date.valueOf(LocalDate.now().plusDays(DAYS_TO_BORROW_A_BOOK));
+            Assertions.assertEquals(expectedDueDate, loan.getDueDate());
+            Assertions.assertEquals(List.of(expectedDueDate, expectedDueDate), dueDatesOfOpenLoans(readerId));
+        } finally {
+            setDaysToBorrowABookWithoutNotification(previousDays);
+        }
+    }
+
+    private int setDaysToBorrowABookWithoutNotification(int days) throws SQLException {
+        try (Connection connection = library.getConnection();
+             PreparedStatement statement = connection.prepareStatement("UPDATE configuration c SET maxnumberofdaystoborrowabook = ? " +
+                     "FROM configuration previous WHERE c.id = 1 AND previous.id = 1 RETURNING previous.maxnumberofdaystoborrowabook")) {
+            statement.setInt(1, days);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getInt(1);
+            }
+        }
+    }
+
+    private List<Date> dueDatesOfOpenLoans(Integer readerId) throws SQLException {
+        try (Connection connection = library.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT due_date FROM loans WHERE reader_id = ? AND returned_date IS NULL")) {
+            statement.setInt(1, readerId);
+            try (ResultSet result = statement.executeQuery()) {
+                List<Date> dueDates = new ArrayList<>();
+                while (result.next()) {
+                    dueDates.add(result.getDate(1));
+                }
+                return dueDates;
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package integration;
+
+import com.company.loadtest.EmbeddedLibrary;
+import com.company.repository.models.repository.ReaderRepository;
+import com.company.service.BookService;
+import com.company.service.LoanService;
+import com.company.service.ReaderLoanCountersReconciliationService;
+import com.company.service.ReaderService;
+import com.company.service.exceptions.ReaderReturnedThisBookTodayException;
+import com.company.service.loans.BookLoanStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public class LoansPartitioningTest {
+    private static EmbeddedLibrary library;
+    private static LibraryRows rows;
+
+    @BeforeAll
+    static void startLibrary() throws IOException {
+        library = EmbeddedLibrary.start();
+        rows = new LibraryRows(library);
+    }
+
+    @AfterAll
+    static void closeLibrary() throws IOException {
+        library.close();
+    }
+
+    @Test
+    @DisplayName("Should not borrow again book which reader borrowed and returned today")
+    void shouldNotBorrowAgainBookWhichReaderBorrowedAndReturnedToday() throws Exception {
+        //given
+        Integer bookId = rows.book(2);
+        Integer readerId = rows.readers(1).get(0);
+        LoanService loanService = library.getBean(LoanService.class);
+        loanService.borrowBook(bookId, readerId);
+        loanService.returnBook(readerId, bookId);
+        //when
+        Exception result = Assertions.assertThrows(ReaderReturnedThisBookTodayException.class,
+                () -> loanService.borrowBook(bookId, readerId));
+        List<BookLoanStatus> statuses = loanService.borrowBooks(readerId, List.of(bookId));
+        //then
+        Assertions.assertEquals(LoanService.BOOK_WAS_RETURNED_TODAY, result.getMessage());
+        Assertions.assertEquals(List.of(new BookLoanStatus(bookId, BookLoanStatus.Status.READER_RETURNED_THIS_BOOK_TODAY)), statuses);
+        Assertions.assertEquals(1, loanService.findLoansByBookId(bookId).size());
+    }
+
+    @Test
+    @DisplayName("Should fail with name of missing partition when loan is returned in month without partition")
+    void shouldFailWithNameOfMissingPartitionWhenLoanIsReturnedInMonthWithoutPartition() throws Exception {
+        //given
+        Integer bookId = rows.book(1);
+        Integer readerId = rows.readers(1).get(0);
+        library.getBean(LoanService.class).borrowBook(bookId, readerId);
+        try (Connection connection = library.getConnection();
+             PreparedStatement statement = connection.prepareStatement("UPDATE loans SET returned_date = DATE '1990-01-15' " +
+                     "WHERE book_id = ? AND reader_id = ? AND returned_date IS NULL")) {
+            statement.setInt(1, bookId);
+            statement.setInt(2, readerId);
+            //when
+            SQLException result = Assertions.assertThrows(SQLException.class, statement::executeUpdate);
+            //then
+            Assertions.assertTrue(result.getMessage().contains("loans_returned_1990_01"), result.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete book and reader whose returned loans are in detached partition")
+    void shouldDeleteBookAndReaderWhoseReturnedLoansAreInDetachedPartition() throws Exception {
+        //given
+        Integer bookId = rows.book(1);
+        Integer readerId = rows.readers(1).get(0);
+        try (Connection connection = library.getConnection();
+             PreparedStatement createPartitions = connection.prepareStatement(
+                     "SELECT create_loans_history_partitions(DATE '2000-01-01', DATE '2000-01-31')");
+             PreparedStatement insertLoan = connection.prepareStatement("INSERT INTO loans (book_id, reader_id, borrow_date, returned_date) " +
+                     "VALUES (?, ?, DATE '2000-01-03', DATE '2000-01-10')");
+             PreparedStatement detachPartitions = connection.prepareStatement(
+                     "SELECT * FROM detach_loans_history_partitions(DATE '2000-02-01')")) {
+            createPartitions.execute();
+            insertLoan.setInt(1, bookId);
+            insertLoan.setInt(2, readerId);
+            insertLoan.executeUpdate();
+            detachPartitions.execute();
+        }
+        //when
+        int deletedLoansOfBook = library.getBean(BookService.class).deleteBook(bookId);
+        int deletedLoansOfReader = library.getBean(ReaderService.class).deleteReader(readerId);
+        //then
+        Assertions.assertEquals(0, deletedLoansOfBook);
+        Assertions.assertEquals(0, deletedLoansOfReader);
+    }
+
+    @Test
+    @DisplayName("Should keep loans of detached partition in counters of reader checked by reconciliation")
+    void shouldKeepLoansOfDetachedPartitionInCountersOfReaderCheckedByReconciliation() throws Exception {
+        //given
+        Integer bookId = rows.book(1);
+        Integer readerId = rows.readers(1).get(0);
+        try (Connection connection = library.getConnection();
+             PreparedStatement createPartitions = connection.prepareStatement(
+                     "SELECT create_loans_history_partitions(DATE '2001-03-01', DATE '2001-03-31')");
+             PreparedStatement insertLoan = connection.prepareStatement("INSERT INTO loans (book_id, reader_id, borrow_date, returned_date) " +
+                     "VALUES (?, ?, DATE '2001-03-03', DATE '2001-03-10')");
+             PreparedStatement updateCounters = connection.prepareStatement("UPDATE reader SET every_borrowed_books = 1 WHERE id = ?");
+             PreparedStatement detachPartitions = connection.prepareStatement(
+                     "SELECT * FROM detach_loans_history_partitions(DATE '2001-04-01')")) {
+            createPartitions.execute();
+            insertLoan.setInt(1, bookId);
+            insertLoan.setInt(2, readerId);
+            insertLoan.executeUpdate();
+            updateCounters.setInt(1, readerId);
+            updateCounters.executeUpdate();
+            detachPartitions.execute();
+        }
+        ReaderRepository readerRepository = library.getBean(ReaderRepository.class);
+        TransactionTemplate transaction = new TransactionTemplate(library.getBean(PlatformTransactionManager.class));
+        //when
+        List<Integer> readersWithIncorrectCounters = library.getBean(ReaderLoanCountersReconciliationService.class).reconcileLoanCounters();
+        transaction.executeWithoutResult(status -> readerRepository.recalculateLoanCounters(List.of(readerId)));
+        //then
+        Assertions.assertFalse(readersWithIncorrectCounters.contains(readerId));
+        Assertions.assertEquals(1, readerRepository.findById(readerId).orElseThrow().getNumberOfEveryBorrowedBooks());
+    }
+}
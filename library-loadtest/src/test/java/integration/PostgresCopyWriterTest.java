@@ -0,0 +1,82 @@
+package integration;
+
+import com.company.dataset.DatasetGenerationException;
+import com.company.dataset.DatasetSpec;
+import com.company.dataset.LibraryDatasetGenerator;
+import com.company.dataset.PostgresCopyWriter;
+import com.company.loadtest.EmbeddedLibrary;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+public class PostgresCopyWriterTest {
+    private static EmbeddedLibrary library;
+
+    @BeforeAll
+    static void startLibrary() throws IOException {
+        library = EmbeddedLibrary.start();
+    }
+
+    @AfterAll
+    static void closeLibrary() throws IOException {
+        library.close();
+    }
+
+    @Test
+    @DisplayName("Should roll back written rows when generation fails before writer is finished")
+    void shouldRollBackWrittenRowsWhenGenerationFailsBeforeWriterIsFinished() throws Exception {
+        //given
+        int authorsBefore = countRows("author");
+        //when
+        Assertions.assertThrows(DatasetGenerationException.class, () -> {
+            try (Connection connection = library.getConnection();
+                 PostgresCopyWriter writer = new PostgresCopyWriter(connection, false)) {
+                writer.author(2_000_000, "Author", "Surname");
+                writer.book(2_000_000, "Book", 2_000_000, 1);
+                throw new DatasetGenerationException("Generation failed", new IllegalStateException());
+            }
+        });
+        //then
+        Assertions.assertEquals(authorsBefore, countRows("author"));
+    }
+
+    @Test
+    @DisplayName("Should commit generated dataset and recompute counters when writer is finished")
+    void shouldCommitGeneratedDatasetAndRecomputeCountersWhenWriterIsFinished() throws Exception {
+        //given
+        DatasetSpec spec = new DatasetSpec();
+        spec.setReferenceDate(LocalDate.now());
+        spec.setAuthors(10);
+        spec.setBooks(50);
+        spec.setReaders(100);
+        //when
+        try (Connection connection = library.getConnection();
+             PostgresCopyWriter writer = new PostgresCopyWriter(connection, true)) {
+            new LibraryDatasetGenerator(spec).generate(writer);
+            writer.finish();
+        }
+        //then
+        Assertions.assertEquals(spec.getBooks(), countRows("book"));
+        Assertions.assertEquals(spec.getReaders(), countRows("reader"));
+        Assertions.assertEquals(0, countRows("book b WHERE b.available_copies <> b.quantity - " +
+                "(SELECT count(*) FROM loans l WHERE l.book_id = b.id AND l.returned_date IS NULL)"));
+    }
+
+    private static int countRows(String from) throws SQLException {
+        try (Connection connection = library.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + from)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package integration;
+
+import com.company.loadtest.EmbeddedLibrary;
+import com.company.repository.models.entity.LoanEntity;
+import com.company.repository.models.entity.ReaderEntity;
+import com.company.repository.models.repository.ReaderRepository;
+import com.company.service.BookService;
+import com.company.service.LoanService;
+import com.company.service.ReaderService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+
+public class ReaderLoanCountersTest {
+    private static EmbeddedLibrary library;
+    private static LibraryRows rows;
+
+    @BeforeAll
+    static void startLibrary() throws IOException {
+        library = EmbeddedLibrary.start();
+        rows = new LibraryRows(library);
+    }
+
+    @AfterAll
+    static void closeLibrary() throws IOException {
+        library.close();
+    }
+
+    @Test
+    @DisplayName("Should return loan with current counters of reader who returned a book")
+    void shouldReturnLoanWithCurrentCountersOfReaderWhoReturnedABook() throws Exception {
+        //given
+        Integer bookId = rows.book(1);
+        Integer readerId = rows.readers(1).get(0);
+        LoanService loanService = library.getBean(LoanService.class);
+        loanService.borrowBook(bookId, readerId);
+        //when
+        LoanEntity returnedLoan = loanService.returnBook(readerId, bookId);
+        //then
+        Assertions.assertEquals(0, returnedLoan.getReader().getNumberOfCurrentlyBorrowedBooks());
+        Assertions.assertEquals(1, returnedLoan.getReader().getNumberOfEveryBorrowedBooks());
+    }
+
+    @Test
+    @DisplayName("Should read changed counters of reader loaded earlier in the same transaction")
+    void shouldReadChangedCountersOfReaderLoadedEarlierInTheSameTransaction() throws Exception {
+        //given
+        Integer readerId = rows.readers(1).get(0);
+        ReaderRepository readerRepository = library.getBean(ReaderRepository.class);
+        ReaderService readerService = library.getBean(ReaderService.class);
+        TransactionTemplate transaction = new TransactionTemplate(library.getBean(PlatformTransactionManager.class));
+        //when
+        List<Integer> result = transaction.execute(status -> {
+            ReaderEntity reader = readerRepository.findById(readerId).orElseThrow();
+            reader.setName("Changed name");
+            readerService.registerBorrowedBooks(readerId, 2);
+            readerService.registerReturnedBooks(readerId, 1);
+            return List.of(reader.getNumberOfCurrentlyBorrowedBooks(), reader.getNumberOfEveryBorrowedBooks());
+        });
+        //then
+        Assertions.assertEquals(List.of(1, 2), result);
+        Assertions.assertEquals("Changed name", readerRepository.findById(readerId).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("Should subtract loans of deleted book from counters of its readers")
+    void shouldSubtractLoansOfDeletedBookFromCountersOfItsReaders() throws Exception {
+        //given
+        Integer deletedBookId = rows.book(1);
+        Integer keptBookId = rows.book(1);
+        Integer readerId = rows.readers(1).get(0);
+        LoanService loanService = library.getBean(LoanService.class);
+        loanService.borrowBook(deletedBookId, readerId);
+        loanService.returnBook(readerId, deletedBookId);
+        loanService.borrowBook(keptBookId, readerId);
+        //when
+        int deletedLoans = library.getBean(BookService.class).deleteBook(deletedBookId);
+        //then
+        ReaderEntity reader = library.getBean(ReaderRepository.class).findById(readerId).orElseThrow();
+        Assertions.assertEquals(1, deletedLoans);
+        Assertions.assertEquals(1, reader.getNumberOfEveryBorrowedBooks());
+        Assertions.assertEquals(1, reader.getNumberOfCurrentlyBorrowedBooks());
+    }
+}
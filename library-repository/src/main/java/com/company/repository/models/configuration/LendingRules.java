@@ -0,0 +1,11 @@
+package com.company.repository.models.configuration;
+
+import lombok.Value;
+
+@Value
+public class LendingRules {
+
+    int maxNumberOfBorrowedBooks;
+    int maxNumberOfDaysToBorrowABook;
+    int minAgeToBorrowABook;
+}
@@ -1,6 +1,9 @@
 package com.company.repository.models.entity;
 
+import com.company.repository.models.repository.PooledSequence;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
@@ -11,11 +14,16 @@
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AuthorEntity.CACHE_REGION)
 @Table(name = "Author")
 public class AuthorEntity {
 
+    public static final String CACHE_REGION = "author";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_id_generator")
+    @SequenceGenerator(name = "author_id_generator", sequenceName = PooledSequence.AUTHOR_SEQUENCE, allocationSize = PooledSequence.ALLOCATION_SIZE)
     private Integer id;
 
     private String name;
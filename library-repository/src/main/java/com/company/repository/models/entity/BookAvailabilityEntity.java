@@ -0,0 +1,28 @@
+package com.company.repository.models.entity;
+
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+/**
+ * Available copies of book, mapped apart from BookEntity and kept out of second-level cache, because they are changed by native
+ * statements on every borrow and return. Read only, changed only by BookAvailabilityRepository
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@BatchSize(size = 100)
+@Table(name = "Book")
+public class BookAvailabilityEntity {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "available_copies")
+    private Integer availableCopies;
+}
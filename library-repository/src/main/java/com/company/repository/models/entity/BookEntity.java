@@ -1,10 +1,12 @@
 package com.company.repository.models.entity;
 
-
+import com.company.repository.models.repository.PooledSequence;
 import lombok.*;
-import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.util.Optional;
 
 @Builder
 @Getter
@@ -12,11 +14,16 @@
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = BookEntity.CACHE_REGION)
 @Table(name = "Book")
 public class BookEntity {
 
+    public static final String CACHE_REGION = "book";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_id_generator")
+    @SequenceGenerator(name = "book_id_generator", sequenceName = PooledSequence.BOOK_SEQUENCE, allocationSize = PooledSequence.ALLOCATION_SIZE)
     private Integer id;
 
     private String title;
@@ -27,8 +34,23 @@ public class BookEntity {
 
     private Integer quantity;
 
-    @Formula("quantity - (select count(*) from loans l where l.book_id = id)")
-    private Integer quantityAvailable;
+    @ManyToOne
+    @JoinColumn(name = "id", insertable = false, updatable = false)
+    private BookAvailabilityEntity availability;
+
+    public Integer getQuantityAvailable() {
+        return Optional.ofNullable(availability).map(BookAvailabilityEntity::getAvailableCopies).orElse(null);
+    }
+
+    /**
+     * Method to set available copies of book which isn't managed by persistence context, available copies of stored book are changed
+     * only by BookAvailabilityRepository
+     *
+     * @param quantityAvailable
+     */
+    public void setQuantityAvailable(Integer quantityAvailable) {
+        availability = new BookAvailabilityEntity(id, quantityAvailable);
+    }
 
     @Override
     public String toString() {
@@ -37,6 +59,6 @@ public String toString() {
                 "\t" + "title: " + title + "\n" +
                 "\t" + "author: " + " id: " + author.getId() + " name: " + author.getName() + " surname: " + author.getSurname() + "\n" +
                 "\t" + "quantity: " + quantity + "\n" +
-                "\t" + "quantityAvailable: " + quantityAvailable + "\n";
+                "\t" + "quantityAvailable: " + getQuantityAvailable() + "\n";
     }
 }
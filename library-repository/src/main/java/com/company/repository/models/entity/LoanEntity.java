@@ -29,6 +29,9 @@
         @Column(name = "borrow_date")
         private Date borrowDate;
 
+        @Column(name = "due_date")
+        private Date dueDate;
+
         @Id
         @Column(name = "returned_date")
         private Date returnedDate;
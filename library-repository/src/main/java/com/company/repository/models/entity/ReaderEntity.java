@@ -1,10 +1,10 @@
 package com.company.repository.models.entity;
 
+import com.company.repository.models.repository.PooledSequence;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.Formula;
 
 import javax.persistence.*;
 import java.sql.Date;
@@ -19,7 +19,8 @@
 public class ReaderEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reader_id_generator")
+    @SequenceGenerator(name = "reader_id_generator", sequenceName = PooledSequence.READER_SEQUENCE, allocationSize = PooledSequence.ALLOCATION_SIZE)
     private Integer id;
 
     private String name;
@@ -28,10 +29,10 @@ public class ReaderEntity {
 
     private Date birthDate;
 
-    @Formula("(select count(*) from loans l where l.reader_id = id and l.returned_date is null)")
-    private Integer numberOfCurrentlyBorrowedBooks;
-    @Formula("(select count(*) from loans l where l.reader_id = id)")
-    private Integer numberOfEveryBorrowedBooks;
+    @Column(name = "currently_borrowed_books", updatable = false)
+    private Integer numberOfCurrentlyBorrowedBooks = 0;
+    @Column(name = "every_borrowed_books", updatable = false)
+    private Integer numberOfEveryBorrowedBooks = 0;
 
     @Override
     public String toString() {
@@ -0,0 +1,7 @@
+package com.company.repository.models.projection;
+
+public interface BookAvailability {
+    Integer getBookId();
+
+    Integer getQuantityAvailable();
+}
@@ -0,0 +1,9 @@
+package com.company.repository.models.projection;
+
+public interface BookBorrowStatus {
+    Integer getBookId();
+
+    Boolean getReaderHasBook();
+
+    Boolean getReaderReturnedBookToday();
+}
@@ -0,0 +1,13 @@
+package com.company.repository.models.projection;
+
+public interface BookSummary {
+    Integer getId();
+
+    String getTitle();
+
+    Integer getAuthorId();
+
+    String getAuthorName();
+
+    String getAuthorSurname();
+}
@@ -0,0 +1,16 @@
+package com.company.repository.models.projection;
+
+import java.sql.Date;
+
+public interface BorrowEligibility {
+
+    Date getBirthDate();
+
+    Integer getNumberOfCurrentlyBorrowedBooks();
+
+    Integer getNumberOfOverdueBooks();
+
+    Boolean getBookExists();
+
+    Boolean getReaderHasBook();
+}
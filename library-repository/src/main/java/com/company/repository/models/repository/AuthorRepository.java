@@ -1,13 +1,17 @@
 package com.company.repository.models.repository;
 
 import com.company.repository.models.entity.AuthorEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<AuthorEntity, Integer> {
 
     Optional<AuthorEntity> findAuthorEntitiesByNameAndSurname(String name, String surname);
+
+    List<AuthorEntity> findAllByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
 }
@@ -0,0 +1,59 @@
+package com.company.repository.models.repository;
+
+import com.company.repository.models.entity.BookAvailabilityEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookAvailabilityRepository {
+
+    /**
+     * Method to read available copies of given book, they are never served from second-level cache
+     *
+     * @param id
+     * @return available copies, or null if book doesn't exist
+     */
+    BookAvailabilityEntity getAvailability(Integer id);
+
+    /**
+     * Method to reserve single copy of given book, copy is reserved only if any copy is available
+     *
+     * @param id
+     * @return number of reserved copies, 0 if book is not available
+     */
+    int reserveCopy(Integer id);
+
+    /**
+     * Method to reserve single copy of every given book by one statement, book without available copies is skipped
+     *
+     * @param ids
+     * @return ids of books which copy was reserved
+     */
+    List<Integer> reserveCopies(Collection<Integer> ids);
+
+    /**
+     * Method to give back single copy of given book
+     *
+     * @param id
+     * @return number of updated books
+     */
+    int releaseCopy(Integer id);
+
+    /**
+     * Method to give back single copy of every given book by one statement
+     *
+     * @param ids
+     * @return number of updated books
+     */
+    int releaseCopies(Collection<Integer> ids);
+
+    /**
+     * Method to change number of available copies of given book by given difference, copies are changed only if number of available
+     * copies doesn't go below zero, so quantity can't be lowered below number of borrowed copies
+     *
+     * @param id
+     * @param difference
+     * @return number of updated books, 0 if book doesn't exist or has fewer available copies than given negative difference
+     */
+    int changeAvailableCopies(Integer id, int difference);
+}
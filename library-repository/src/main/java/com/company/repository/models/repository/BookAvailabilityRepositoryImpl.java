@@ -0,0 +1,93 @@
+package com.company.repository.models.repository;
+
+import com.company.repository.models.entity.BookAvailabilityEntity;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Available copies are kept out of second-level cache in BookAvailabilityEntity, so they are changed by native statements synchronized
+ * only with AVAILABLE_COPIES_QUERY_SPACE and no cached region is touched. Availability of changed books which is already loaded in
+ * persistence context is refreshed after every statement
+ */
+@RequiredArgsConstructor
+public class BookAvailabilityRepositoryImpl implements BookAvailabilityRepository {
+
+    public static final String AVAILABLE_COPIES_QUERY_SPACE = "book_available_copies";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public BookAvailabilityEntity getAvailability(Integer id) {
+        return entityManager.find(BookAvailabilityEntity.class, id);
+    }
+
+    @Override
+    public int reserveCopy(Integer id) {
+        int updated = modifyingQuery("UPDATE book SET available_copies = available_copies - 1 WHERE id = :id AND available_copies > 0")
+                .setParameter("id", id)
+                .executeUpdate();
+        refreshAvailability(List.of(id));
+        return updated;
+    }
+
+    @Override
+    public List<Integer> reserveCopies(Collection<Integer> ids) {
+        List<Integer> reserved = modifyingQuery("UPDATE book SET available_copies = available_copies - 1 " +
+                "WHERE id IN (:ids) AND available_copies > 0 RETURNING id")
+                .setParameter("ids", ids)
+                .getResultList();
+        refreshAvailability(reserved);
+        return reserved;
+    }
+
+    @Override
+    public int releaseCopy(Integer id) {
+        int updated = modifyingQuery("UPDATE book SET available_copies = available_copies + 1 WHERE id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        refreshAvailability(List.of(id));
+        return updated;
+    }
+
+    @Override
+    public int releaseCopies(Collection<Integer> ids) {
+        int updated = modifyingQuery("UPDATE book SET available_copies = available_copies + 1 WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        refreshAvailability(ids);
+        return updated;
+    }
+
+    @Override
+    public int changeAvailableCopies(Integer id, int difference) {
+        int updated = modifyingQuery("UPDATE book SET available_copies = available_copies + :difference " +
+                "WHERE id = :id AND available_copies + :difference >= 0")
+                .setParameter("difference", difference)
+                .setParameter("id", id)
+                .executeUpdate();
+        refreshAvailability(List.of(id));
+        return updated;
+    }
+
+    private NativeQuery<Integer> modifyingQuery(String sqlStatement) {
+        NativeQuery<Integer> query = entityManager.createNativeQuery(sqlStatement).unwrap(NativeQuery.class);
+        return query.addSynchronizedQuerySpace(AVAILABLE_COPIES_QUERY_SPACE);
+    }
+
+    private void refreshAvailability(Collection<Integer> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(BookAvailabilityEntity.class);
+        for (Integer id : ids) {
+            Object availability = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if (availability != null) {
+                entityManager.refresh(availability);
+            }
+        }
+    }
+}
@@ -2,12 +2,29 @@
 
 import com.company.repository.models.entity.AuthorEntity;
 import com.company.repository.models.entity.BookEntity;
+import com.company.repository.models.projection.BookAvailability;
+import com.company.repository.models.projection.BookSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookRepository extends JpaRepository<BookEntity, Integer> {
+public interface BookRepository extends JpaRepository<BookEntity, Integer>, JpaSpecificationExecutor<BookEntity>, BookAvailabilityRepository,
+        BookSearchRepository {
     List<BookEntity> findAllByAuthor(AuthorEntity author);
+
+    List<BookEntity> findAllByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    @Query("SELECT b.id AS id, b.title AS title, a.id AS authorId, a.name AS authorName, a.surname AS authorSurname " +
+            "FROM BookEntity b JOIN b.author a WHERE a.id = :authorId ORDER BY b.id")
+    List<BookSummary> findSummariesByAuthorId(@Param("authorId") Integer authorId);
+
+    @Query("SELECT a.id AS bookId, a.availableCopies AS quantityAvailable FROM BookAvailabilityEntity a WHERE a.id IN (:ids)")
+    List<BookAvailability> findAvailability(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,19 @@
+package com.company.repository.models.repository;
+
+import com.company.repository.models.entity.BookEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface BookSearchRepository {
+
+    /**
+     * Method to find first books which match given specification ordered by id, rows aren't counted, so every call is a single
+     * query limited to given number of rows
+     *
+     * @param specification, specification of books, or null to match every book
+     * @param limit,         max number of returned books
+     * @return
+     */
+    List<BookEntity> findAllOrderedById(Specification<BookEntity> specification, int limit);
+}
@@ -0,0 +1,34 @@
+package com.company.repository.models.repository;
+
+import com.company.repository.models.entity.BookEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookEntity> findAllOrderedById(Specification<BookEntity> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookEntity> query = builder.createQuery(BookEntity.class);
+        Root<BookEntity> root = query.from(BookEntity.class);
+        Predicate predicate = Specification.where(specification).toPredicate(root, query, builder);
+        if (Optional.ofNullable(predicate).isPresent()) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
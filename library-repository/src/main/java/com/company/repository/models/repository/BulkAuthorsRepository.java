@@ -0,0 +1,75 @@
+package com.company.repository.models.repository;
+
+import com.company.repository.models.entity.AuthorEntity;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+@Repository
+public class BulkAuthorsRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Method to insert given authors by single jdbc batch, author which violates unique name and surname constraint is skipped
+     *
+     * @param authors
+     * @return number of inserted authors
+     */
+    public int insertIgnoringDuplicates(Collection<AuthorEntity> authors) {
+        String sqlStatement = "INSERT INTO author (id, name, surname) VALUES (?, ?, ?) " +
+                "ON CONFLICT ON CONSTRAINT uc_author DO NOTHING";
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            int[] ids = PooledSequence.allocate(connection, PooledSequence.AUTHOR_SEQUENCE, authors.size());
+            try (PreparedStatement statement = connection.prepareStatement(sqlStatement)) {
+                int index = 0;
+                for (AuthorEntity author : authors) {
+                    statement.setInt(1, ids[index++]);
+                    statement.setString(2, author.getName());
+                    statement.setString(3, author.getSurname());
+                    statement.addBatch();
+                }
+                return Arrays.stream(statement.executeBatch())
+                        .filter(count -> count > 0)
+                        .sum();
+            }
+        });
+    }
+
+    /**
+     * Method to find authors with given names and surnames by one statement
+     *
+     * @param authors, only name and surname of author is used
+     * @return authors which exist in database
+     */
+    public List<AuthorEntity> findByNamesAndSurnames(Collection<AuthorEntity> authors) {
+        String sqlStatement = "SELECT a.id, a.name, a.surname FROM author a " +
+                "JOIN unnest(?, ?) AS given(name, surname) ON a.name = given.name AND a.surname = given.surname";
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sqlStatement)) {
+                statement.setArray(1, connection.createArrayOf("varchar", authors.stream().map(AuthorEntity::getName).toArray()));
+                statement.setArray(2, connection.createArrayOf("varchar", authors.stream().map(AuthorEntity::getSurname).toArray()));
+                List<AuthorEntity> foundAuthors = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        foundAuthors.add(AuthorEntity.builder()
+                                .id(resultSet.getInt(1))
+                                .name(resultSet.getString(2))
+                                .surname(resultSet.getString(3))
+                                .build());
+                    }
+                }
+                return foundAuthors;
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.company.repository.models.repository;
+
+import com.company.repository.models.entity.BookEntity;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+@Repository
+public class BulkBooksRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Method to insert given books by single jdbc batch, every book must have author with id, all copies of new book are available
+     *
+     * @param books
+     * @return number of inserted books
+     */
+    public int insertBooks(Collection<BookEntity> books) {
+        String sqlStatement = "INSERT INTO book (id, title, author_id, quantity, available_copies) VALUES (?, ?, ?, ?, ?)";
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            int[] ids = PooledSequence.allocate(connection, PooledSequence.BOOK_SEQUENCE, books.size());
+            try (PreparedStatement statement = connection.prepareStatement(sqlStatement)) {
+                int index = 0;
+                for (BookEntity book : books) {
+                    statement.setInt(1, ids[index++]);
+                    statement.setString(2, book.getTitle());
+                    statement.setInt(3, book.getAuthor().getId());
+                    statement.setInt(4, book.getQuantity());
+                    statement.setInt(5, book.getQuantity());
+                    statement.addBatch();
+                }
+                return Arrays.stream(statement.executeBatch())
+                        .filter(count -> count > 0)
+                        .sum();
+            }
+        });
+    }
+}
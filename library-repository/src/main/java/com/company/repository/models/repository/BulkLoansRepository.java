@@ -0,0 +1,92 @@
+package com.company.repository.models.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+@Repository
+public class BulkLoansRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Due date is counted by insert from the configuration row, which is locked for share until end of transaction. Edit of number of
+     * days updates this row before due dates of open loans, so loan is inserted either before edit and its due date is counted again
+     * by edit, or after edit with new number of days
+     */
+    private static final String DUE_DATE_FROM_CONFIGURATION = " + c.maxnumberofdaystoborrowabook FROM configuration c WHERE c.id = 1 FOR SHARE OF c";
+
+    /**
+     * Method to insert open loan of given book, due date is counted from current configuration
+     *
+     * @param bookId
+     * @param readerId
+     * @param borrowDate
+     * @return due date of inserted loan
+     */
+    public Date insertLoan(Integer bookId, Integer readerId, Date borrowDate) {
+        String sqlStatement = "INSERT INTO loans (book_id, reader_id, borrow_date, due_date) " +
+                "SELECT :bookId, :readerId, :borrowDate, CAST(:borrowDate AS date)" + DUE_DATE_FROM_CONFIGURATION + " RETURNING due_date";
+        NativeQuery<?> query = entityManager.createNativeQuery(sqlStatement).unwrap(NativeQuery.class);
+        return (Date) query.addSynchronizedQuerySpace("loans")
+                .setParameter("bookId", bookId)
+                .setParameter("readerId", readerId)
+                .setParameter("borrowDate", borrowDate)
+                .getSingleResult();
+    }
+
+    /**
+     * Method to insert open loans of given books by single jdbc batch, due date is counted from current configuration
+     *
+     * @param readerId
+     * @param bookIds
+     * @param borrowDate
+     */
+    public void insertLoans(Integer readerId, Collection<Integer> bookIds, Date borrowDate) {
+        String sqlStatement = "INSERT INTO loans (book_id, reader_id, borrow_date, due_date) " +
+                "SELECT ?, ?, ?, CAST(? AS date)" + DUE_DATE_FROM_CONFIGURATION;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sqlStatement)) {
+                for (Integer bookId : bookIds) {
+                    statement.setInt(1, bookId);
+                    statement.setInt(2, readerId);
+                    statement.setDate(3, borrowDate);
+                    statement.setDate(4, borrowDate);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Method to set return date of open loans of given reader and books by one statement
+     *
+     * @param readerId
+     * @param bookIds
+     * @param returnedDate
+     * @return ids of books which loan was closed
+     */
+    public List<Integer> closeOpenLoans(Integer readerId, Collection<Integer> bookIds, Date returnedDate) {
+        String sqlStatement = "UPDATE loans SET returned_date = :returnedDate " +
+                "WHERE reader_id = :readerId AND book_id IN (:ids) AND returned_date IS NULL RETURNING book_id";
+        return modifyingQuery(sqlStatement, "loans")
+                .setParameter("returnedDate", returnedDate)
+                .setParameter("readerId", readerId)
+                .setParameter("ids", bookIds)
+                .getResultList();
+    }
+
+    private NativeQuery<Integer> modifyingQuery(String sqlStatement, String table) {
+        NativeQuery<Integer> query = entityManager.createNativeQuery(sqlStatement).unwrap(NativeQuery.class);
+        return query.addSynchronizedQuerySpace(table);
+    }
+}
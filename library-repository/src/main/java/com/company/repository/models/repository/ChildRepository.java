@@ -3,8 +3,9 @@
 
 import com.company.repository.models.entity.ChildEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ChildRepository extends JpaRepository<ChildEntity, Integer> {
+public interface ChildRepository extends JpaRepository<ChildEntity, Integer>, JpaSpecificationExecutor<ChildEntity> {
 }
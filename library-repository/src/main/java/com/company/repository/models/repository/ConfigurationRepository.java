@@ -1,6 +1,8 @@
 package com.company.repository.models.repository;
 
+import com.company.repository.models.configuration.LendingRules;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -14,43 +16,67 @@ public class ConfigurationRepository {
 
     private final EntityManager entityManager;
     private static final int ID_OF_RECORD_WITH_CONFIGURATION_DATA = 1;
+    public static final String LENDING_RULES_CHANGED_CHANNEL = "lending_rules_changed";
+    private static final String CONFIGURATION_QUERY_SPACE = "configuration";
 
     @Transactional
     public void editNumberOfBorrowedBooks(int maxNumberOfBorrowedBooks) {
         String sqlStatement = "UPDATE configuration SET maxnumberofborrowedbooks=:value WHERE id=:id";
-        entityManager.createNativeQuery(sqlStatement)
+        modifyingQuery(sqlStatement)
                 .setParameter("value", maxNumberOfBorrowedBooks)
                 .setParameter("id", ID_OF_RECORD_WITH_CONFIGURATION_DATA)
                 .executeUpdate();
+        notifyLendingRulesChanged();
     }
 
     @Transactional
     public void editMinAgeToBorrowABook(int minAgeToBorrowABook) {
         String sqlStatement = "UPDATE configuration SET minagetoborrowabook=:value WHERE id=:id";
-        entityManager.createNativeQuery(sqlStatement)
+        modifyingQuery(sqlStatement)
                 .setParameter("value", minAgeToBorrowABook)
                 .setParameter("id", ID_OF_RECORD_WITH_CONFIGURATION_DATA)
                 .executeUpdate();
+        notifyLendingRulesChanged();
     }
 
+    /**
+     * Method to edit maximum number of days to borrow a book, due dates of open loans are counted again in the same transaction
+     *
+     * @param maxNumberOfDays
+     */
     @Transactional
     public void editNumberOfDaysToBorrowABook(int maxNumberOfDays) {
         String sqlStatement = "UPDATE configuration SET maxnumberofdaystoborrowabook=:value WHERE id=:id";
-        entityManager.createNativeQuery(sqlStatement)
+        modifyingQuery(sqlStatement)
                 .setParameter("value", maxNumberOfDays)
                 .setParameter("id", ID_OF_RECORD_WITH_CONFIGURATION_DATA)
                 .executeUpdate();
+        entityManager.createNativeQuery("UPDATE loans SET due_date = borrow_date + :value WHERE returned_date IS NULL")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("loans")
+                .setParameter("value", maxNumberOfDays)
+                .executeUpdate();
+        notifyLendingRulesChanged();
     }
 
     @Transactional
     public void addConfigurationDataToTable(int maxNumberOfBorrowedBooks, int maxNumberOfDaysToBorrowABook, int minAgeToBorrowABook) {
         String sqlStatement = "INSERT INTO configuration VALUES (:id,:maxNumberOfBorrowedBooks,:maxNumberOfDaysToBorrowABook,:minAgeToBorrowABook)";
-        entityManager.createNativeQuery(sqlStatement)
+        modifyingQuery(sqlStatement)
                 .setParameter("id", ID_OF_RECORD_WITH_CONFIGURATION_DATA)
                 .setParameter("maxNumberOfBorrowedBooks", maxNumberOfBorrowedBooks)
                 .setParameter("maxNumberOfDaysToBorrowABook", maxNumberOfDaysToBorrowABook)
                 .setParameter("minAgeToBorrowABook", minAgeToBorrowABook)
                 .executeUpdate();
+        notifyLendingRulesChanged();
+    }
+
+    public LendingRules getLendingRules() {
+        String sqlStatement = "SELECT maxNumberOfBorrowedBooks, maxNumberOfDaysToBorrowABook, minAgeToBorrowABook FROM configuration WHERE id=:id";
+        Object[] result = (Object[]) entityManager.createNativeQuery(sqlStatement)
+                .setParameter("id", ID_OF_RECORD_WITH_CONFIGURATION_DATA)
+                .getSingleResult();
+        return new LendingRules((int) result[0], (int) result[1], (int) result[2]);
     }
 
     public int getMaxNumberOfBorrowedBooks() {
@@ -86,4 +112,19 @@ public boolean isConfigurationDataInTable() {
         List results = query.getResultList();
         return results.size() == 1;
     }
+
+    private NativeQuery<?> modifyingQuery(String sqlStatement) {
+        return entityManager.createNativeQuery(sqlStatement)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(CONFIGURATION_QUERY_SPACE);
+    }
+
+    /**
+     * Method to notify every application node listening on LENDING_RULES_CHANGED_CHANNEL, notification is sent when transaction is committed
+     */
+    private void notifyLendingRulesChanged() {
+        entityManager.createNativeQuery("SELECT pg_notify(:channel, '')")
+                .setParameter("channel", LENDING_RULES_CHANGED_CHANNEL)
+                .getSingleResult();
+    }
 }
@@ -0,0 +1,42 @@
+package com.company.repository.models.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.util.List;
+
+@RequiredArgsConstructor
+@Repository
+public class LoansPartitionsRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Method to create missing monthly partitions of returned loans, from month of first date to month of last date
+     *
+     * @param firstDate
+     * @param lastDate
+     * @return number of created partitions
+     */
+    public int createHistoryPartitions(Date firstDate, Date lastDate) {
+        Number created = (Number) entityManager.createNativeQuery("SELECT create_loans_history_partitions(:firstDate, :lastDate)")
+                .setParameter("firstDate", firstDate)
+                .setParameter("lastDate", lastDate)
+                .getSingleResult();
+        return created.intValue();
+    }
+
+    /**
+     * Method to detach partitions of loans returned before given date, detached partitions stay in database as standalone tables
+     *
+     * @param beforeDate
+     * @return names of detached partitions
+     */
+    public List<String> detachHistoryPartitions(Date beforeDate) {
+        return entityManager.createNativeQuery("SELECT * FROM detach_loans_history_partitions(:beforeDate)")
+                .setParameter("beforeDate", beforeDate)
+                .getResultList();
+    }
+}
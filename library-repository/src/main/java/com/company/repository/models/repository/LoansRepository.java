@@ -4,11 +4,24 @@
 import com.company.repository.models.entity.ReaderEntity;
 import com.company.repository.models.keys.LoanId;
 import com.company.repository.models.entity.LoanEntity;
+import com.company.repository.models.projection.BookBorrowStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import javax.transaction.Transactional;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface LoansRepository extends JpaRepository<LoanEntity, LoanId> {
@@ -16,9 +29,80 @@ public interface LoansRepository extends JpaRepository<LoanEntity, LoanId> {
     List<LoanEntity> findAllByReader(ReaderEntity reader);
     List<LoanEntity> findAllByReaderAndReturnedDate(ReaderEntity reader,Date returnedDate);
     List<LoanEntity> findAllByBook(BookEntity book);
-    void deleteAllByBook(BookEntity book);
-    void deleteAllByReader(ReaderEntity reader);
+
+    /**
+     * Counters of readers whose loans were deleted by data-modifying "deleted" subquery, which returns reader_id and returned_date of
+     * every deleted loan. It's a part of the same statement, so counters can't differ from deleted loans
+     */
+    String SUBTRACT_DELETED_LOANS_FROM_READERS = "subtracted AS (UPDATE reader r SET " +
+            "every_borrowed_books = GREATEST(r.every_borrowed_books - d.loans, 0), " +
+            "currently_borrowed_books = GREATEST(r.currently_borrowed_books - d.open_loans, 0) " +
+            "FROM (SELECT reader_id, count(*) AS loans, count(*) FILTER (WHERE returned_date IS NULL) AS open_loans " +
+            "FROM deleted GROUP BY reader_id) d WHERE r.id = d.reader_id) " +
+            "SELECT CAST(count(*) AS integer) FROM deleted";
+
+    @Transactional
+    @Query(value = "WITH deleted AS (DELETE FROM loans WHERE book_id = :bookId RETURNING reader_id, returned_date), " +
+            SUBTRACT_DELETED_LOANS_FROM_READERS, nativeQuery = true)
+    int deleteAllByBookId(@Param("bookId") Integer bookId);
+
+    @Modifying
+    @Query("DELETE FROM LoanEntity l WHERE l.reader.id = :readerId")
+    int deleteAllByReaderId(@Param("readerId") Integer readerId);
+
+    @Transactional
+    @Query(value = "WITH deleted AS (DELETE FROM loans WHERE (book_id, reader_id, borrow_date) IN (SELECT book_id, reader_id, borrow_date " +
+            "FROM loans WHERE book_id = :bookId AND returned_date IS NOT NULL LIMIT :limit) RETURNING reader_id, returned_date), " +
+            SUBTRACT_DELETED_LOANS_FROM_READERS, nativeQuery = true)
+    int deleteReturnedLoansOfBook(@Param("bookId") Integer bookId, @Param("limit") int limit);
+
+    @Transactional
+    @Query(value = "WITH deleted AS (DELETE FROM loans WHERE (book_id, reader_id, borrow_date) IN (SELECT book_id, reader_id, borrow_date " +
+            "FROM loans WHERE reader_id = :readerId AND returned_date IS NOT NULL LIMIT :limit) RETURNING reader_id, returned_date), " +
+            SUBTRACT_DELETED_LOANS_FROM_READERS, nativeQuery = true)
+    int deleteReturnedLoansOfReader(@Param("readerId") Integer readerId, @Param("limit") int limit);
+
+    @Query("SELECT l FROM LoanEntity l WHERE l.reader = :reader AND l.returnedDate IS NULL AND l.dueDate <= :date")
+    List<LoanEntity> findOverdueLoansOfReader(@Param("reader") ReaderEntity reader, @Param("date") Date date);
+
+    @Query("SELECT l FROM LoanEntity l JOIN FETCH l.book b JOIN FETCH b.author JOIN FETCH l.reader r " +
+            "WHERE l.returnedDate IS NULL AND l.dueDate <= :date AND l.dueDate >= :dueDate " +
+            "AND (l.dueDate > :dueDate OR r.id > :readerId OR (r.id = :readerId AND b.id > :bookId)) " +
+            "ORDER BY l.dueDate, r.id, b.id")
+    List<LoanEntity> findOverdueLoansAfter(@Param("date") Date date, @Param("dueDate") Date dueDate, @Param("readerId") Integer readerId,
+                                           @Param("bookId") Integer bookId, Pageable pageable);
 
     List<LoanEntity> findAllByBookAndReturnedDate(BookEntity book,Date returnedDate);
     List<LoanEntity> findAllByReaderAndBookAndReturnedDate(ReaderEntity reader, BookEntity book, Date returnedDate);
+
+    @Query("SELECT l FROM LoanEntity l JOIN FETCH l.book b JOIN FETCH b.author JOIN FETCH l.reader r " +
+            "WHERE b.id >= :bookId AND (b.id > :bookId OR r.id > :readerId OR (r.id = :readerId AND l.borrowDate > :borrowDate)) " +
+            "ORDER BY b.id, r.id, l.borrowDate")
+    List<LoanEntity> findAllAfter(@Param("bookId") Integer bookId, @Param("readerId") Integer readerId,
+                                  @Param("borrowDate") Date borrowDate, Pageable pageable);
+
+    @Query(value = "SELECT b.id AS bookId, EXISTS (SELECT 1 FROM loans l WHERE l.book_id = b.id AND l.reader_id = :readerId " +
+            "AND l.returned_date IS NULL) AS readerHasBook, EXISTS (SELECT 1 FROM loans l WHERE l.book_id = b.id AND l.reader_id = :readerId " +
+            "AND l.borrow_date = :borrowDate AND l.returned_date >= :borrowDate) AS readerReturnedBookToday " +
+            "FROM book b WHERE b.id IN (:bookIds)", nativeQuery = true)
+    List<BookBorrowStatus> findBorrowStatuses(@Param("readerId") Integer readerId, @Param("bookIds") Collection<Integer> bookIds,
+                                              @Param("borrowDate") Date borrowDate);
+
+    /**
+     * Key of loan is unique only inside single partition, so loan borrowed and returned on given date would collide with second loan of the
+     * same book borrowed on the same date, when it is returned. Returned date is given to prune partitions older than borrow date
+     *
+     * @param bookId
+     * @param readerId
+     * @param borrowDate
+     * @return
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM loans WHERE book_id = :bookId AND reader_id = :readerId AND borrow_date = :borrowDate " +
+            "AND returned_date >= :borrowDate)", nativeQuery = true)
+    boolean existsReturnedLoanBorrowedOn(@Param("bookId") Integer bookId, @Param("readerId") Integer readerId,
+                                         @Param("borrowDate") Date borrowDate);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT l FROM LoanEntity l JOIN FETCH l.book b JOIN FETCH b.author JOIN FETCH l.reader")
+    Stream<LoanEntity> streamAll();
 }
\ No newline at end of file
@@ -2,8 +2,9 @@
 
 import com.company.repository.models.entity.ParentEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ParentRepository extends JpaRepository<ParentEntity, Integer> {
+public interface ParentRepository extends JpaRepository<ParentEntity, Integer>, JpaSpecificationExecutor<ParentEntity> {
 }
@@ -0,0 +1,48 @@
+package com.company.repository.models.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Ids from sequences incremented by ALLOCATION_SIZE, every value of sequence reserves block of ids which ends at this value,
+ * the same way as hibernate pooled optimizer does, so ids given to sql inserts never collide with ids given to entities
+ */
+public final class PooledSequence {
+    public static final int ALLOCATION_SIZE = 50;
+    public static final String AUTHOR_SEQUENCE = "author_seq";
+    public static final String BOOK_SEQUENCE = "book_seq";
+    public static final String READER_SEQUENCE = "reader_seq";
+
+    private PooledSequence() {
+    }
+
+    /**
+     * Method to reserve given number of ids by one statement
+     *
+     * @param connection
+     * @param sequence,   name of sequence incremented by ALLOCATION_SIZE
+     * @param count,      number of ids
+     * @return reserved ids
+     * @throws SQLException
+     */
+    static int[] allocate(Connection connection, String sequence, int count) throws SQLException {
+        int[] ids = new int[count];
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)")) {
+            statement.setString(1, sequence);
+            statement.setInt(2, blocks);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int index = 0;
+                while (resultSet.next()) {
+                    int lastIdOfBlock = resultSet.getInt(1);
+                    for (int id = lastIdOfBlock - ALLOCATION_SIZE + 1; id <= lastIdOfBlock && index < count; id++) {
+                        ids[index++] = id;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+}
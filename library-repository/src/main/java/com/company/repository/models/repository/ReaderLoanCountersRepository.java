@@ -0,0 +1,14 @@
+package com.company.repository.models.repository;
+
+import java.util.Collection;
+
+public interface ReaderLoanCountersRepository {
+
+    /**
+     * Method to read again loan counters of given readers which are already loaded in persistence context, should be called after
+     * counters were changed by native statement, so entities mapped later to dto's don't keep old counters
+     *
+     * @param ids
+     */
+    void refreshLoanCounters(Collection<Integer> ids);
+}
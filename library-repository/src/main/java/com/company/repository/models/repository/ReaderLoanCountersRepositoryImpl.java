@@ -0,0 +1,31 @@
+package com.company.repository.models.repository;
+
+import com.company.repository.models.entity.ReaderEntity;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+
+/**
+ * Loan counters of readers are changed by native statements, which don't touch readers loaded earlier in the same transaction.
+ * Only readers which are already in persistence context are refreshed, references which weren't initialized aren't loaded
+ */
+@RequiredArgsConstructor
+public class ReaderLoanCountersRepositoryImpl implements ReaderLoanCountersRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public void refreshLoanCounters(Collection<Integer> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(ReaderEntity.class);
+        for (Integer id : ids) {
+            Object reader = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if (reader != null) {
+                entityManager.refresh(reader);
+            }
+        }
+    }
+}
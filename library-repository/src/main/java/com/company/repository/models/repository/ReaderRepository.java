@@ -1,9 +1,86 @@
 package com.company.repository.models.repository;
 
 import com.company.repository.models.entity.ReaderEntity;
+import com.company.repository.models.projection.BorrowEligibility;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
 @Repository
-public interface ReaderRepository extends JpaRepository<ReaderEntity, Integer> {
+public interface ReaderRepository extends JpaRepository<ReaderEntity, Integer>, JpaSpecificationExecutor<ReaderEntity>, ReaderLoanCountersRepository {
+
+    List<ReaderEntity> findAllByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    @Query(value = "SELECT id FROM reader WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockById(@Param("id") Integer id);
+
+    @Query(value = "SELECT r.birth_date AS birthDate, r.currently_borrowed_books AS numberOfCurrentlyBorrowedBooks, " +
+            "(SELECT CAST(count(*) AS integer) FROM loans l WHERE l.reader_id = r.id AND l.returned_date IS NULL " +
+            "AND l.due_date <= current_date) AS numberOfOverdueBooks " +
+            "FROM reader r WHERE r.id = :readerId", nativeQuery = true)
+    Optional<BorrowEligibility> findBorrowEligibility(@Param("readerId") Integer readerId);
+
+    @Query(value = "SELECT r.birth_date AS birthDate, r.currently_borrowed_books AS numberOfCurrentlyBorrowedBooks, " +
+            "(SELECT CAST(count(*) AS integer) FROM loans l WHERE l.reader_id = r.id AND l.returned_date IS NULL " +
+            "AND l.due_date <= current_date) AS numberOfOverdueBooks, " +
+            "EXISTS (SELECT 1 FROM book b WHERE b.id = :bookId) AS bookExists, " +
+            "EXISTS (SELECT 1 FROM loans l WHERE l.reader_id = r.id AND l.book_id = :bookId AND l.returned_date IS NULL) AS readerHasBook " +
+            "FROM reader r WHERE r.id = :readerId FOR UPDATE OF r", nativeQuery = true)
+    Optional<BorrowEligibility> findBorrowEligibilityForUpdate(@Param("readerId") Integer readerId, @Param("bookId") Integer bookId);
+
+    @Query(value = "SELECT r.birth_date AS birthDate, r.currently_borrowed_books AS numberOfCurrentlyBorrowedBooks, " +
+            "(SELECT CAST(count(*) AS integer) FROM loans l WHERE l.reader_id = r.id AND l.returned_date IS NULL " +
+            "AND l.due_date <= current_date) AS numberOfOverdueBooks " +
+            "FROM reader r WHERE r.id = :readerId FOR UPDATE OF r", nativeQuery = true)
+    Optional<BorrowEligibility> findBorrowEligibilityOfReaderForUpdate(@Param("readerId") Integer readerId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "reader"))
+    @Query(value = "UPDATE reader SET currently_borrowed_books = currently_borrowed_books + 1, " +
+            "every_borrowed_books = every_borrowed_books + 1 WHERE id = :id", nativeQuery = true)
+    int incrementLoanCounters(@Param("id") Integer id);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "reader"))
+    @Query(value = "UPDATE reader SET currently_borrowed_books = currently_borrowed_books - 1 " +
+            "WHERE id = :id AND currently_borrowed_books > 0", nativeQuery = true)
+    int decrementCurrentlyBorrowedBooksCounter(@Param("id") Integer id);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "reader"))
+    @Query(value = "UPDATE reader SET currently_borrowed_books = currently_borrowed_books + :count, " +
+            "every_borrowed_books = every_borrowed_books + :count WHERE id = :id", nativeQuery = true)
+    int addToLoanCounters(@Param("id") Integer id, @Param("count") int count);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "reader"))
+    @Query(value = "UPDATE reader SET currently_borrowed_books = GREATEST(currently_borrowed_books - :count, 0) " +
+            "WHERE id = :id", nativeQuery = true)
+    int subtractFromCurrentlyBorrowedBooksCounter(@Param("id") Integer id, @Param("count") int count);
+
+    @Query(value = "SELECT r.id FROM reader r " +
+            "LEFT JOIN (SELECT reader_id, count(*) FILTER (WHERE returned_date IS NULL) AS currently_borrowed_books, count(*) AS every_borrowed_books " +
+            "FROM loans GROUP BY reader_id) c ON c.reader_id = r.id " +
+            "WHERE r.currently_borrowed_books <> COALESCE(c.currently_borrowed_books, 0) " +
+            "OR r.every_borrowed_books <> COALESCE(c.every_borrowed_books, 0) + r.archived_borrowed_books", nativeQuery = true)
+    List<Integer> findIdsOfReadersWithIncorrectLoanCounters();
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "reader"))
+    @Query(value = "UPDATE reader r SET " +
+            "currently_borrowed_books = (SELECT count(*) FROM loans l WHERE l.reader_id = r.id AND l.returned_date IS NULL), " +
+            "every_borrowed_books = (SELECT count(*) FROM loans l WHERE l.reader_id = r.id) + r.archived_borrowed_books " +
+            "WHERE r.id IN (:ids)", nativeQuery = true)
+    int recalculateLoanCounters(@Param("ids") List<Integer> ids);
 }
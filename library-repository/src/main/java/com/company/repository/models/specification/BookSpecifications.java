@@ -0,0 +1,54 @@
+package com.company.repository.models.specification;
+
+import com.company.repository.models.entity.BookEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Optional;
+
+public class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Method to build single specification from given parameters, parameters which are null are skipped
+     *
+     * @param id
+     * @param title
+     * @param authorId
+     * @param quantity
+     * @param quantityAvailable
+     * @return specification which match every book if all parameters are null
+     */
+    public static Specification<BookEntity> withParameters(Integer id, String title, Integer authorId, Integer quantity, Integer quantityAvailable) {
+        return Specification.where(hasId(id))
+                .and(hasTitle(title))
+                .and(hasAuthorId(authorId))
+                .and(hasQuantity(quantity))
+                .and(hasQuantityAvailable(quantityAvailable));
+    }
+
+    public static Specification<BookEntity> hasId(Integer id) {
+        return Optional.ofNullable(id).isPresent() ? (root, query, builder) -> builder.equal(root.get("id"), id) : null;
+    }
+
+    public static Specification<BookEntity> hasIdGreaterThan(Integer id) {
+        return Optional.ofNullable(id).isPresent() ? (root, query, builder) -> builder.greaterThan(root.get("id"), id) : null;
+    }
+
+    public static Specification<BookEntity> hasTitle(String title) {
+        return Optional.ofNullable(title).isPresent() ? (root, query, builder) -> builder.equal(root.get("title"), title) : null;
+    }
+
+    public static Specification<BookEntity> hasAuthorId(Integer authorId) {
+        return Optional.ofNullable(authorId).isPresent() ? (root, query, builder) -> builder.equal(root.get("author").get("id"), authorId) : null;
+    }
+
+    public static Specification<BookEntity> hasQuantity(Integer quantity) {
+        return Optional.ofNullable(quantity).isPresent() ? (root, query, builder) -> builder.equal(root.get("quantity"), quantity) : null;
+    }
+
+    public static Specification<BookEntity> hasQuantityAvailable(Integer quantityAvailable) {
+        return Optional.ofNullable(quantityAvailable).isPresent() ? (root, query, builder) -> builder.equal(root.get("availability").get("availableCopies"), quantityAvailable) : null;
+    }
+}
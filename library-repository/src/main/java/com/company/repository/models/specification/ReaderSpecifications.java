@@ -0,0 +1,55 @@
+package com.company.repository.models.specification;
+
+import com.company.repository.models.entity.ChildEntity;
+import com.company.repository.models.entity.ParentEntity;
+import com.company.repository.models.entity.ReaderEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public class ReaderSpecifications {
+
+    private ReaderSpecifications() {
+    }
+
+    /**
+     * Method to build single specification from given reader parameters, parameters which are null are skipped.
+     * Specification can be used for readers, parents and children, so query is executed only against given type
+     *
+     * @param id
+     * @param name
+     * @param surname
+     * @param birthDate
+     * @param numberOfCurrentlyBorrowedBooks
+     * @param numberOfEveryBorrowedBooks
+     * @param <T>,                           type of reader
+     * @return specification which match every reader if all parameters are null
+     */
+    public static <T extends ReaderEntity> Specification<T> withParameters(Integer id, String name, String surname, LocalDate birthDate,
+                                                                           Integer numberOfCurrentlyBorrowedBooks, Integer numberOfEveryBorrowedBooks) {
+        return Specification.<T>where(hasAttribute("id", id))
+                .and(hasAttribute("name", name))
+                .and(hasAttribute("surname", surname))
+                .and(hasAttribute("birthDate", Optional.ofNullable(birthDate).map(Date::valueOf).orElse(null)))
+                .and(hasAttribute("numberOfCurrentlyBorrowedBooks", numberOfCurrentlyBorrowedBooks))
+                .and(hasAttribute("numberOfEveryBorrowedBooks", numberOfEveryBorrowedBooks));
+    }
+
+    public static Specification<ParentEntity> hasAddress(String address) {
+        return hasAttribute("address", address);
+    }
+
+    public static Specification<ParentEntity> hasPhoneNumber(String phoneNumber) {
+        return hasAttribute("phoneNumber", phoneNumber);
+    }
+
+    public static Specification<ChildEntity> hasParentId(Integer parentId) {
+        return Optional.ofNullable(parentId).isPresent() ? (root, query, builder) -> builder.equal(root.get("parent").get("id"), parentId) : null;
+    }
+
+    private static <T> Specification<T> hasAttribute(String attribute, Object value) {
+        return Optional.ofNullable(value).isPresent() ? (root, query, builder) -> builder.equal(root.get(attribute), value) : null;
+    }
+}
@@ -2,15 +2,23 @@
 
 import com.company.repository.models.entity.AuthorEntity;
 import com.company.repository.models.entity.BookEntity;
+import com.company.repository.models.projection.BookSummary;
 import com.company.repository.models.repository.AuthorRepository;
 import com.company.repository.models.repository.BookRepository;
+import com.company.repository.models.repository.BulkAuthorsRepository;
 import com.company.service.exceptions.AuthorHaveBooksException;
 import com.company.service.exceptions.AuthorNotFoundException;
 import com.company.service.exceptions.AuthorWithGivenNameAndSurnameExistsException;
+import com.company.service.exceptions.InvalidPageTokenException;
+import com.company.service.pagination.KeysetPage;
+import com.company.service.pagination.PageTokens;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import javax.transaction.Transactional;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,6 +31,7 @@ public class AuthorService {
 
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
+    private final BulkAuthorsRepository bulkAuthorsRepository;
 
     /**
      * Method to add new author to database
@@ -32,8 +41,7 @@ public class AuthorService {
      * @throws AuthorWithGivenNameAndSurnameExistsException, if author with given name and surname exists in database
      */
     public AuthorEntity addAuthor(AuthorEntity author) throws AuthorWithGivenNameAndSurnameExistsException {
-        List<AuthorEntity> authorsWithGivenData = findAuthors(null, author.getName(), author.getSurname());
-        if (!authorsWithGivenData.isEmpty()) {
+        if (authorRepository.findAuthorEntitiesByNameAndSurname(author.getName(), author.getSurname()).isPresent()) {
             throw new AuthorWithGivenNameAndSurnameExistsException(AUTHOR_WITH_GIVEN_DATA_ALREADY_EXISTS);
         }
         author.setId(null);
@@ -41,6 +49,23 @@ public AuthorEntity addAuthor(AuthorEntity author) throws AuthorWithGivenNameAnd
         return author;
     }
 
+    /**
+     * Method to add many authors at once, author with name and surname which already exists in database is skipped
+     *
+     * @param authors
+     * @return number of added authors
+     */
+    @Transactional
+    public int importAuthors(List<AuthorEntity> authors) {
+        List<AuthorEntity> authorsToImport = authors.stream()
+                .filter(author -> Objects.nonNull(author.getName()) && Objects.nonNull(author.getSurname()))
+                .collect(Collectors.toList());
+        if (authorsToImport.isEmpty()) {
+            return 0;
+        }
+        return bulkAuthorsRepository.insertIgnoringDuplicates(authorsToImport);
+    }
+
 
     /**
      * Method to get all authors from database
@@ -51,6 +76,20 @@ public List<AuthorEntity> findAllAuthors() {
         return authorRepository.findAll();
     }
 
+    /**
+     * Method to get single page of authors ordered by id, next page starts directly after last id from previous page
+     *
+     * @param pageToken, continuation token from previous page, or null for first page
+     * @param size,      number of authors on page
+     * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
+     */
+    public KeysetPage<AuthorEntity> findAllAuthors(String pageToken, int size) throws InvalidPageTokenException {
+        Integer lastId = PageTokens.decodeId(pageToken);
+        List<AuthorEntity> authors = authorRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, size + 1));
+        return KeysetPage.of(authors, size, author -> PageTokens.encode(author.getId()));
+    }
+
     /**
      * Method to find multiple authors with given parameters
      *
@@ -81,13 +120,15 @@ public AuthorEntity editAuthor(AuthorEntity authorWithNewData) throws AuthorNotF
                 () -> new AuthorNotFoundException(NOT_FOUND_AUTHOR));
         AuthorEntity author = findAuthorById(authorWithNewData.getId());
 
-        List<AuthorEntity> authorsWithGivenData = findAuthors(null, authorWithNewData.getName(), authorWithNewData.getSurname());
-        if (!authorsWithGivenData.isEmpty()) {
+        String name = Optional.ofNullable(authorWithNewData.getName()).orElse(author.getName());
+        String surname = Optional.ofNullable(authorWithNewData.getSurname()).orElse(author.getSurname());
+        Optional<AuthorEntity> authorWithGivenData = authorRepository.findAuthorEntitiesByNameAndSurname(name, surname);
+        if (authorWithGivenData.isPresent() && !authorWithGivenData.get().getId().equals(author.getId())) {
             throw new AuthorWithGivenNameAndSurnameExistsException(AUTHOR_WITH_GIVEN_DATA_ALREADY_EXISTS);
         }
 
-        Optional.ofNullable(authorWithNewData.getName()).ifPresent(author::setName);
-        Optional.ofNullable(authorWithNewData.getSurname()).ifPresent(author::setSurname);
+        author.setName(name);
+        author.setSurname(surname);
 
         authorRepository.save(author);
         return author;
@@ -109,15 +150,14 @@ public void deleteAuthor(Integer id) throws AuthorNotFoundException, AuthorHaveB
     }
 
     /**
-     * Method to check is  author wrote books
+     * Method to check is  author wrote books, only id, title and author of every book are read, without loading whole book entities
      *
      * @param id, of author whose you want to check
-     * @return list of book which author wrote or null if author didn't wrote any book
+     * @return list of books which author wrote, ordered by id, empty if author didn't wrote any book
      */
-    public List<BookEntity> findAllBooksOfGivenAuthor(Integer id) throws AuthorNotFoundException {
-        AuthorEntity author = findAuthorById(id);
-        List<BookEntity> books = bookRepository.findAllByAuthor(author);
-        return books;
+    public List<BookSummary> findAllBooksOfGivenAuthor(Integer id) throws AuthorNotFoundException {
+        findAuthorById(id);
+        return bookRepository.findSummariesByAuthorId(id);
     }
 
     /**
@@ -3,16 +3,28 @@
 import com.company.repository.models.entity.AuthorEntity;
 import com.company.repository.models.entity.BookEntity;
 import com.company.repository.models.entity.LoanEntity;
+import com.company.repository.models.projection.BookAvailability;
 import com.company.repository.models.repository.BookRepository;
 import com.company.repository.models.repository.LoansRepository;
+import com.company.repository.models.specification.BookSpecifications;
 import com.company.service.exceptions.AuthorNotFoundException;
 import com.company.service.exceptions.BookIsCurrentlyBorrowedException;
 import com.company.service.exceptions.BookNotFoundException;
+import com.company.service.exceptions.BookQuantityLowerThanBorrowedCopiesException;
+import com.company.service.exceptions.InvalidPageTokenException;
+import com.company.service.exceptions.TooManyBooksInRequestException;
+import com.company.service.pagination.KeysetPage;
+import com.company.service.pagination.PageTokens;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,10 +39,15 @@ public class BookService {
     public static final String NOT_FOUND_BOOK_WITH_GIVEN_ID = "Not found book with given id!";
     public static final String NOT_FOUND_AUTHOR = "Not found author!";
     public static final String BOOK_IS_CURRENTLY_BORROWED = "Book is currently borrowed ";
+    public static final String QUANTITY_LOWER_THAN_BORROWED_COPIES = "Quantity of book can't be lower than number of currently borrowed copies";
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BOOKS_IN_AVAILABILITY_REQUEST = 100;
+    public static final String TOO_MANY_BOOKS_IN_AVAILABILITY_REQUEST = "Too many books in single request, limit is " + MAX_BOOKS_IN_AVAILABILITY_REQUEST;
 
 
     /**
-     * Method to add given book to database
+     * Method to add given book to database, all copies of new book are available, available copies are set by database and read
+     * after insert
      *
      * @param book
      * @return
@@ -40,7 +57,9 @@ public BookEntity addBook(BookEntity book) throws AuthorNotFoundException {
         Optional.ofNullable(book.getAuthor()).orElseThrow(() -> new AuthorNotFoundException(NOT_FOUND_AUTHOR));
         authorService.findAuthorById(book.getAuthor().getId());
         book.setId(null);
-        bookRepository.save(book);
+        book.setAvailability(null);
+        bookRepository.saveAndFlush(book);
+        book.setAvailability(bookRepository.getAvailability(book.getId()));
         return book;
     }
 
@@ -60,18 +79,42 @@ public BookEntity findBookById(Integer id) throws BookNotFoundException {
     }
 
     /**
-     * Method to check if book is currently borrowed, remove book from book table, and loan table
+     * Method to get reference to book with given id without loading it, should be used only if book is known to exist
+     *
+     * @param id
+     * @return
+     */
+    public BookEntity getBookReference(Integer id) {
+        return bookRepository.getReferenceById(id);
+    }
+
+    /**
+     * Method to check if book is currently borrowed, remove book from book table, and loan table, loans are deleted by one statement
+     * which also subtracts them from counters of their readers
      *
      * @param bookId
+     * @return number of deleted loans
      * @throws BookNotFoundException,            if book with given id doesn't exists
      * @throws BookIsCurrentlyBorrowedException, if any reader currently borrowed a book
      */
     @Transactional
-    public void deleteBook(Integer bookId) throws BookNotFoundException, BookIsCurrentlyBorrowedException {
+    public int deleteBook(Integer bookId) throws BookNotFoundException, BookIsCurrentlyBorrowedException {
+        checkBookCanBeDeleted(bookId);
+        int deletedLoans = loansRepository.deleteAllByBookId(bookId);
+        bookRepository.deleteById(bookId);
+        return deletedLoans;
+    }
+
+    /**
+     * Method to check if book with given id exists and isn't currently borrowed
+     *
+     * @param bookId
+     * @throws BookNotFoundException,            if book with given id doesn't exists
+     * @throws BookIsCurrentlyBorrowedException, if any reader currently borrowed a book
+     */
+    public void checkBookCanBeDeleted(Integer bookId) throws BookNotFoundException, BookIsCurrentlyBorrowedException {
         BookEntity bookEntity = findBookById(bookId);
         isBookCurrentlyBorrowed(bookEntity);
-        loansRepository.deleteAllByBook(bookEntity);
-        bookRepository.deleteById(bookId);
     }
 
     /**
@@ -83,16 +126,35 @@ public List<BookEntity> findAllBooks() {
         return bookRepository.findAll();
     }
 
+    /**
+     * Method to get single page of books ordered by id, next page starts directly after last id from previous page
+     *
+     * @param pageToken, continuation token from previous page, or null for first page
+     * @param size,      number of books on page
+     * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
+     */
+    public KeysetPage<BookEntity> findAllBooks(String pageToken, int size) throws InvalidPageTokenException {
+        Integer lastId = PageTokens.decodeId(pageToken);
+        List<BookEntity> books = bookRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, size + 1));
+        return KeysetPage.of(books, size, book -> PageTokens.encode(book.getId()));
+    }
+
 
     /**
-     * Method to edit book
+     * Method to edit book, available quantity can't be edited directly, it is changed together with quantity. Available copies are
+     * changed first by single conditional update, so quantity can't be lowered below number of currently borrowed copies, even when
+     * copies are borrowed at the same time
      *
      * @param bookWithNewParameters, body with id of book which should be edited, and values which should be edited
      * @return
-     * @throws BookNotFoundException,   if given book id is incorrect
-     * @throws AuthorNotFoundException, if given author is incorrect
+     * @throws BookNotFoundException,                       if given book id is incorrect
+     * @throws AuthorNotFoundException,                     if given author is incorrect
+     * @throws BookQuantityLowerThanBorrowedCopiesException, if new quantity is lower than number of currently borrowed copies
      */
-    public BookEntity editBook(BookEntity bookWithNewParameters) throws BookNotFoundException, AuthorNotFoundException {
+    @Transactional
+    public BookEntity editBook(BookEntity bookWithNewParameters) throws BookNotFoundException, AuthorNotFoundException,
+            BookQuantityLowerThanBorrowedCopiesException {
         Optional.ofNullable(bookWithNewParameters.getId()).orElseThrow(
                 () -> new BookNotFoundException(NOT_FOUND_BOOK_WITH_GIVEN_ID));
         BookEntity bookEntity = findBookById(bookWithNewParameters.getId());
@@ -101,38 +163,104 @@ public BookEntity editBook(BookEntity bookWithNewParameters) throws BookNotFound
             author = authorService.findAuthorById(bookWithNewParameters.getAuthor().getId());
         }
         AuthorEntity finalAuthor = author;
+        Integer oldQuantity = bookEntity.getQuantity();
+        Integer newQuantity = Optional.ofNullable(bookWithNewParameters.getQuantity()).orElse(oldQuantity);
+        if (!newQuantity.equals(oldQuantity) && bookRepository.changeAvailableCopies(bookEntity.getId(), newQuantity - oldQuantity) == 0) {
+            throw new BookQuantityLowerThanBorrowedCopiesException(QUANTITY_LOWER_THAN_BORROWED_COPIES);
+        }
 
         Optional.ofNullable(bookWithNewParameters.getTitle()).ifPresent(bookEntity::setTitle);
         Optional.ofNullable(bookWithNewParameters.getAuthor()).ifPresent(authorId -> {
             bookEntity.setAuthor(finalAuthor);
         });
-        Optional.ofNullable(bookWithNewParameters.getQuantity()).ifPresent(bookEntity::setQuantity);
-        Optional.ofNullable(bookWithNewParameters.getQuantityAvailable()).ifPresent(bookEntity::setQuantityAvailable);
+        bookEntity.setQuantity(newQuantity);
 
         bookRepository.save(bookEntity);
         return bookEntity;
     }
 
+    /**
+     * Method to find number of available copies of every given book by one query, availability isn't read together with book
+     * summaries, so lists of books ask for it only when it's needed
+     *
+     * @param bookIds
+     * @return number of available copies by id of book, books which don't exist are skipped
+     * @throws TooManyBooksInRequestException, if more than MAX_BOOKS_IN_AVAILABILITY_REQUEST books are given
+     */
+    public Map<Integer, Integer> findAvailability(Collection<Integer> bookIds) throws TooManyBooksInRequestException {
+        if (bookIds.size() > MAX_BOOKS_IN_AVAILABILITY_REQUEST) {
+            throw new TooManyBooksInRequestException(TOO_MANY_BOOKS_IN_AVAILABILITY_REQUEST);
+        }
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        return bookRepository.findAvailability(new HashSet<>(bookIds))
+                .stream()
+                .collect(Collectors.toMap(BookAvailability::getBookId, BookAvailability::getQuantityAvailable));
+    }
+
+    /**
+     * Method to reserve single copy of given book, copy is reserved only if any copy is available
+     *
+     * @param book
+     * @return true if copy was reserved, false if book is not available
+     */
+    public boolean reserveCopy(BookEntity book) {
+        return bookRepository.reserveCopy(book.getId()) == 1;
+    }
+
+    /**
+     * Method to reserve single copy of every given book by one statement, book without available copies is skipped
+     *
+     * @param bookIds
+     * @return ids of books which copy was reserved
+     */
+    public List<Integer> reserveCopies(Collection<Integer> bookIds) {
+        return bookRepository.reserveCopies(bookIds);
+    }
+
+    /**
+     * Method to give back single copy of given book to library
+     *
+     * @param book
+     */
+    public void releaseCopy(BookEntity book) {
+        bookRepository.releaseCopy(book.getId());
+    }
+
+    /**
+     * Method to return single copy of every given book to library, should be called in the same transaction in which loans are returned
+     *
+     * @param bookIds, books which were returned
+     */
+    public void releaseCopies(Collection<Integer> bookIds) {
+        bookRepository.releaseCopies(bookIds);
+    }
+
 
     /**
-     * Method to check which parameters are present, and find books with given parameters
+     * Method to check which parameters are present, and find page of books with given parameters ordered by id, filtering is done by
+     * database. Next page starts directly after last id from previous page and matching books aren't counted, so every page is read
+     * by single limited query
      *
      * @param id
      * @param title
      * @param authorId
      * @param quantity
      * @param quantityAvailable
+     * @param pageToken,        continuation token from previous page, or null for first page
+     * @param size,             size of page, limited to MAX_PAGE_SIZE
      * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
      */
-    public List<BookEntity> findBookByParameters(Integer id, String title, Integer authorId, Integer quantity, Integer quantityAvailable) {
-        List<BookEntity> books = findAllBooks();
-        return books.stream()
-                .filter(book -> Optional.ofNullable(id).isPresent() ? book.getId().equals(id) : true)
-                .filter(book -> Optional.ofNullable(title).isPresent() ? book.getTitle().equals(title) : true)
-                .filter(book -> Optional.ofNullable(authorId).isPresent() ? book.getAuthor().equals(authorId) : true)
-                .filter(book -> Optional.ofNullable(quantity).isPresent() ? book.getQuantity().equals(quantity) : true)
-                .filter(book -> Optional.ofNullable(quantityAvailable).isPresent() ? book.getQuantityAvailable().equals(quantityAvailable) : true)
-                .collect(Collectors.toList());
+    public KeysetPage<BookEntity> findBookByParameters(Integer id, String title, Integer authorId, Integer quantity, Integer quantityAvailable,
+                                                       String pageToken, int size) throws InvalidPageTokenException {
+        Integer lastId = PageTokens.decodeId(pageToken);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Specification<BookEntity> specification = BookSpecifications.withParameters(id, title, authorId, quantity, quantityAvailable)
+                .and(BookSpecifications.hasIdGreaterThan(lastId));
+        List<BookEntity> books = bookRepository.findAllOrderedById(specification, pageSize + 1);
+        return KeysetPage.of(books, pageSize, book -> PageTokens.encode(book.getId()));
     }
 
     private void isBookCurrentlyBorrowed(BookEntity book) throws BookIsCurrentlyBorrowedException {
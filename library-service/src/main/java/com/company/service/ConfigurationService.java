@@ -10,16 +10,18 @@
 public class ConfigurationService {
 
     private final ConfigurationRepository configurationRepository;
+    private final LendingRulesCache lendingRulesCache;
     public static final String INCORRECT_VALUE = "Incorrect value";
 
     /**
-     * Method to edit value of maximum days which reader can have a book
+     * Method to edit value of maximum days which reader can have a book, due dates of open loans are moved to match new value
      * @param maxNumberOfDaysToBorrowABook
      * @throws ConfigurationValueIncorrectException, if given value is incorrect
      */
     public void editNumberOfDaysToBorrowABook(Integer maxNumberOfDaysToBorrowABook) throws ConfigurationValueIncorrectException {
         checkConfigurationValue(maxNumberOfDaysToBorrowABook);
         configurationRepository.editNumberOfDaysToBorrowABook(maxNumberOfDaysToBorrowABook);
+        lendingRulesCache.reload();
     }
 
     /**
@@ -30,6 +32,7 @@ public void editNumberOfDaysToBorrowABook(Integer maxNumberOfDaysToBorrowABook)
     public void editNumberOfBorrowedBooks(Integer maxNumberOfBorrowedBooks) throws ConfigurationValueIncorrectException {
         checkConfigurationValue(maxNumberOfBorrowedBooks);
         configurationRepository.editNumberOfBorrowedBooks(maxNumberOfBorrowedBooks);
+        lendingRulesCache.reload();
     }
 
     /**
@@ -40,6 +43,7 @@ public void editNumberOfBorrowedBooks(Integer maxNumberOfBorrowedBooks) throws C
     public void editMinAgeToBorrowABook(Integer minAgeToBorrowABook) throws ConfigurationValueIncorrectException {
         checkConfigurationValue(minAgeToBorrowABook);
         configurationRepository.editMinAgeToBorrowABook(minAgeToBorrowABook);
+        lendingRulesCache.reload();
     }
 
     /**
@@ -47,7 +51,7 @@ public void editMinAgeToBorrowABook(Integer minAgeToBorrowABook) throws Configur
      * @return
      */
     public int getMaxNumberOfBorrowedBooks() {
-        return configurationRepository.getMaxNumberOfBorrowedBooks();
+        return lendingRulesCache.getLendingRules().getMaxNumberOfBorrowedBooks();
     }
 
     /**
@@ -55,7 +59,7 @@ public int getMaxNumberOfBorrowedBooks() {
      * @return
      */
     public int getMaxNumberOfDaysToBorrowABook() {
-        return configurationRepository.getMaxNumberOfDaysToBorrowABook();
+        return lendingRulesCache.getLendingRules().getMaxNumberOfDaysToBorrowABook();
     }
 
     /**
@@ -63,7 +67,7 @@ public int getMaxNumberOfDaysToBorrowABook() {
      * @return
      */
     public Integer getMinAgeToBorrowABook() {
-        return configurationRepository.getMinAgeToBorrowABook();
+        return lendingRulesCache.getLendingRules().getMinAgeToBorrowABook();
     }
 
     private void checkConfigurationValue(Integer value) throws ConfigurationValueIncorrectException {
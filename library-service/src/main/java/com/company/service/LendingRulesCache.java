@@ -0,0 +1,58 @@
+package com.company.service;
+
+import com.company.repository.models.configuration.LendingRules;
+import com.company.repository.models.repository.ConfigurationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RequiredArgsConstructor
+@Service
+public class LendingRulesCache {
+
+    private final ConfigurationRepository configurationRepository;
+    private final AtomicReference<LendingRules> lendingRules = new AtomicReference<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Method to get current lending rules, rules are loaded from database only if there is no snapshot in memory
+     *
+     * @return
+     */
+    public LendingRules getLendingRules() {
+        LendingRules rules = lendingRules.get();
+        if (rules == null) {
+            rules = load();
+        }
+        return rules;
+    }
+
+    /**
+     * Method to load lending rules from database and swap snapshot held in memory, should be called after rules are edited
+     *
+     * @return
+     */
+    public LendingRules reload() {
+        invalidate();
+        return load();
+    }
+
+    /**
+     * Method to drop snapshot held in memory, next call of getLendingRules loads rules from database
+     */
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        lendingRules.set(null);
+    }
+
+    private LendingRules load() {
+        long invalidationsBeforeLoad = invalidations.get();
+        LendingRules rules = configurationRepository.getLendingRules();
+        if (invalidations.get() == invalidationsBeforeLoad) {
+            lendingRules.compareAndSet(null, rules);
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,92 @@
+package com.company.service;
+
+import com.company.repository.models.repository.LoansRepository;
+import com.company.service.exceptions.BookIsCurrentlyBorrowedException;
+import com.company.service.exceptions.BookNotFoundException;
+import com.company.service.exceptions.ReaderHasCurrentlyBookOnLoanException;
+import com.company.service.exceptions.ReaderNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntUnaryOperator;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class LoanHistoryPurgeService {
+
+    private final LoansRepository loansRepository;
+    private final ReaderService readerService;
+    private final BookService bookService;
+
+    @Value("${library.loans.purge.chunk-size:10000}")
+    private int chunkSize;
+
+    /**
+     * Method to delete reader with long loans history in background. Reader is checked before any loan is deleted, then returned loans
+     * are deleted in chunks, every chunk in its own transaction, so single transaction doesn't hold locks of whole history. Reader is
+     * deleted at the end, if he still can be deleted, every deleted loan is already subtracted from his counters
+     *
+     * @param readerId
+     * @return number of deleted loans, or failed future if reader can't be deleted
+     */
+    @Async
+    public CompletableFuture<Integer> deleteReaderInChunks(Integer readerId) {
+        try {
+            readerService.checkReaderCanBeDeleted(readerId);
+        } catch (ReaderNotFoundException | ReaderHasCurrentlyBookOnLoanException e) {
+            log.warn("Reader {} was not deleted: {}", readerId, e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        int deletedLoans = deleteInChunks(limit -> loansRepository.deleteReturnedLoansOfReader(readerId, limit));
+        try {
+            deletedLoans += readerService.deleteReader(readerId);
+        } catch (ReaderNotFoundException | ReaderHasCurrentlyBookOnLoanException e) {
+            log.warn("Deleted {} loans of reader {}, but reader was not deleted: {}", deletedLoans, readerId, e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        log.info("Deleted reader {} with {} loans", readerId, deletedLoans);
+        return CompletableFuture.completedFuture(deletedLoans);
+    }
+
+    /**
+     * Method to delete book with long loans history in background. Book is checked before any loan is deleted, then returned loans
+     * are deleted in chunks, every chunk in its own transaction, so single transaction doesn't hold locks of whole history. Book is
+     * deleted at the end, if it still can be deleted, every deleted loan is already subtracted from counters of its reader
+     *
+     * @param bookId
+     * @return number of deleted loans, or failed future if book can't be deleted
+     */
+    @Async
+    public CompletableFuture<Integer> deleteBookInChunks(Integer bookId) {
+        try {
+            bookService.checkBookCanBeDeleted(bookId);
+        } catch (BookNotFoundException | BookIsCurrentlyBorrowedException e) {
+            log.warn("Book {} was not deleted: {}", bookId, e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        int deletedLoans = deleteInChunks(limit -> loansRepository.deleteReturnedLoansOfBook(bookId, limit));
+        try {
+            deletedLoans += bookService.deleteBook(bookId);
+        } catch (BookNotFoundException | BookIsCurrentlyBorrowedException e) {
+            log.warn("Deleted {} loans of book {}, but book was not deleted: {}", deletedLoans, bookId, e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+        log.info("Deleted book {} with {} loans", bookId, deletedLoans);
+        return CompletableFuture.completedFuture(deletedLoans);
+    }
+
+    private int deleteInChunks(IntUnaryOperator deleteChunk) {
+        int deletedLoans = 0;
+        int deletedInChunk;
+        do {
+            deletedInChunk = deleteChunk.applyAsInt(chunkSize);
+            deletedLoans += deletedInChunk;
+        } while (deletedInChunk == chunkSize);
+        return deletedLoans;
+    }
+}
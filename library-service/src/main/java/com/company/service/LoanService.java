@@ -3,14 +3,29 @@
 import com.company.repository.models.entity.BookEntity;
 import com.company.repository.models.entity.LoanEntity;
 import com.company.repository.models.entity.ReaderEntity;
+import com.company.repository.models.projection.BookBorrowStatus;
+import com.company.repository.models.repository.BulkLoansRepository;
 import com.company.repository.models.repository.LoansRepository;
 import com.company.service.exceptions.*;
+import com.company.service.loans.BookLoanStatus;
+import com.company.service.pagination.KeysetPage;
+import com.company.service.pagination.PageTokens;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
 import java.sql.Date;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @RequiredArgsConstructor
@@ -18,11 +33,21 @@
 public class LoanService {
     public static final String NOT_FOUND_LOAN_FOR_GIVEN_BOOK_AND_AUTHOR = "Not found loan for given book and author";
     private final LoansRepository loansRepository;
+    private final BulkLoansRepository bulkLoansRepository;
     private final ReaderService readerService;
     private final BookService bookService;
+    private final EntityManager entityManager;
 
     public static final String BOOK_IS_CURRENTLY_BORROWED = "Book is currently borrowed ";
     public static final String BOOK_IS_NOT_AVAILABLE = "Book is not available";
+    public static final String BOOK_WAS_RETURNED_TODAY = "Reader returned this book today, it can be borrowed again tomorrow";
+    private static final int NUMBER_OF_LOAN_KEYS = 3;
+    private static final int NUMBER_OF_OVERDUE_LOAN_KEYS = 3;
+    private static final Date FIRST_BORROW_DATE = new Date(0);
+    private static final Date FIRST_DUE_DATE = new Date(0);
+    private static final int EXPORTED_LOANS_BETWEEN_CLEARS = 1000;
+    public static final int MAX_BOOKS_PER_REQUEST = 100;
+    public static final String TOO_MANY_BOOKS_IN_REQUEST = "Too many books in single request, limit is " + MAX_BOOKS_PER_REQUEST;
 
 
     /**
@@ -35,8 +60,12 @@ public class LoanService {
      * @throws BookNotFoundException,   if given book id is incorrect
      * @throws LoanNotFoundException,   if reader didn't borrow book
      */
+    @Retryable(value = PessimisticLockingFailureException.class,
+            maxAttemptsExpression = "${library.loans.retry.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${library.loans.retry.delay:20}", multiplier = 2))
+    @Transactional
     public LoanEntity returnBook(Integer readerId, Integer bookId) throws ReaderNotFoundException, BookNotFoundException, LoanNotFoundException {
-        ReaderEntity reader = readerService.findReaderById(readerId);
+        ReaderEntity reader = readerService.findReaderByIdForUpdate(readerId);
         BookEntity book = bookService.findBookById(bookId);
         List<LoanEntity> existedLoan = loansRepository.findAllByReaderAndBookAndReturnedDate(reader, book, null);
         if (existedLoan.size() != 1) {
@@ -46,6 +75,8 @@ public LoanEntity returnBook(Integer readerId, Integer bookId) throws ReaderNotF
         LocalDate returnDate = LocalDate.now();
         loan.setReturnedDate(Date.valueOf(returnDate));
         loansRepository.save(loan);
+        bookService.releaseCopy(book);
+        readerService.registerReturnedBook(reader);
         return loan;
     }
 
@@ -58,6 +89,81 @@ public List<LoanEntity> findAll() {
         return loansRepository.findAll();
     }
 
+    /**
+     * Method to get single page of loans ordered by book, reader and borrow date, next page starts directly after key of last loan
+     * from previous page
+     *
+     * @param pageToken, continuation token from previous page, or null for first page
+     * @param size,      number of loans on page
+     * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
+     */
+    public KeysetPage<LoanEntity> findAll(String pageToken, int size) throws InvalidPageTokenException {
+        Integer lastBookId = 0;
+        Integer lastReaderId = 0;
+        Date lastBorrowDate = FIRST_BORROW_DATE;
+        if (Optional.ofNullable(pageToken).isPresent()) {
+            String[] keys = PageTokens.decode(pageToken, NUMBER_OF_LOAN_KEYS);
+            try {
+                lastBookId = Integer.valueOf(keys[0]);
+                lastReaderId = Integer.valueOf(keys[1]);
+                lastBorrowDate = Date.valueOf(keys[2]);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidPageTokenException(PageTokens.INVALID_PAGE_TOKEN);
+            }
+        }
+        List<LoanEntity> loans = loansRepository.findAllAfter(lastBookId, lastReaderId, lastBorrowDate, PageRequest.of(0, size + 1));
+        return KeysetPage.of(loans, size, loan -> PageTokens.encode(loan.getBook().getId(), loan.getReader().getId(), loan.getBorrowDate()));
+    }
+
+    /**
+     * Method to get single page of loans which should already be returned, ordered by due date, reader and book. Only open loans are
+     * read, by index of due date, so time of query depends on number of overdue loans and not on size of loans history
+     *
+     * @param pageToken, continuation token from previous page, or null for first page
+     * @param size,      number of loans on page
+     * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
+     */
+    public KeysetPage<LoanEntity> findOverdue(String pageToken, int size) throws InvalidPageTokenException {
+        Date lastDueDate = FIRST_DUE_DATE;
+        Integer lastReaderId = 0;
+        Integer lastBookId = 0;
+        if (Optional.ofNullable(pageToken).isPresent()) {
+            String[] keys = PageTokens.decode(pageToken, NUMBER_OF_OVERDUE_LOAN_KEYS);
+            try {
+                lastDueDate = Date.valueOf(keys[0]);
+                lastReaderId = Integer.valueOf(keys[1]);
+                lastBookId = Integer.valueOf(keys[2]);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidPageTokenException(PageTokens.INVALID_PAGE_TOKEN);
+            }
+        }
+        List<LoanEntity> loans = loansRepository.findOverdueLoansAfter(Date.valueOf(LocalDate.now()), lastDueDate, lastReaderId, lastBookId,
+                PageRequest.of(0, size + 1));
+        return KeysetPage.of(loans, size, loan -> PageTokens.encode(loan.getDueDate(), loan.getReader().getId(), loan.getBook().getId()));
+    }
+
+    /**
+     * Method to pass every loan to given consumer one by one. Loans are read by forward-only cursor, and persistence context is cleared
+     * periodically, so memory used by export doesn't depend on number of loans
+     *
+     * @param consumer, which should write loan, called in transaction so lazy relations of loan can be read
+     */
+    @Transactional
+    public void exportAll(Consumer<LoanEntity> consumer) {
+        try (Stream<LoanEntity> loans = loansRepository.streamAll()) {
+            Iterator<LoanEntity> iterator = loans.iterator();
+            int exportedLoans = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                if (++exportedLoans % EXPORTED_LOANS_BETWEEN_CLEARS == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     /**
      * Method to find all loans for given reader
      *
@@ -83,7 +189,9 @@ public List<LoanEntity> findLoansByBookId(Integer bookId) throws BookNotFoundExc
     }
 
     /**
-     * Method to borrow a single book
+     * Method to borrow a single book. Every rule is checked by single query which locks reader row for the time of transaction, and copy
+     * of book is reserved by single conditional update, so parallel requests can't lend more copies than library has.
+     * Transaction is retried if it lost on lock
      *
      * @param bookId,   book which should be borrowed
      * @param readerId, who want to borrow a book
@@ -95,34 +203,161 @@ public List<LoanEntity> findLoansByBookId(Integer bookId) throws BookNotFoundExc
      * @throws ReaderHaveTooMuchBooksException,      if reader can't borrow a book because have currently borrowed too many books
      * @throws BookNotAvailableException,            if book doesn't available in library
      * @throws ReaderCurrentlyHaveThisBookException, if reader have currently borrowed given book
+     * @throws ReaderReturnedThisBookTodayException,  if reader borrowed and returned given book today
      */
+    @Retryable(value = PessimisticLockingFailureException.class,
+            maxAttemptsExpression = "${library.loans.retry.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${library.loans.retry.delay:20}", multiplier = 2))
+    @Transactional
     public LoanEntity borrowBook(Integer bookId, Integer readerId) throws ReaderNotFoundException, BookNotFoundException,
-            ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, BookNotAvailableException, ReaderCurrentlyHaveThisBookException {
-        ReaderEntity reader = readerService.findReaderById(readerId);
-        BookEntity book = bookService.findBookById(bookId);
-
-        readerService.isReaderCanBorrowABook(readerId);
-        boolean isReaderHasBook = isReaderHasABook(reader, book);
-        if (isReaderHasBook) {
-            throw new ReaderCurrentlyHaveThisBookException(BOOK_IS_CURRENTLY_BORROWED);
+            ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, BookNotAvailableException, ReaderCurrentlyHaveThisBookException,
+            ReaderReturnedThisBookTodayException {
+        ReaderEntity reader = readerService.checkReaderCanBorrowABook(readerId, bookId);
+        if (loansRepository.existsReturnedLoanBorrowedOn(bookId, readerId, Date.valueOf(LocalDate.now()))) {
+            throw new ReaderReturnedThisBookTodayException(BOOK_WAS_RETURNED_TODAY);
         }
-        if (book.getQuantityAvailable() <= 0) {
+        BookEntity book = bookService.getBookReference(bookId);
+        if (!bookService.reserveCopy(book)) {
             throw new BookNotAvailableException(BOOK_IS_NOT_AVAILABLE);
         }
 
         return addNewLoanIntoTable(book, reader);
     }
 
-    private boolean isReaderHasABook(ReaderEntity reader, BookEntity book) {
-        return !loansRepository.findAllByReaderAndBookAndReturnedDate(reader, book, null).isEmpty();
+    /**
+     * Method to borrow many books by single reader. Rules of reader are checked once, while his row is locked for the time of transaction,
+     * copies of books are reserved by single update per round and loans are inserted by single batch. Book which can't be borrowed doesn't
+     * stop others, reason is reported in its status. Books are taken in given order until reader reaches limit of borrowed books, slot of
+     * book without available copy is given to next book in next round
+     *
+     * @param readerId, who want to borrow books
+     * @param bookIds,  books which should be borrowed
+     * @return status of every given book, in given order
+     * @throws ReaderNotFoundException,         if given reader doesn't exist
+     * @throws ReaderTooYoungException,         if reader can't borrow a book because is too young
+     * @throws ReaderHaveBooksTooLongException, if reader can't borrow a book because have any book too long
+     * @throws ReaderHaveTooMuchBooksException, if reader can't borrow any more books
+     * @throws TooManyBooksInRequestException,  if more than MAX_BOOKS_PER_REQUEST books are given
+     */
+    @Retryable(value = PessimisticLockingFailureException.class,
+            maxAttemptsExpression = "${library.loans.retry.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${library.loans.retry.delay:20}", multiplier = 2))
+    @Transactional
+    public List<BookLoanStatus> borrowBooks(Integer readerId, List<Integer> bookIds) throws ReaderNotFoundException, ReaderTooYoungException,
+            ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, TooManyBooksInRequestException {
+        checkNumberOfBooksInRequest(bookIds);
+        int booksLeft = readerService.checkReaderCanBorrowBooks(readerId);
+        LocalDate borrowDate = LocalDate.now();
+        Map<Integer, BookBorrowStatus> borrowStatuses = bookIds.isEmpty() ? Map.of()
+                : loansRepository.findBorrowStatuses(readerId, new HashSet<>(bookIds), Date.valueOf(borrowDate))
+                .stream()
+                .collect(Collectors.toMap(BookBorrowStatus::getBookId, Function.identity()));
+
+        Map<Integer, BookLoanStatus.Status> statuses = new HashMap<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            if (statuses.containsKey(bookId)) {
+                continue;
+            }
+            if (!borrowStatuses.containsKey(bookId)) {
+                statuses.put(bookId, BookLoanStatus.Status.BOOK_NOT_FOUND);
+            } else if (borrowStatuses.get(bookId).getReaderHasBook()) {
+                statuses.put(bookId, BookLoanStatus.Status.READER_CURRENTLY_HAVE_THIS_BOOK);
+            } else if (borrowStatuses.get(bookId).getReaderReturnedBookToday()) {
+                statuses.put(bookId, BookLoanStatus.Status.READER_RETURNED_THIS_BOOK_TODAY);
+            } else {
+                candidates.add(bookId);
+                statuses.put(bookId, BookLoanStatus.Status.READER_HAVE_TOO_MUCH_BOOKS);
+            }
+        }
+
+        List<Integer> reserved = reserveCopies(candidates, booksLeft, statuses);
+        if (!reserved.isEmpty()) {
+            bulkLoansRepository.insertLoans(readerId, reserved, Date.valueOf(borrowDate));
+            readerService.registerBorrowedBooks(readerId, reserved.size());
+        }
+        return toStatuses(bookIds, statuses);
+    }
+
+    /**
+     * Method to return many books by single reader. Open loans of all books are closed by single update and copies are given back by
+     * single update, book which reader doesn't have is reported in its status
+     *
+     * @param readerId, who returns books
+     * @param bookIds,  books which are returned
+     * @return status of every given book, in given order
+     * @throws ReaderNotFoundException,        if given reader doesn't exist
+     * @throws TooManyBooksInRequestException, if more than MAX_BOOKS_PER_REQUEST books are given
+     */
+    @Retryable(value = PessimisticLockingFailureException.class,
+            maxAttemptsExpression = "${library.loans.retry.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${library.loans.retry.delay:20}", multiplier = 2))
+    @Transactional
+    public List<BookLoanStatus> returnBooks(Integer readerId, List<Integer> bookIds) throws ReaderNotFoundException, TooManyBooksInRequestException {
+        checkNumberOfBooksInRequest(bookIds);
+        readerService.findReaderByIdForUpdate(readerId);
+        Map<Integer, BookLoanStatus.Status> statuses = new HashMap<>();
+        bookIds.forEach(bookId -> statuses.put(bookId, BookLoanStatus.Status.LOAN_NOT_FOUND));
+
+        List<Integer> returned = bookIds.isEmpty() ? List.of()
+                : bulkLoansRepository.closeOpenLoans(readerId, statuses.keySet(), Date.valueOf(LocalDate.now()));
+        if (!returned.isEmpty()) {
+            bookService.releaseCopies(returned);
+            readerService.registerReturnedBooks(readerId, returned.size());
+            returned.forEach(bookId -> statuses.put(bookId, BookLoanStatus.Status.RETURNED));
+        }
+        return toStatuses(bookIds, statuses);
+    }
+
+    /**
+     * Method to reserve copies of candidates in given order, until given number of copies is reserved or candidates run out. Every round
+     * reserves by single update as many candidates as slots are still free, so book without available copy doesn't take slot of next book
+     *
+     * @param candidates, books which reader can borrow, in given order
+     * @param booksLeft,  number of books which reader can still borrow
+     * @param statuses,   where BORROWED or BOOK_NOT_AVAILABLE is put for every tried candidate
+     * @return ids of books which copy was reserved, in order of candidates
+     */
+    private List<Integer> reserveCopies(List<Integer> candidates, int booksLeft, Map<Integer, BookLoanStatus.Status> statuses) {
+        List<Integer> reserved = new ArrayList<>();
+        int tried = 0;
+        while (reserved.size() < booksLeft && tried < candidates.size()) {
+            List<Integer> round = List.copyOf(candidates.subList(tried, Math.min(candidates.size(), tried + booksLeft - reserved.size())));
+            tried += round.size();
+            Set<Integer> reservedInRound = new HashSet<>(bookService.reserveCopies(round));
+            for (Integer bookId : round) {
+                if (reservedInRound.contains(bookId)) {
+                    reserved.add(bookId);
+                    statuses.put(bookId, BookLoanStatus.Status.BORROWED);
+                } else {
+                    statuses.put(bookId, BookLoanStatus.Status.BOOK_NOT_AVAILABLE);
+                }
+            }
+        }
+        return reserved;
+    }
+
+    private void checkNumberOfBooksInRequest(List<Integer> bookIds) throws TooManyBooksInRequestException {
+        if (bookIds.size() > MAX_BOOKS_PER_REQUEST) {
+            throw new TooManyBooksInRequestException(TOO_MANY_BOOKS_IN_REQUEST);
+        }
+    }
+
+    private List<BookLoanStatus> toStatuses(List<Integer> bookIds, Map<Integer, BookLoanStatus.Status> statuses) {
+        Set<Integer> reported = new HashSet<>();
+        return bookIds.stream()
+                .map(bookId -> new BookLoanStatus(bookId, reported.add(bookId) ? statuses.get(bookId) : BookLoanStatus.Status.DUPLICATED))
+                .collect(Collectors.toList());
     }
 
     private LoanEntity addNewLoanIntoTable(BookEntity book, ReaderEntity reader) {
         LoanEntity loanEntity = new LoanEntity();
         loanEntity.setBook(book);
         loanEntity.setReader(reader);
-        loanEntity.setBorrowDate(Date.valueOf(LocalDate.now()));
-        loansRepository.save(loanEntity);
+        Date borrowDate = Date.valueOf(LocalDate.now());
+        loanEntity.setBorrowDate(borrowDate);
+        loanEntity.setDueDate(bulkLoansRepository.insertLoan(book.getId(), reader.getId(), borrowDate));
+        readerService.registerBorrowedBook(reader);
         return loanEntity;
     }
 
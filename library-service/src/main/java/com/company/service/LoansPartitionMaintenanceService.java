@@ -0,0 +1,56 @@
+package com.company.service;
+
+import com.company.repository.models.repository.LoansPartitionsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class LoansPartitionMaintenanceService {
+
+    private final LoansPartitionsRepository loansPartitionsRepository;
+
+    @Value("${library.loans.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${library.loans.partitions.archive-after-months:0}")
+    private int archiveAfterMonths;
+
+    /**
+     * Method to create partitions for loans returned in current and next months, so returning a book never waits for partition.
+     * If library.loans.partitions.archive-after-months is positive, partitions of loans returned earlier are detached from loans
+     * table and stay as standalone tables which can be dumped and dropped
+     *
+     * @return names of detached partitions
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${library.loans.partitions.cron:0 30 2 * * *}")
+    @Transactional
+    public List<String> maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        int created = loansPartitionsRepository.createHistoryPartitions(Date.valueOf(today), Date.valueOf(today.plusMonths(monthsAhead)));
+        if (created > 0) {
+            log.info("Created {} partitions of returned loans", created);
+        }
+        if (archiveAfterMonths <= 0) {
+            return List.of();
+        }
+        LocalDate archiveBefore = today.withDayOfMonth(1).minusMonths(archiveAfterMonths);
+        List<String> detached = loansPartitionsRepository.detachHistoryPartitions(Date.valueOf(archiveBefore));
+        if (!detached.isEmpty()) {
+            log.info("Detached {} partitions of loans returned before {}: {}", detached.size(), archiveBefore, detached);
+        }
+        return detached;
+    }
+}
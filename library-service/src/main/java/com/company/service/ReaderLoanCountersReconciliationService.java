@@ -0,0 +1,43 @@
+package com.company.service;
+
+import com.company.repository.models.repository.ReaderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ReaderLoanCountersReconciliationService {
+
+    private final ReaderRepository readerRepository;
+
+    @Value("${library.reconciliation.reader-loan-counters.repair:false}")
+    private boolean repairIncorrectCounters;
+
+    /**
+     * Method to compare loan counters of every reader with loans table, loans of detached partitions are counted by archived loans
+     * of reader. Readers with incorrect counters are logged, and recalculated if library.reconciliation.reader-loan-counters.repair is enabled
+     *
+     * @return ids of readers which had incorrect counters
+     */
+    @Scheduled(cron = "${library.reconciliation.reader-loan-counters.cron:0 0 3 * * *}")
+    @Transactional
+    public List<Integer> reconcileLoanCounters() {
+        List<Integer> readersIds = readerRepository.findIdsOfReadersWithIncorrectLoanCounters();
+        if (readersIds.isEmpty()) {
+            return readersIds;
+        }
+        log.warn("Found {} readers with incorrect loan counters: {}", readersIds.size(), readersIds);
+        if (repairIncorrectCounters) {
+            readerRepository.recalculateLoanCounters(readersIds);
+            log.info("Recalculated loan counters of {} readers", readersIds.size());
+        }
+        return readersIds;
+    }
+}
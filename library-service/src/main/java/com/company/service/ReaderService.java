@@ -1,20 +1,26 @@
 package com.company.service;
 
+import com.company.repository.models.configuration.LendingRules;
 import com.company.repository.models.entity.ChildEntity;
 import com.company.repository.models.entity.LoanEntity;
 import com.company.repository.models.entity.ParentEntity;
 import com.company.repository.models.entity.ReaderEntity;
+import com.company.repository.models.projection.BorrowEligibility;
 import com.company.repository.models.repository.*;
+import com.company.repository.models.specification.ReaderSpecifications;
 import com.company.service.exceptions.*;
+import com.company.service.pagination.KeysetPage;
+import com.company.service.pagination.PageTokens;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 
 @RequiredArgsConstructor
@@ -26,7 +32,7 @@ public class ReaderService {
     private final ParentRepository parentRepository;
     private final ChildRepository childRepository;
     private final LoansRepository loansRepository;
-    private final ConfigurationRepository configurationRepository;
+    private final LendingRulesCache lendingRulesCache;
     public static final String NOT_FOUND_READER_WITH_GIVEN_ID = "Not found reader with given id";
     public static final String READER_HAVE_CURRENTLY_BORROWED_BOOKS = "Reader have currently borrowed books ";
     public static final String YOU_HAVE_TO_GIVE_PARENT_LEGAL_GUARDIAN_ID = "You have to give parent/legal guardian id";
@@ -38,7 +44,7 @@ public class ReaderService {
 
 
     /**
-     * Method to get all books which given reader have too long
+     * Method to get all books which given reader have too long, loans are found by their due date
      *
      * @param id
      * @return
@@ -46,8 +52,7 @@ public class ReaderService {
      */
     public List<LoanEntity> booksIdWhichReaderHaveTooMuchTime(Integer id) throws ReaderNotFoundException {
         ReaderEntity reader = findReaderById(id);
-        Integer maxNumberOfDaysToBorrowABook = configurationRepository.getMaxNumberOfDaysToBorrowABook();
-        return booksIdWhichReaderHaveTooMuchTime(reader, maxNumberOfDaysToBorrowABook);
+        return loansRepository.findOverdueLoansOfReader(reader, Date.valueOf(LocalDate.now()));
     }
 
     /**
@@ -66,7 +71,20 @@ public ReaderEntity findReaderById(Integer readerId) throws ReaderNotFoundExcept
     }
 
     /**
-     * Method to find readers with given parameters
+     * Method to lock row of reader with given id until end of current transaction, and find this reader.
+     * Loans of single reader are changed one by one, so rules checked for this reader can't be broken by parallel request
+     *
+     * @param readerId
+     * @return
+     * @throws ReaderNotFoundException, if reader with given id doesn't exist
+     */
+    public ReaderEntity findReaderByIdForUpdate(Integer readerId) throws ReaderNotFoundException {
+        readerRepository.lockById(readerId).orElseThrow(() -> new ReaderNotFoundException(NOT_FOUND_READER_WITH_GIVEN_ID));
+        return findReaderById(readerId);
+    }
+
+    /**
+     * Method to find readers with given parameters, filtering is done by database
      *
      * @param id
      * @param name
@@ -77,19 +95,12 @@ public ReaderEntity findReaderById(Integer readerId) throws ReaderNotFoundExcept
      * @return, reader with given parameters, or all readers if all parameters are null
      */
     public List<ReaderEntity> findReaderByParameters(Integer id, String name, String surname, LocalDate birthDate, Integer numberOfCurrentlyBorrowedBooks, Integer numberOfEveryBorrowedBooks) {
-        List<ReaderEntity> readers = findAllReaders();
-        return readers.stream()
-                .filter(reader -> Optional.ofNullable(id).isPresent() ? reader.getId().equals(id) : true)
-                .filter(reader -> Optional.ofNullable(name).isPresent() ? reader.getName().equals(name) : true)
-                .filter(reader -> Optional.ofNullable(surname).isPresent() ? reader.getSurname().equals(surname) : true)
-                .filter(reader -> Optional.ofNullable(birthDate).isPresent() ? reader.getBirthDate().equals(birthDate) : true)
-                .filter(reader -> Optional.ofNullable(numberOfCurrentlyBorrowedBooks).isPresent() ? reader.getNumberOfCurrentlyBorrowedBooks().equals(numberOfCurrentlyBorrowedBooks) : true)
-                .filter(reader -> Optional.ofNullable(numberOfEveryBorrowedBooks).isPresent() ? reader.getNumberOfEveryBorrowedBooks().equals(numberOfEveryBorrowedBooks) : true)
-                .collect(Collectors.toList());
+        return readerRepository.findAll(ReaderSpecifications.withParameters(id, name, surname, birthDate,
+                numberOfCurrentlyBorrowedBooks, numberOfEveryBorrowedBooks));
     }
 
     /**
-     * Method to find parent readers with given parameters
+     * Method to find parent readers with given parameters, query is executed only against parents
      *
      * @param id
      * @param name
@@ -102,15 +113,14 @@ public List<ReaderEntity> findReaderByParameters(Integer id, String name, String
      * @return, parents with given parameters, or all parents if all parameters are null
      */
     public List<ReaderEntity> findParentByParameters(Integer id, String name, String surname, LocalDate birthDate, Integer numberOfCurrentlyBorrowedBooks, Integer numberOfEveryBorrowedBooks, String address, String phoneNumber) {
-        List<ReaderEntity> readers = findReaderByParameters(id, name, surname, birthDate, numberOfCurrentlyBorrowedBooks, numberOfEveryBorrowedBooks);
-        return readers.stream().filter(reader -> reader instanceof ParentEntity)
-                .filter(reader -> Optional.ofNullable(address).isPresent() ? ((ParentEntity) reader).getAddress().equals(address) : true)
-                .filter(reader -> Optional.ofNullable(phoneNumber).isPresent() ? ((ParentEntity) reader).getPhoneNumber().equals(phoneNumber) : true)
-                .collect(Collectors.toList());
+        return new ArrayList<>(parentRepository.findAll(ReaderSpecifications.<ParentEntity>withParameters(id, name, surname, birthDate,
+                        numberOfCurrentlyBorrowedBooks, numberOfEveryBorrowedBooks)
+                .and(ReaderSpecifications.hasAddress(address))
+                .and(ReaderSpecifications.hasPhoneNumber(phoneNumber))));
     }
 
     /**
-     * Method to find child readers with given parameters
+     * Method to find child readers with given parameters, query is executed only against children
      *
      * @param id
      * @param name
@@ -122,10 +132,9 @@ public List<ReaderEntity> findParentByParameters(Integer id, String name, String
      * @return, return child readers with given parameters, or all child readers if all parameters are null
      */
     public List<ReaderEntity> findChildByParameters(Integer id, String name, String surname, LocalDate birthDate, Integer numberOfCurrentlyBorrowedBooks, Integer numberOfEveryBorrowedBooks, Integer parentId) {
-        List<ReaderEntity> readers = findReaderByParameters(id, name, surname, birthDate, numberOfCurrentlyBorrowedBooks, numberOfEveryBorrowedBooks);
-        return readers.stream().filter(reader -> reader instanceof ChildEntity)
-                .filter(child -> Optional.ofNullable(parentId).isPresent() ? (Optional.ofNullable(((ChildEntity) child).getParent()).isPresent() ? ((ChildEntity) child).getParent().getId().equals(parentId) : true) : true)
-                .collect(Collectors.toList());
+        return new ArrayList<>(childRepository.findAll(ReaderSpecifications.<ChildEntity>withParameters(id, name, surname, birthDate,
+                        numberOfCurrentlyBorrowedBooks, numberOfEveryBorrowedBooks)
+                .and(ReaderSpecifications.hasParentId(parentId))));
     }
 
     /**
@@ -138,21 +147,48 @@ public List<ReaderEntity> findAllReaders() {
     }
 
     /**
-     * Method to delete single reader with given id from loans table, and from reader table
+     * Method to get single page of readers ordered by id, next page starts directly after last id from previous page
+     *
+     * @param pageToken, continuation token from previous page, or null for first page
+     * @param size,      number of readers on page
+     * @return
+     * @throws InvalidPageTokenException, if given token is incorrect
+     */
+    public KeysetPage<ReaderEntity> findAllReaders(String pageToken, int size) throws InvalidPageTokenException {
+        Integer lastId = PageTokens.decodeId(pageToken);
+        List<ReaderEntity> readers = readerRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, size + 1));
+        return KeysetPage.of(readers, size, reader -> PageTokens.encode(reader.getId()));
+    }
+
+    /**
+     * Method to delete single reader with given id from loans table, and from reader table, loans are deleted by one statement
      *
      * @param id
+     * @return number of deleted loans
      * @throws ReaderNotFoundException,               if reader with given id doesn't exist
      * @throws ReaderHasCurrentlyBookOnLoanException, if reader have currently borrowed book
      */
     @Transactional
-    public void deleteReader(Integer id) throws ReaderNotFoundException, ReaderHasCurrentlyBookOnLoanException {
+    public int deleteReader(Integer id) throws ReaderNotFoundException, ReaderHasCurrentlyBookOnLoanException {
+        checkReaderCanBeDeleted(id);
+        int deletedLoans = loansRepository.deleteAllByReaderId(id);
+        readerRepository.deleteById(id);
+        return deletedLoans;
+    }
+
+    /**
+     * Method to check if reader with given id exists and doesn't have currently borrowed books
+     *
+     * @param id
+     * @throws ReaderNotFoundException,               if reader with given id doesn't exist
+     * @throws ReaderHasCurrentlyBookOnLoanException, if reader have currently borrowed book
+     */
+    public void checkReaderCanBeDeleted(Integer id) throws ReaderNotFoundException, ReaderHasCurrentlyBookOnLoanException {
         ReaderEntity reader = findReaderById(id);
         List<LoanEntity> foundedLoans = findCurrentlyBorrowedBooksForReader(reader);
         if (!foundedLoans.isEmpty()) {
             throw new ReaderHasCurrentlyBookOnLoanException(READER_HAVE_CURRENTLY_BORROWED_BOOKS);
         }
-        loansRepository.deleteAllByReader(reader);
-        readerRepository.deleteById(id);
     }
 
     /**
@@ -163,6 +199,7 @@ public void deleteReader(Integer id) throws ReaderNotFoundException, ReaderHasCu
      */
     public ParentEntity addParentReader(ParentEntity parent) {
         parent.setId(null);
+        resetLoanCounters(parent);
         parentRepository.save(parent);
         return parent;
     }
@@ -182,6 +219,7 @@ public ChildEntity addChildReader(ChildEntity child) throws ChildWithoutParentGu
         }
         isCorrectParentId(child.getParent().getId());
         child.setId(null);
+        resetLoanCounters(child);
         childRepository.save(child);
         return child;
     }
@@ -279,13 +317,108 @@ public ChildEntity editChild(ChildEntity readerWithNewData) throws ReaderNotFoun
      * @throws ReaderHaveBooksTooLongException, if given reader have any book too long
      */
     public void isReaderCanBorrowABook(Integer id) throws ReaderNotFoundException, ReaderTooYoungException, ReaderHaveTooMuchBooksException, ReaderHaveBooksTooLongException {
-        ReaderEntity reader = findReaderById(id);
-        isReaderHaveCorrectAge(reader);
-        isReaderHaveGotTooMuchBooks(reader);
-        isReaderHaveGotBooksTooLong(reader);
+        LendingRules lendingRules = lendingRulesCache.getLendingRules();
+        BorrowEligibility eligibility = readerRepository.findBorrowEligibility(id)
+                .orElseThrow(() -> new ReaderNotFoundException(NOT_FOUND_READER_WITH_GIVEN_ID));
+        checkLendingRules(eligibility, lendingRules);
+    }
+
+    /**
+     * Method to check if reader can borrow given book. Age of reader, his currently and overdue loans and whether he already has this book
+     * are read by single query which also locks row of reader until end of current transaction, so rules can't be broken by parallel request
+     *
+     * @param readerId, who want to borrow a book
+     * @param bookId,   book which should be borrowed
+     * @return reference to reader, which can be used to save a loan
+     * @throws ReaderNotFoundException,              if given reader doesn't exist
+     * @throws BookNotFoundException,                if given book doesn't exist
+     * @throws ReaderTooYoungException,              if given reader is too young to borrow a book
+     * @throws ReaderHaveTooMuchBooksException,      if given reader have too many books to borrow another book
+     * @throws ReaderHaveBooksTooLongException,      if given reader have any book too long
+     * @throws ReaderCurrentlyHaveThisBookException, if given reader have currently borrowed given book
+     */
+    public ReaderEntity checkReaderCanBorrowABook(Integer readerId, Integer bookId) throws ReaderNotFoundException, BookNotFoundException, ReaderTooYoungException,
+            ReaderHaveTooMuchBooksException, ReaderHaveBooksTooLongException, ReaderCurrentlyHaveThisBookException {
+        LendingRules lendingRules = lendingRulesCache.getLendingRules();
+        BorrowEligibility eligibility = readerRepository.findBorrowEligibilityForUpdate(readerId, bookId)
+                .orElseThrow(() -> new ReaderNotFoundException(NOT_FOUND_READER_WITH_GIVEN_ID));
+        if (!eligibility.getBookExists()) {
+            throw new BookNotFoundException(BookService.NOT_FOUND_BOOK_WITH_GIVEN_ID);
+        }
+        checkLendingRules(eligibility, lendingRules);
+        if (eligibility.getReaderHasBook()) {
+            throw new ReaderCurrentlyHaveThisBookException(BookService.BOOK_IS_CURRENTLY_BORROWED);
+        }
+        return readerRepository.getReferenceById(readerId);
     }
 
 
+    /**
+     * Method to check if reader can borrow books and lock row of reader until end of current transaction, rules which depend on
+     * borrowed book have to be checked by caller
+     *
+     * @param readerId, who want to borrow books
+     * @return number of books which reader can still borrow
+     * @throws ReaderNotFoundException,         if given reader doesn't exist
+     * @throws ReaderTooYoungException,         if given reader is too young to borrow a book
+     * @throws ReaderHaveTooMuchBooksException, if given reader can't borrow any more books
+     * @throws ReaderHaveBooksTooLongException, if given reader have any book too long
+     */
+    public int checkReaderCanBorrowBooks(Integer readerId) throws ReaderNotFoundException, ReaderTooYoungException,
+            ReaderHaveTooMuchBooksException, ReaderHaveBooksTooLongException {
+        LendingRules lendingRules = lendingRulesCache.getLendingRules();
+        BorrowEligibility eligibility = readerRepository.findBorrowEligibilityOfReaderForUpdate(readerId)
+                .orElseThrow(() -> new ReaderNotFoundException(NOT_FOUND_READER_WITH_GIVEN_ID));
+        checkLendingRules(eligibility, lendingRules);
+        return lendingRules.getMaxNumberOfBorrowedBooks() - eligibility.getNumberOfCurrentlyBorrowedBooks();
+    }
+
+    /**
+     * Method to increase loan counters of given reader, should be called in the same transaction in which loan is saved, reader
+     * loaded earlier in this transaction is refreshed with current counters
+     *
+     * @param reader, who borrowed a book
+     */
+    public void registerBorrowedBook(ReaderEntity reader) {
+        readerRepository.incrementLoanCounters(reader.getId());
+        readerRepository.refreshLoanCounters(List.of(reader.getId()));
+    }
+
+    /**
+     * Method to decrease counter of currently borrowed books of given reader, should be called in the same transaction in which loan is returned,
+     * reader loaded earlier in this transaction is refreshed with current counters
+     *
+     * @param reader, who returned a book
+     */
+    public void registerReturnedBook(ReaderEntity reader) {
+        readerRepository.decrementCurrentlyBorrowedBooksCounter(reader.getId());
+        readerRepository.refreshLoanCounters(List.of(reader.getId()));
+    }
+
+    /**
+     * Method to increase loan counters of reader by number of borrowed books, should be called in the same transaction in which loans are saved,
+     * reader loaded earlier in this transaction is refreshed with current counters
+     *
+     * @param readerId, who borrowed books
+     * @param count,    number of borrowed books
+     */
+    public void registerBorrowedBooks(Integer readerId, int count) {
+        readerRepository.addToLoanCounters(readerId, count);
+        readerRepository.refreshLoanCounters(List.of(readerId));
+    }
+
+    /**
+     * Method to decrease counter of currently borrowed books of reader by number of returned books, should be called in the same
+     * transaction in which loans are returned, reader loaded earlier in this transaction is refreshed with current counters
+     *
+     * @param readerId, who returned books
+     * @param count,    number of returned books
+     */
+    public void registerReturnedBooks(Integer readerId, int count) {
+        readerRepository.subtractFromCurrentlyBorrowedBooksCounter(readerId, count);
+        readerRepository.refreshLoanCounters(List.of(readerId));
+    }
+
     /**
      * Method to add single reader
      *
@@ -294,10 +427,26 @@ public void isReaderCanBorrowABook(Integer id) throws ReaderNotFoundException, R
      */
     public ReaderEntity addReader(ReaderEntity reader) {
         reader.setId(null);
+        resetLoanCounters(reader);
         readerRepository.save(reader);
         return reader;
     }
 
+    /**
+     * Method to add many readers in one transaction, ids are taken from pooled sequence so readers are inserted by jdbc batches
+     *
+     * @param readers
+     * @return
+     */
+    @Transactional
+    public List<ReaderEntity> addReaders(List<ReaderEntity> readers) {
+        readers.forEach(reader -> {
+            reader.setId(null);
+            resetLoanCounters(reader);
+        });
+        return readerRepository.saveAll(readers);
+    }
+
     /**
      * Method to change type from child, to parent with new values
      *
@@ -319,6 +468,8 @@ public ReaderEntity editChildToParent(Integer id, String address, String phoneNu
         editReader(reader, parent);
 
         parent.setId(reader.getId());
+        parent.setNumberOfCurrentlyBorrowedBooks(reader.getNumberOfCurrentlyBorrowedBooks());
+        parent.setNumberOfEveryBorrowedBooks(reader.getNumberOfEveryBorrowedBooks());
 
         parent.setAddress(address);
         parent.setPhoneNumber(phoneNumber);
@@ -349,15 +500,9 @@ private List<LoanEntity> findCurrentlyBorrowedBooksForReader(ReaderEntity reader
         return loansRepository.findAllByReaderAndReturnedDate(reader, null);
     }
 
-    private List<LoanEntity> booksIdWhichReaderHaveTooMuchTime(ReaderEntity reader, Integer maxNumberOfDaysToBorrowABook) {
-        List<LoanEntity> result = findCurrentlyBorrowedBooksForReader(reader);
-        return result.stream().filter(loan -> {
-                    LocalDate borrowDate = new Date(loan.getBorrowDate().getTime()).toLocalDate();
-                    LocalDate deadLine = borrowDate.plusDays(maxNumberOfDaysToBorrowABook);
-                    LocalDate currentDate = LocalDate.now();
-                    return !currentDate.isBefore(deadLine);
-                })
-                .collect(Collectors.toList());
+    private void resetLoanCounters(ReaderEntity reader) {
+        reader.setNumberOfCurrentlyBorrowedBooks(0);
+        reader.setNumberOfEveryBorrowedBooks(0);
     }
 
     private ReaderEntity editReader(ReaderEntity readerWithNewData, ReaderEntity readerToEdit) {
@@ -367,25 +512,27 @@ private ReaderEntity editReader(ReaderEntity readerWithNewData, ReaderEntity rea
         return readerToEdit;
     }
 
-    private void isReaderHaveGotBooksTooLong(ReaderEntity reader) throws ReaderHaveBooksTooLongException {
-        Integer maxNumberOfDaysToBorrowABook = configurationRepository.getMaxNumberOfDaysToBorrowABook();
-        List<LoanEntity> loans = booksIdWhichReaderHaveTooMuchTime(reader, maxNumberOfDaysToBorrowABook);
-        if (!loans.isEmpty()) {
+    private void checkLendingRules(BorrowEligibility eligibility, LendingRules lendingRules) throws ReaderTooYoungException, ReaderHaveTooMuchBooksException, ReaderHaveBooksTooLongException {
+        isReaderHaveCorrectAge(eligibility.getBirthDate(), lendingRules.getMinAgeToBorrowABook());
+        isReaderHaveGotTooMuchBooks(eligibility.getNumberOfCurrentlyBorrowedBooks(), lendingRules.getMaxNumberOfBorrowedBooks());
+        isReaderHaveGotBooksTooLong(eligibility.getNumberOfOverdueBooks());
+    }
+
+    private void isReaderHaveGotBooksTooLong(Integer numberOfOverdueBooks) throws ReaderHaveBooksTooLongException {
+        if (numberOfOverdueBooks > 0) {
             throw new ReaderHaveBooksTooLongException(READER_HAVE_TO_RETURN_BOOKS);
         }
     }
 
-    private void isReaderHaveCorrectAge(ReaderEntity reader) throws ReaderTooYoungException {
-        Integer minAge = configurationRepository.getMinAgeToBorrowABook();
-        Integer readerAge = LocalDate.now().getYear() - reader.getBirthDate().getYear();
+    private void isReaderHaveCorrectAge(Date birthDate, Integer minAge) throws ReaderTooYoungException {
+        Integer readerAge = LocalDate.now().getYear() - birthDate.getYear();
         if (readerAge < minAge) {
             throw new ReaderTooYoungException(READER_IS_TOO_YOUNG);
         }
     }
 
-    private void isReaderHaveGotTooMuchBooks(ReaderEntity reader) throws ReaderHaveTooMuchBooksException {
-        Integer maxNumberOfBorrowedBooks = configurationRepository.getMaxNumberOfBorrowedBooks();
-        if (reader.getNumberOfCurrentlyBorrowedBooks() >= maxNumberOfBorrowedBooks) {
+    private void isReaderHaveGotTooMuchBooks(Integer numberOfCurrentlyBorrowedBooks, Integer maxNumberOfBorrowedBooks) throws ReaderHaveTooMuchBooksException {
+        if (numberOfCurrentlyBorrowedBooks >= maxNumberOfBorrowedBooks) {
             throw new ReaderHaveTooMuchBooksException(READER_HAVE_TOO_MUCH_BOOKS);
         }
     }
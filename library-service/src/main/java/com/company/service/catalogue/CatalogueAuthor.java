@@ -0,0 +1,9 @@
+package com.company.service.catalogue;
+
+import lombok.Value;
+
+@Value(staticConstructor = "of")
+public class CatalogueAuthor {
+    String name;
+    String surname;
+}
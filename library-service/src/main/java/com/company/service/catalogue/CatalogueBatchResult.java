@@ -0,0 +1,12 @@
+package com.company.service.catalogue;
+
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+public class CatalogueBatchResult {
+    Map<CatalogueAuthor, Integer> resolvedAuthors;
+    int createdAuthors;
+    int importedBooks;
+}
@@ -0,0 +1,76 @@
+package com.company.service.catalogue;
+
+import com.company.repository.models.entity.AuthorEntity;
+import com.company.repository.models.entity.BookEntity;
+import com.company.repository.models.repository.BulkAuthorsRepository;
+import com.company.repository.models.repository.BulkBooksRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@Service
+public class CatalogueBatchWriter {
+
+    private final BulkAuthorsRepository bulkAuthorsRepository;
+    private final BulkBooksRepository bulkBooksRepository;
+
+    /**
+     * Method to save books of given records in one transaction, authors which aren't known yet are found in database,
+     * and authors which don't exist are created
+     *
+     * @param records,     valid records of catalogue
+     * @param knownAuthors, ids of authors resolved by previous batches, map isn't changed
+     * @return ids of authors resolved by this batch, they should be remembered only if transaction was committed
+     */
+    @Transactional
+    public CatalogueBatchResult write(List<CatalogueRecord> records, Map<CatalogueAuthor, Integer> knownAuthors) {
+        Set<CatalogueAuthor> unknownAuthors = records.stream()
+                .map(CatalogueRecord::getAuthor)
+                .filter(author -> !knownAuthors.containsKey(author))
+                .collect(Collectors.toSet());
+        Map<CatalogueAuthor, Integer> resolvedAuthors = new HashMap<>();
+        int createdAuthors = 0;
+        if (!unknownAuthors.isEmpty()) {
+            resolvedAuthors.putAll(findAuthors(unknownAuthors));
+            unknownAuthors.removeAll(resolvedAuthors.keySet());
+        }
+        if (!unknownAuthors.isEmpty()) {
+            createdAuthors = bulkAuthorsRepository.insertIgnoringDuplicates(toAuthorEntities(unknownAuthors));
+            resolvedAuthors.putAll(findAuthors(unknownAuthors));
+        }
+
+        List<BookEntity> books = records.stream()
+                .map(record -> BookEntity.builder()
+                        .title(record.getTitle())
+                        .author(AuthorEntity.builder()
+                                .id(knownAuthors.getOrDefault(record.getAuthor(), resolvedAuthors.get(record.getAuthor())))
+                                .build())
+                        .quantity(record.getQuantity())
+                        .build())
+                .collect(Collectors.toList());
+        int importedBooks = bulkBooksRepository.insertBooks(books);
+        return new CatalogueBatchResult(resolvedAuthors, createdAuthors, importedBooks);
+    }
+
+    private Map<CatalogueAuthor, Integer> findAuthors(Set<CatalogueAuthor> authors) {
+        return bulkAuthorsRepository.findByNamesAndSurnames(toAuthorEntities(authors))
+                .stream()
+                .collect(Collectors.toMap(author -> CatalogueAuthor.of(author.getName(), author.getSurname()), AuthorEntity::getId));
+    }
+
+    private static List<AuthorEntity> toAuthorEntities(Set<CatalogueAuthor> authors) {
+        return authors.stream()
+                .map(author -> AuthorEntity.builder()
+                        .name(author.getName())
+                        .surname(author.getSurname())
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,6 @@
+package com.company.service.catalogue;
+
+public enum CatalogueFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,31 @@
+package com.company.service.catalogue;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CatalogueImportReport {
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long processedRecords;
+    private long importedBooks;
+    private long createdAuthors;
+    private long rejectedRecords;
+    private List<String> errors = new ArrayList<>();
+
+    /**
+     * Method to count rejected records, only first MAX_REPORTED_ERRORS errors are kept, so report of broken file stays small
+     *
+     * @param records, number of rejected records
+     * @param line,    line on which rejected records start
+     * @param message
+     */
+    public void reject(long records, long line, String message) {
+        rejectedRecords += records;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("line " + line + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.company.service.catalogue;
+
+import com.company.service.exceptions.InvalidCatalogueRecordException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class CatalogueImportService {
+    public static final int MAX_TEXT_LENGTH = 20;
+    public static final String MISSING_TITLE = "Missing title";
+    public static final String MISSING_AUTHOR = "Missing name or surname of author";
+    public static final String TOO_LONG_TEXT = "Title, name and surname can't be longer than " + MAX_TEXT_LENGTH + " characters";
+    public static final String INCORRECT_QUANTITY = "Quantity must be positive number";
+
+    private final CatalogueBatchWriter catalogueBatchWriter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.catalogue-import.batch-size:5000}")
+    private int batchSize;
+
+    /**
+     * Method to import books from catalogue, read line by line. Books are saved in batches, every batch in its own transaction,
+     * authors are matched by name and surname and created if they don't exist. Incorrect records are skipped and reported,
+     * batch which can't be saved is reported as rejected, and import continues with next batch
+     *
+     * @param input,  catalogue, isn't closed by this method
+     * @param format, format of catalogue
+     * @return summary of import, with first errors
+     * @throws IOException, if catalogue can't be read
+     */
+    public CatalogueImportReport importCatalogue(InputStream input, CatalogueFormat format) throws IOException {
+        CatalogueImportReport report = new CatalogueImportReport();
+        Map<CatalogueAuthor, Integer> authorIds = new HashMap<>();
+        List<CatalogueRecord> batch = new ArrayList<>(batchSize);
+        CatalogueRecordReader reader = CatalogueRecordReader.open(input, format, objectMapper);
+        while (true) {
+            CatalogueRecord record;
+            try {
+                record = reader.next();
+            } catch (InvalidCatalogueRecordException e) {
+                report.setProcessedRecords(report.getProcessedRecords() + 1);
+                report.reject(1, e.getLine(), e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            report.setProcessedRecords(report.getProcessedRecords() + 1);
+            Optional<String> error = validate(record);
+            if (error.isPresent()) {
+                report.reject(1, record.getLine(), error.get());
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() >= batchSize) {
+                writeBatch(batch, authorIds, report);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, authorIds, report);
+        }
+        log.info("Catalogue import finished, processed {} records, imported {} books, created {} authors, rejected {} records",
+                report.getProcessedRecords(), report.getImportedBooks(), report.getCreatedAuthors(), report.getRejectedRecords());
+        return report;
+    }
+
+    private void writeBatch(List<CatalogueRecord> batch, Map<CatalogueAuthor, Integer> authorIds, CatalogueImportReport report) {
+        try {
+            CatalogueBatchResult result = catalogueBatchWriter.write(batch, authorIds);
+            authorIds.putAll(result.getResolvedAuthors());
+            report.setImportedBooks(report.getImportedBooks() + result.getImportedBooks());
+            report.setCreatedAuthors(report.getCreatedAuthors() + result.getCreatedAuthors());
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Catalogue batch starting at line {} was not imported", batch.get(0).getLine(), e);
+            report.reject(batch.size(), batch.get(0).getLine(), "Batch of " + batch.size() + " records was not imported: "
+                    + e.getMostSpecificCause().getMessage());
+        }
+        batch.clear();
+        log.info("Catalogue import progress, processed {} records, imported {} books, rejected {} records",
+                report.getProcessedRecords(), report.getImportedBooks(), report.getRejectedRecords());
+    }
+
+    private static Optional<String> validate(CatalogueRecord record) {
+        if (record.getTitle() == null) {
+            return Optional.of(MISSING_TITLE);
+        }
+        if (record.getAuthor().getName() == null || record.getAuthor().getSurname() == null) {
+            return Optional.of(MISSING_AUTHOR);
+        }
+        if (record.getTitle().length() > MAX_TEXT_LENGTH || record.getAuthor().getName().length() > MAX_TEXT_LENGTH
+                || record.getAuthor().getSurname().length() > MAX_TEXT_LENGTH) {
+            return Optional.of(TOO_LONG_TEXT);
+        }
+        if (record.getQuantity() == null || record.getQuantity() <= 0) {
+            return Optional.of(INCORRECT_QUANTITY);
+        }
+        return Optional.empty();
+    }
+}
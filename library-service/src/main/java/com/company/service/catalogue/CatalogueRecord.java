@@ -0,0 +1,11 @@
+package com.company.service.catalogue;
+
+import lombok.Value;
+
+@Value
+public class CatalogueRecord {
+    long line;
+    String title;
+    CatalogueAuthor author;
+    Integer quantity;
+}
@@ -0,0 +1,74 @@
+package com.company.service.catalogue;
+
+import com.company.service.exceptions.InvalidCatalogueRecordException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+public abstract class CatalogueRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private long line;
+
+    CatalogueRecordReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to create reader of catalogue in given format, records are read line by line, so whole file is never kept in memory
+     *
+     * @param input
+     * @param format
+     * @param objectMapper, used to read NDJSON records
+     * @return
+     */
+    public static CatalogueRecordReader open(InputStream input, CatalogueFormat format, ObjectMapper objectMapper) {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonCatalogueRecordReader(input, objectMapper);
+            case CSV:
+            default:
+                return new CsvCatalogueRecordReader(input);
+        }
+    }
+
+    /**
+     * Method to read next record of catalogue, blank lines are skipped
+     *
+     * @return next record, or null if whole catalogue was read
+     * @throws InvalidCatalogueRecordException, if line can't be parsed, next call reads following line
+     */
+    public CatalogueRecord next() throws IOException, InvalidCatalogueRecordException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (!text.isBlank()) {
+                CatalogueRecord record = parse(text, line);
+                if (record != null) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to parse single line of catalogue
+     *
+     * @param text
+     * @param line, number of line, starting from 1
+     * @return parsed record, or null if line doesn't contain record
+     * @throws InvalidCatalogueRecordException, if line can't be parsed
+     */
+    abstract CatalogueRecord parse(String text, long line) throws InvalidCatalogueRecordException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,86 @@
+package com.company.service.catalogue;
+
+import com.company.service.exceptions.InvalidCatalogueRecordException;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader of catalogue with columns title,author_name,author_surname,quantity, optional first line with column names is skipped.
+ * Fields can be quoted with ", but record can't span multiple lines
+ */
+class CsvCatalogueRecordReader extends CatalogueRecordReader {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final int NUMBER_OF_COLUMNS = 4;
+    private static final String TITLE_COLUMN = "title";
+
+    private boolean firstLine = true;
+
+    CsvCatalogueRecordReader(InputStream input) {
+        super(input);
+    }
+
+    @Override
+    CatalogueRecord parse(String text, long line) throws InvalidCatalogueRecordException {
+        List<String> fields = split(text, line);
+        if (fields.size() != NUMBER_OF_COLUMNS) {
+            firstLine = false;
+            throw new InvalidCatalogueRecordException(line, "Expected " + NUMBER_OF_COLUMNS + " columns, found " + fields.size());
+        }
+        boolean header = firstLine && TITLE_COLUMN.equalsIgnoreCase(fields.get(0));
+        firstLine = false;
+        if (header) {
+            return null;
+        }
+        return new CatalogueRecord(line, fields.get(0), CatalogueAuthor.of(fields.get(1), fields.get(2)), parseQuantity(fields.get(3), line));
+    }
+
+    private static Integer parseQuantity(String quantity, long line) throws InvalidCatalogueRecordException {
+        if (quantity == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(quantity);
+        } catch (NumberFormatException e) {
+            throw new InvalidCatalogueRecordException(line, "Incorrect quantity " + quantity);
+        }
+    }
+
+    private static List<String> split(String text, long line) throws InvalidCatalogueRecordException {
+        List<String> fields = new ArrayList<>(NUMBER_OF_COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (quoted) {
+                if (character != QUOTE) {
+                    field.append(character);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == QUOTE) {
+                    field.append(QUOTE);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (character == QUOTE) {
+                quoted = true;
+            } else if (character == SEPARATOR) {
+                fields.add(toValue(field));
+                field.setLength(0);
+            } else {
+                field.append(character);
+            }
+        }
+        if (quoted) {
+            throw new InvalidCatalogueRecordException(line, "Quoted field is not closed");
+        }
+        fields.add(toValue(field));
+        return fields;
+    }
+
+    private static String toValue(StringBuilder field) {
+        String value = field.toString().trim();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,52 @@
+package com.company.service.catalogue;
+
+import com.company.service.exceptions.InvalidCatalogueRecordException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+
+/**
+ * Reader of catalogue with one json object in every line, for example {"title":"...","authorName":"...","authorSurname":"...","quantity":1}
+ */
+class NdjsonCatalogueRecordReader extends CatalogueRecordReader {
+
+    private final ObjectMapper objectMapper;
+
+    NdjsonCatalogueRecordReader(InputStream input, ObjectMapper objectMapper) {
+        super(input);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    CatalogueRecord parse(String text, long line) throws InvalidCatalogueRecordException {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new InvalidCatalogueRecordException(line, "Incorrect json " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new InvalidCatalogueRecordException(line, "Expected json object");
+        }
+        CatalogueAuthor author = CatalogueAuthor.of(textValue(node, "authorName"), textValue(node, "authorSurname"));
+        return new CatalogueRecord(line, textValue(node, "title"), author, quantity(node, line));
+    }
+
+    private static String textValue(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        return value.isTextual() && !value.textValue().isBlank() ? value.textValue().trim() : null;
+    }
+
+    private static Integer quantity(JsonNode node, long line) throws InvalidCatalogueRecordException {
+        JsonNode quantity = node.path("quantity");
+        if (quantity.isMissingNode() || quantity.isNull()) {
+            return null;
+        }
+        if (!quantity.isIntegralNumber() || !quantity.canConvertToInt()) {
+            throw new InvalidCatalogueRecordException(line, "Incorrect quantity " + quantity);
+        }
+        return quantity.intValue();
+    }
+}
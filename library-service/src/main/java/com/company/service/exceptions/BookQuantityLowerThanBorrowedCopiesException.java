@@ -0,0 +1,7 @@
+package com.company.service.exceptions;
+
+public class BookQuantityLowerThanBorrowedCopiesException extends Exception{
+    public BookQuantityLowerThanBorrowedCopiesException(String message){
+        super(message);
+    }
+}
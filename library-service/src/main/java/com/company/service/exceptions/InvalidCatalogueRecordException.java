@@ -0,0 +1,14 @@
+package com.company.service.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidCatalogueRecordException extends Exception {
+
+    private final long line;
+
+    public InvalidCatalogueRecordException(long line, String message) {
+        super(message);
+        this.line = line;
+    }
+}
@@ -0,0 +1,11 @@
+package com.company.service.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class InvalidPageTokenException extends Exception{
+
+    public InvalidPageTokenException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.company.service.exceptions;
+
+public class ReaderReturnedThisBookTodayException extends Exception{
+    public ReaderReturnedThisBookTodayException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.company.service.exceptions;
+
+public class TooManyBooksInRequestException extends Exception{
+    public TooManyBooksInRequestException(String message){
+        super(message);
+    }
+}
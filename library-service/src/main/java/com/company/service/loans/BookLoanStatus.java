@@ -0,0 +1,24 @@
+package com.company.service.loans;
+
+import lombok.Value;
+
+/**
+ * Result of borrowing or returning single book from batch
+ */
+@Value
+public class BookLoanStatus {
+    Integer bookId;
+    Status status;
+
+    public enum Status {
+        BORROWED,
+        RETURNED,
+        BOOK_NOT_FOUND,
+        BOOK_NOT_AVAILABLE,
+        READER_CURRENTLY_HAVE_THIS_BOOK,
+        READER_RETURNED_THIS_BOOK_TODAY,
+        READER_HAVE_TOO_MUCH_BOOKS,
+        LOAN_NOT_FOUND,
+        DUPLICATED
+    }
+}
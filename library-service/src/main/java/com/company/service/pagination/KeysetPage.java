@@ -0,0 +1,29 @@
+package com.company.service.pagination;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Value
+public class KeysetPage<T> {
+
+    List<T> items;
+    String nextPageToken;
+
+    /**
+     * Method to create page from rows fetched with limit one greater than page size, extra row is only a marker that next page exists
+     *
+     * @param rows,       fetched rows, at most size + 1
+     * @param size,       requested size of page
+     * @param tokenOfRow, function which creates continuation token pointing after given row
+     * @return
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, String> tokenOfRow) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(items, tokenOfRow.apply(items.get(size - 1)));
+    }
+}
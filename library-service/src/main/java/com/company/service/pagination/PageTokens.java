@@ -0,0 +1,72 @@
+package com.company.service.pagination;
+
+import com.company.service.exceptions.InvalidPageTokenException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+public final class PageTokens {
+
+    public static final String INVALID_PAGE_TOKEN = "Invalid page token";
+    private static final String SEPARATOR = ":";
+    private static final int FIRST_ID = 0;
+
+    private PageTokens() {
+    }
+
+    /**
+     * Method to encode keys of last row on page to opaque continuation token
+     *
+     * @param keys
+     * @return
+     */
+    public static String encode(Object... keys) {
+        StringBuilder token = new StringBuilder();
+        for (Object key : keys) {
+            if (token.length() > 0) {
+                token.append(SEPARATOR);
+            }
+            token.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to decode keys from continuation token
+     *
+     * @param token
+     * @param numberOfKeys, number of keys which token should contain
+     * @return
+     * @throws InvalidPageTokenException, if token wasn't created by encode method with given number of keys
+     */
+    public static String[] decode(String token, int numberOfKeys) throws InvalidPageTokenException {
+        try {
+            String[] keys = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            if (keys.length != numberOfKeys) {
+                throw new InvalidPageTokenException(INVALID_PAGE_TOKEN);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException(INVALID_PAGE_TOKEN);
+        }
+    }
+
+    /**
+     * Method to decode id of last row on previous page, first page is returned when token is not given
+     *
+     * @param token
+     * @return
+     * @throws InvalidPageTokenException, if token is incorrect
+     */
+    public static Integer decodeId(String token) throws InvalidPageTokenException {
+        if (Optional.ofNullable(token).isEmpty()) {
+            return FIRST_ID;
+        }
+        try {
+            return Integer.valueOf(decode(token, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new InvalidPageTokenException(INVALID_PAGE_TOKEN);
+        }
+    }
+}
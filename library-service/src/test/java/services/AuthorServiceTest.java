@@ -2,8 +2,10 @@
 
 import com.company.repository.models.entity.AuthorEntity;
 import com.company.repository.models.entity.BookEntity;
+import com.company.repository.models.projection.BookSummary;
 import com.company.repository.models.repository.AuthorRepository;
 import com.company.repository.models.repository.BookRepository;
+import com.company.repository.models.repository.BulkAuthorsRepository;
 import com.company.service.AuthorService;
 import com.company.service.exceptions.AuthorHaveBooksException;
 import com.company.service.exceptions.AuthorNotFoundException;
@@ -27,8 +29,11 @@
 import java.util.List;
 import java.util.Optional;
 
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static services.TestUtils.createAuthors;
+import static services.TestUtils.createBookSummary;
 import static services.TestUtils.createBooks;
 
 
@@ -45,6 +50,8 @@ public class AuthorServiceTest {
     private AuthorRepository mockAuthorRepository;
     @Mock
     private BookRepository mockBookRepository;
+    @Mock
+    private BulkAuthorsRepository mockBulkAuthorsRepository;
 
     @InjectMocks
     private AuthorService authorService;
@@ -55,7 +62,7 @@ public class AuthorServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        authorService = new AuthorService(mockAuthorRepository, mockBookRepository);
+        authorService = new AuthorService(mockAuthorRepository, mockBookRepository, mockBulkAuthorsRepository);
         authorEntityList = createAuthors();
         bookEntityList = createBooks();
     }
@@ -66,7 +73,7 @@ void shouldAddAuthor() throws AuthorWithGivenNameAndSurnameExistsException {
         //given
         AuthorEntity author = authorEntityList.get(0);
         //when
-        when(mockAuthorRepository.findAll()).thenReturn(List.of(authorEntityList.get(1)));
+        when(mockAuthorRepository.findAuthorEntitiesByNameAndSurname(author.getName(), author.getSurname())).thenReturn(Optional.empty());
         AuthorEntity result = authorService.addAuthor(author);
 
         //then
@@ -79,7 +86,7 @@ void shouldThrowExceptionBecauseAuthorWithGivenDataAlreadyExists() throws Author
         //given
         AuthorEntity author = authorEntityList.get(0);
         //when
-        when(mockAuthorRepository.findAll()).thenReturn(authorEntityList);
+        when(mockAuthorRepository.findAuthorEntitiesByNameAndSurname(author.getName(), author.getSurname())).thenReturn(Optional.of(authorEntityList.get(1)));
         Exception ex = Assertions.assertThrows(AuthorWithGivenNameAndSurnameExistsException.class,
                 () -> {
                     authorService.addAuthor(author);
@@ -89,6 +96,46 @@ void shouldThrowExceptionBecauseAuthorWithGivenDataAlreadyExists() throws Author
     }
 
 
+    @Test
+    @DisplayName("Should add author whose name and surname are part of other author data")
+    void shouldAddAuthorWhoseNameAndSurnameArePartOfOtherAuthorData() throws AuthorWithGivenNameAndSurnameExistsException {
+        //given
+        AuthorEntity existingAuthor = authorEntityList.get(0);
+        AuthorEntity author = new AuthorEntity();
+        author.setName(existingAuthor.getName().substring(1));
+        author.setSurname(existingAuthor.getSurname().substring(1));
+        when(mockAuthorRepository.findAuthorEntitiesByNameAndSurname(author.getName(), author.getSurname())).thenReturn(Optional.empty());
+        //when
+        AuthorEntity result = authorService.addAuthor(author);
+        //then
+        Assertions.assertEquals(author, result);
+        verify(mockAuthorRepository).save(author);
+    }
+
+    @Test
+    @DisplayName("Should import authors with name and surname")
+    void shouldImportAuthorsWithNameAndSurname() {
+        //given
+        AuthorEntity authorWithoutSurname = new AuthorEntity();
+        authorWithoutSurname.setName("Name");
+        List<AuthorEntity> authors = List.of(authorEntityList.get(0), authorEntityList.get(1), authorWithoutSurname);
+        when(mockBulkAuthorsRepository.insertIgnoringDuplicates(List.of(authorEntityList.get(0), authorEntityList.get(1)))).thenReturn(1);
+        //when
+        int result = authorService.importAuthors(authors);
+        //then
+        Assertions.assertEquals(1, result);
+    }
+
+    @Test
+    @DisplayName("Should not call database while import of empty list")
+    void shouldNotCallDatabaseWhileImportOfEmptyList() {
+        //when
+        int result = authorService.importAuthors(List.of());
+        //then
+        Assertions.assertEquals(0, result);
+        verifyNoInteractions(mockBulkAuthorsRepository);
+    }
+
     @Test
     @DisplayName("Should return authors with given parameters")
     void shouldReturnAuthorsWithGivenParameters() {
@@ -152,7 +199,6 @@ void shouldReturnAuthorName() throws AuthorNotFoundException, AuthorWithGivenNam
         authorWithNewValues.setId(author.getId());
         authorWithNewValues.setName(name);
         when(mockAuthorRepository.findById(authorWithNewValues.getId())).thenReturn(Optional.of(author));
-        when(mockAuthorRepository.findAll()).thenReturn(List.of(authorEntityList.get(1)));
         //when
         AuthorEntity result = authorService.editAuthor(authorWithNewValues);
         //then
@@ -172,7 +218,42 @@ void shouldEditAuthorNameAndSurname() throws AuthorNotFoundException, AuthorWith
         authorWithNewValues.setName(name);
         authorWithNewValues.setSurname(surname);
         when(mockAuthorRepository.findById(authorWithNewValues.getId())).thenReturn(Optional.of(author));
-        when(mockAuthorRepository.findAll()).thenReturn(List.of(authorEntityList.get(1)));
+        //when
+        AuthorEntity result = authorService.editAuthor(authorWithNewValues);
+        //then
+        Assertions.assertEquals(author, result);
+    }
+
+    @Test
+    @DisplayName("Should edit author surname when author keeps own name")
+    void shouldEditAuthorSurnameWhenAuthorKeepsOwnName() throws AuthorNotFoundException, AuthorWithGivenNameAndSurnameExistsException {
+        //given
+        AuthorEntity author = authorEntityList.get(0);
+        String name = author.getName();
+        String surname = "new surname";
+        AuthorEntity authorWithNewValues = new AuthorEntity();
+        authorWithNewValues.setId(author.getId());
+        authorWithNewValues.setSurname(surname);
+        when(mockAuthorRepository.findById(authorWithNewValues.getId())).thenReturn(Optional.of(author));
+        when(mockAuthorRepository.findAuthorEntitiesByNameAndSurname(name, surname)).thenReturn(Optional.empty());
+        //when
+        AuthorEntity result = authorService.editAuthor(authorWithNewValues);
+        //then
+        Assertions.assertEquals(name, result.getName());
+        Assertions.assertEquals(surname, result.getSurname());
+    }
+
+    @Test
+    @DisplayName("Should edit author when given data belongs to the same author")
+    void shouldEditAuthorWhenGivenDataBelongsToTheSameAuthor() throws AuthorNotFoundException, AuthorWithGivenNameAndSurnameExistsException {
+        //given
+        AuthorEntity author = authorEntityList.get(0);
+        AuthorEntity authorWithNewValues = new AuthorEntity();
+        authorWithNewValues.setId(author.getId());
+        authorWithNewValues.setName(author.getName());
+        authorWithNewValues.setSurname(author.getSurname());
+        when(mockAuthorRepository.findById(authorWithNewValues.getId())).thenReturn(Optional.of(author));
+        when(mockAuthorRepository.findAuthorEntitiesByNameAndSurname(author.getName(), author.getSurname())).thenReturn(Optional.of(author));
         //when
         AuthorEntity result = authorService.editAuthor(authorWithNewValues);
         //then
@@ -226,7 +307,7 @@ void shouldThrowExceptionBecauseAuthorWithGivenNameAndSurnameExistsWhileEdit() t
         authorWithNewValues.setName(name);
         authorWithNewValues.setSurname(surname);
         when(mockAuthorRepository.findById(authorWithNewValues.getId())).thenReturn(Optional.of(authorToEdit));
-        when(mockAuthorRepository.findAll()).thenReturn(authorEntityList);
+        when(mockAuthorRepository.findAuthorEntitiesByNameAndSurname(name, surname)).thenReturn(Optional.of(author));
         //when
         Exception result = Assertions.assertThrows(AuthorWithGivenNameAndSurnameExistsException.class,
                 () -> authorService.editAuthor(authorWithNewValues));
@@ -268,13 +349,13 @@ void shouldThrowExceptionWhileDeleteBecauseAuthorHaveBooks() {
     void shouldReturnListOfBooksWhichAuthorHave() throws AuthorNotFoundException {
         //given
         AuthorEntity author = authorEntityList.get(0);
-        List<BookEntity> bookEntities = List.of(bookEntityList.get(0));
+        List<BookSummary> books = List.of(createBookSummary(bookEntityList.get(0)));
 
         when(mockAuthorRepository.findById(author.getId())).thenReturn(Optional.of(author));
-        when(mockBookRepository.findAllByAuthor(author)).thenReturn(bookEntities);
+        when(mockBookRepository.findSummariesByAuthorId(author.getId())).thenReturn(books);
         //when
-        List<BookEntity> result = authorService.findAllBooksOfGivenAuthor(author.getId());
+        List<BookSummary> result = authorService.findAllBooksOfGivenAuthor(author.getId());
         //then
-        Assertions.assertEquals(bookEntities, result);
+        Assertions.assertEquals(books, result);
     }
 }
@@ -1,6 +1,7 @@
 package services;
 
 import com.company.repository.models.entity.AuthorEntity;
+import com.company.repository.models.entity.BookAvailabilityEntity;
 import com.company.repository.models.entity.BookEntity;
 import com.company.repository.models.entity.LoanEntity;
 import com.company.repository.models.repository.BookRepository;
@@ -10,6 +11,11 @@
 import com.company.service.exceptions.AuthorNotFoundException;
 import com.company.service.exceptions.BookIsCurrentlyBorrowedException;
 import com.company.service.exceptions.BookNotFoundException;
+import com.company.service.exceptions.BookQuantityLowerThanBorrowedCopiesException;
+import com.company.service.exceptions.InvalidPageTokenException;
+import com.company.service.exceptions.TooManyBooksInRequestException;
+import com.company.service.pagination.KeysetPage;
+import com.company.service.pagination.PageTokens;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,15 +29,27 @@
 import org.mockito.quality.Strictness;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockitoTestExecutionListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static services.TestUtils.createAuthors;
+import static services.TestUtils.createBookAvailability;
 import static services.TestUtils.createBooks;
 
 
@@ -90,7 +108,7 @@ void shouldThrowExceptionBecauseAuthorIsNotPresentWhileAdd() throws AuthorNotFou
 
     @Test
     @DisplayName("Should return edited book")
-    void shouldReturnEditedBook() throws AuthorNotFoundException, BookNotFoundException {
+    void shouldReturnEditedBook() throws AuthorNotFoundException, BookNotFoundException, BookQuantityLowerThanBorrowedCopiesException {
         //given
         BookEntity bookEntity = books.get(0);
         Integer quantity = 99;
@@ -99,6 +117,7 @@ void shouldReturnEditedBook() throws AuthorNotFoundException, BookNotFoundExcept
         bookWithNewParams.setQuantity(quantity);
 
         when(mockBookRepository.findById(bookEntity.getId())).thenReturn(Optional.of(bookEntity));
+        when(mockBookRepository.changeAvailableCopies(bookEntity.getId(), quantity - bookEntity.getQuantity())).thenReturn(1);
         //when
         BookEntity result = bookService.editBook(bookWithNewParams);
         //then
@@ -124,7 +143,7 @@ void shouldThrowExceptionBecauseIdIsNotPresentWhileEdit() {
 
     @Test
     @DisplayName("Should return empty book because all values are empty")
-    void shouldReturnTheSameBookBecauseAllValuesAreEmpty() throws AuthorNotFoundException, BookNotFoundException {
+    void shouldReturnTheSameBookBecauseAllValuesAreEmpty() throws AuthorNotFoundException, BookNotFoundException, BookQuantityLowerThanBorrowedCopiesException {
         //given
         BookEntity book = books.get(0);
 
@@ -140,30 +159,66 @@ void shouldReturnTheSameBookBecauseAllValuesAreEmpty() throws AuthorNotFoundExce
 
     @Test
     @DisplayName("Should return list of books with given quantity")
-    void shouldReturnListOfBooksWithGivenQuantity() {
+    void shouldReturnListOfBooksWithGivenQuantity() throws InvalidPageTokenException {
         //given
         List<BookEntity> bookEntities = books;
         BookEntity book = bookEntities.get(0);
         Integer quantity = book.getQuantity();
 
-        when(mockBookRepository.findAll()).thenReturn(bookEntities);
+        when(mockBookRepository.findAllOrderedById(any(Specification.class), anyInt())).thenReturn(List.of(book));
         //when
-        List<BookEntity> results = bookService.findBookByParameters(null, null, null, quantity, null);
+        KeysetPage<BookEntity> results = bookService.findBookByParameters(null, null, null, quantity, null, null, 20);
         //then
-        Assertions.assertEquals(List.of(book), results);
+        Assertions.assertEquals(List.of(book), results.getItems());
+        Assertions.assertNull(results.getNextPageToken());
     }
 
     @Test
     @DisplayName("Should return all books given as parameter because all filter values are empty")
-    void shouldReturnAllBooksGivenAsParameterBecauseAllFilterValuesAreEmpty() {
+    void shouldReturnAllBooksGivenAsParameterBecauseAllFilterValuesAreEmpty() throws InvalidPageTokenException {
         //given
         List<BookEntity> bookEntities = books;
 
-        when(mockBookRepository.findAll()).thenReturn(bookEntities);
+        when(mockBookRepository.findAllOrderedById(any(Specification.class), anyInt())).thenReturn(bookEntities);
         //when
-        List<BookEntity> results = bookService.findBookByParameters(null, null, null, null, null);
+        KeysetPage<BookEntity> results = bookService.findBookByParameters(null, null, null, null, null, null, 20);
         //then
-        Assertions.assertEquals(bookEntities, results);
+        Assertions.assertEquals(bookEntities, results.getItems());
+    }
+
+    @Test
+    @DisplayName("Should limit size of page while find books")
+    void shouldLimitSizeOfPageWhileFindBooks() throws InvalidPageTokenException {
+        //given
+        when(mockBookRepository.findAllOrderedById(any(Specification.class), anyInt())).thenReturn(books);
+        //when
+        bookService.findBookByParameters(null, null, null, null, null, null, BookService.MAX_PAGE_SIZE + 1);
+        //then
+        verify(mockBookRepository).findAllOrderedById(any(Specification.class), eq(BookService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("Should return page of found books with token to next page")
+    void shouldReturnPageOfFoundBooksWithTokenToNextPage() throws InvalidPageTokenException {
+        //given
+        int size = 1;
+        when(mockBookRepository.findAllOrderedById(any(Specification.class), eq(size + 1))).thenReturn(books.subList(0, 2));
+        //when
+        KeysetPage<BookEntity> result = bookService.findBookByParameters(null, null, null, null, null, null, size);
+        //then
+        Assertions.assertEquals(List.of(books.get(0)), result.getItems());
+        Assertions.assertEquals(PageTokens.encode(books.get(0).getId()), result.getNextPageToken());
+    }
+
+    @Test
+    @DisplayName("Should throw exception because page token of found books is incorrect")
+    void shouldThrowExceptionBecausePageTokenOfFoundBooksIsIncorrect() {
+        //when
+        Exception result = Assertions.assertThrows(InvalidPageTokenException.class,
+                () -> bookService.findBookByParameters(null, null, null, null, null, "not a token", 20));
+        //then
+        Assertions.assertEquals(PageTokens.INVALID_PAGE_TOKEN, result.getMessage());
+        verify(mockBookRepository, never()).findAllOrderedById(any(), anyInt());
     }
 
     @Test
@@ -195,4 +250,147 @@ void shouldThrowExceptionWhileDeleteBecauseBookIsCurrentlyBorrowed() {
         //then
         Assertions.assertEquals(BookService.BOOK_IS_CURRENTLY_BORROWED, result.getMessage());
     }
+
+    @Test
+    @DisplayName("Should delete loans of book by one statement and return their number")
+    void shouldDeleteLoansOfBookByOneStatementAndReturnTheirNumber() throws BookNotFoundException, BookIsCurrentlyBorrowedException {
+        //given
+        BookEntity bookEntity = books.get(0);
+        Integer id = bookEntity.getId();
+        when(mockBookRepository.findById(id)).thenReturn(Optional.of(bookEntity));
+        when(mockLoansRepository.findAllByBookAndReturnedDate(bookEntity, null)).thenReturn(List.of());
+        when(mockLoansRepository.deleteAllByBookId(id)).thenReturn(120);
+        //when
+        int result = bookService.deleteBook(id);
+        //then
+        Assertions.assertEquals(120, result);
+        verify(mockBookRepository).deleteById(id);
+    }
+
+    @Test
+    @DisplayName("Should return added book with available copies read after insert")
+    void shouldReturnAddedBookWithAvailableCopiesReadAfterInsert() throws AuthorNotFoundException {
+        //given
+        BookEntity book = books.get(0);
+        book.setQuantityAvailable(0);
+        AuthorEntity authorEntity = authors.get(0);
+        when(mockAuthorService.findAuthorById(authorEntity.getId())).thenReturn(authorEntity);
+        when(mockBookRepository.saveAndFlush(book)).thenAnswer(invocation -> {
+            Assertions.assertNull(book.getAvailability());
+            book.setId(7);
+            return book;
+        });
+        when(mockBookRepository.getAvailability(7)).thenReturn(new BookAvailabilityEntity(7, book.getQuantity()));
+        //when
+        BookEntity result = bookService.addBook(book);
+        //then
+        Assertions.assertEquals(book.getQuantity(), result.getQuantityAvailable());
+    }
+
+    @Test
+    @DisplayName("Should change available copies by difference of quantity while edit")
+    void shouldChangeAvailableCopiesByDifferenceOfQuantityWhileEdit() throws AuthorNotFoundException, BookNotFoundException,
+            BookQuantityLowerThanBorrowedCopiesException {
+        //given
+        BookEntity bookEntity = books.get(0);
+        Integer oldQuantity = bookEntity.getQuantity();
+        BookEntity bookWithNewParams = new BookEntity();
+        bookWithNewParams.setId(bookEntity.getId());
+        bookWithNewParams.setQuantity(oldQuantity + 3);
+
+        when(mockBookRepository.findById(bookEntity.getId())).thenReturn(Optional.of(bookEntity));
+        when(mockBookRepository.changeAvailableCopies(bookEntity.getId(), 3)).thenReturn(1);
+        //when
+        bookService.editBook(bookWithNewParams);
+        //then
+        verify(mockBookRepository).changeAvailableCopies(bookEntity.getId(), 3);
+    }
+
+    @Test
+    @DisplayName("Should throw exception and not change book because quantity is lower than borrowed copies while edit")
+    void shouldThrowExceptionAndNotChangeBookBecauseQuantityIsLowerThanBorrowedCopiesWhileEdit() {
+        //given
+        BookEntity bookEntity = books.get(0);
+        Integer oldQuantity = bookEntity.getQuantity();
+        String oldTitle = bookEntity.getTitle();
+        BookEntity bookWithNewParams = new BookEntity();
+        bookWithNewParams.setId(bookEntity.getId());
+        bookWithNewParams.setTitle("New title");
+        bookWithNewParams.setQuantity(oldQuantity - 2);
+
+        when(mockBookRepository.findById(bookEntity.getId())).thenReturn(Optional.of(bookEntity));
+        when(mockBookRepository.changeAvailableCopies(bookEntity.getId(), -2)).thenReturn(0);
+        //when
+        Exception result = Assertions.assertThrows(BookQuantityLowerThanBorrowedCopiesException.class,
+                () -> bookService.editBook(bookWithNewParams));
+        //then
+        Assertions.assertEquals(BookService.QUANTITY_LOWER_THAN_BORROWED_COPIES, result.getMessage());
+        Assertions.assertEquals(oldQuantity, bookEntity.getQuantity());
+        Assertions.assertEquals(oldTitle, bookEntity.getTitle());
+        verify(mockBookRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should not reserve copy because book is not available")
+    void shouldNotReserveCopyBecauseBookIsNotAvailable() {
+        //given
+        BookEntity book = books.get(0);
+        when(mockBookRepository.reserveCopy(book.getId())).thenReturn(0);
+        //when
+        boolean result = bookService.reserveCopy(book);
+        //then
+        Assertions.assertFalse(result);
+    }
+
+    @Test
+    @DisplayName("Should find availability of all given books by one query")
+    void shouldFindAvailabilityOfAllGivenBooksByOneQuery() throws TooManyBooksInRequestException {
+        //given
+        when(mockBookRepository.findAvailability(Set.of(1, 2, 99))).thenReturn(List.of(createBookAvailability(1, 0), createBookAvailability(2, 3)));
+        //when
+        Map<Integer, Integer> result = bookService.findAvailability(List.of(1, 2, 2, 99));
+        //then
+        Assertions.assertEquals(Map.of(1, 0, 2, 3), result);
+        verify(mockBookRepository).findAvailability(Set.of(1, 2, 99));
+    }
+
+    @Test
+    @DisplayName("Should throw exception because availability of too many books is requested")
+    void shouldThrowExceptionBecauseAvailabilityOfTooManyBooksIsRequested() {
+        //given
+        List<Integer> bookIds = Stream.iterate(1, bookId -> bookId + 1).limit(BookService.MAX_BOOKS_IN_AVAILABILITY_REQUEST + 1).collect(Collectors.toList());
+        //when
+        Exception result = Assertions.assertThrows(TooManyBooksInRequestException.class, () -> bookService.findAvailability(bookIds));
+        //then
+        Assertions.assertEquals(BookService.TOO_MANY_BOOKS_IN_AVAILABILITY_REQUEST, result.getMessage());
+        verify(mockBookRepository, never()).findAvailability(any());
+    }
+
+    @Test
+    @DisplayName("Should return page of books with token to next page")
+    void shouldReturnPageOfBooksWithTokenToNextPage() throws InvalidPageTokenException {
+        //given
+        int size = 1;
+        when(mockBookRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0), any(Pageable.class))).thenReturn(books);
+        when(mockBookRepository.findAllByIdGreaterThanOrderByIdAsc(eq(books.get(0).getId()), any(Pageable.class))).thenReturn(List.of(books.get(1)));
+        //when
+        KeysetPage<BookEntity> firstPage = bookService.findAllBooks(null, size);
+        KeysetPage<BookEntity> secondPage = bookService.findAllBooks(firstPage.getNextPageToken(), size);
+        //then
+        Assertions.assertEquals(List.of(books.get(0)), firstPage.getItems());
+        Assertions.assertEquals(List.of(books.get(1)), secondPage.getItems());
+        Assertions.assertNull(secondPage.getNextPageToken());
+    }
+
+    @Test
+    @DisplayName("Should throw exception because page token is incorrect")
+    void shouldThrowExceptionBecausePageTokenIsIncorrect() {
+        //given
+        String pageToken = "not a token";
+        //when
+        Exception result = Assertions.assertThrows(InvalidPageTokenException.class,
+                () -> bookService.findAllBooks(pageToken, 10));
+        //then
+        Assertions.assertEquals(PageTokens.INVALID_PAGE_TOKEN, result.getMessage());
+    }
 }
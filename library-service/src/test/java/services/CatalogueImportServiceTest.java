@@ -0,0 +1,157 @@
+package services;
+
+import com.company.service.catalogue.CatalogueAuthor;
+import com.company.service.catalogue.CatalogueBatchResult;
+import com.company.service.catalogue.CatalogueBatchWriter;
+import com.company.service.catalogue.CatalogueFormat;
+import com.company.service.catalogue.CatalogueImportReport;
+import com.company.service.catalogue.CatalogueImportService;
+import com.company.service.catalogue.CatalogueRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockitoTestExecutionListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestExecutionListeners(MockitoTestExecutionListener.class)
+@ContextConfiguration
+@AutoConfigureMockMvc
+public class CatalogueImportServiceTest {
+
+    @Mock
+    private CatalogueBatchWriter mockCatalogueBatchWriter;
+
+    private CatalogueImportService catalogueImportService;
+
+    private List<List<CatalogueRecord>> writtenBatches;
+    private List<Map<CatalogueAuthor, Integer>> knownAuthorsOfBatches;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        catalogueImportService = new CatalogueImportService(mockCatalogueBatchWriter, new ObjectMapper());
+        ReflectionTestUtils.setField(catalogueImportService, "batchSize", 2);
+        writtenBatches = new ArrayList<>();
+        knownAuthorsOfBatches = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Should import valid csv records and report incorrect ones")
+    void shouldImportValidCsvRecordsAndReportIncorrectOnes() throws IOException {
+        //given
+        String catalogue = "title,author_name,author_surname,quantity\n" +
+                "\"Title, part 1\",Name1,surname1,2\n" +
+                "title2,Name1,surname1,many\n" +
+                "\n" +
+                "title which is too long,Name1,surname1,1\n" +
+                "title3,Name2,surname2,1\n";
+        writeBatchesSuccessfully();
+        //when
+        CatalogueImportReport result = catalogueImportService.importCatalogue(toInputStream(catalogue), CatalogueFormat.CSV);
+        //then
+        Assertions.assertEquals(4, result.getProcessedRecords());
+        Assertions.assertEquals(2, result.getImportedBooks());
+        Assertions.assertEquals(2, result.getRejectedRecords());
+        Assertions.assertEquals(List.of("line 3: Incorrect quantity many", "line 5: " + CatalogueImportService.TOO_LONG_TEXT), result.getErrors());
+        Assertions.assertEquals(1, writtenBatches.size());
+        Assertions.assertEquals("Title, part 1", writtenBatches.get(0).get(0).getTitle());
+        Assertions.assertEquals(CatalogueAuthor.of("Name2", "surname2"), writtenBatches.get(0).get(1).getAuthor());
+    }
+
+    @Test
+    @DisplayName("Should import ndjson records and report incorrect json")
+    void shouldImportNdjsonRecordsAndReportIncorrectJson() throws IOException {
+        //given
+        String catalogue = "{\"title\":\"title1\",\"authorName\":\"Name1\",\"authorSurname\":\"surname1\",\"quantity\":3}\n" +
+                "{\"title\":\"title2\",\n" +
+                "{\"title\":\"title3\",\"authorName\":\"Name1\",\"quantity\":1}\n";
+        writeBatchesSuccessfully();
+        //when
+        CatalogueImportReport result = catalogueImportService.importCatalogue(toInputStream(catalogue), CatalogueFormat.NDJSON);
+        //then
+        Assertions.assertEquals(3, result.getProcessedRecords());
+        Assertions.assertEquals(1, result.getImportedBooks());
+        Assertions.assertEquals(2, result.getRejectedRecords());
+        Assertions.assertEquals("line 3: " + CatalogueImportService.MISSING_AUTHOR, result.getErrors().get(1));
+        Assertions.assertEquals(3, writtenBatches.get(0).get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should pass authors resolved by previous batch to next batch")
+    void shouldPassAuthorsResolvedByPreviousBatchToNextBatch() throws IOException {
+        //given
+        String catalogue = "title1,Name1,surname1,1\n" +
+                "title2,Name2,surname2,1\n" +
+                "title3,Name1,surname1,1\n";
+        writeBatchesSuccessfully();
+        //when
+        CatalogueImportReport result = catalogueImportService.importCatalogue(toInputStream(catalogue), CatalogueFormat.CSV);
+        //then
+        Assertions.assertEquals(3, result.getImportedBooks());
+        Assertions.assertEquals(2, result.getCreatedAuthors());
+        Assertions.assertEquals(2, writtenBatches.size());
+        Assertions.assertEquals(Map.of(), knownAuthorsOfBatches.get(0));
+        Assertions.assertEquals(2, knownAuthorsOfBatches.get(1).size());
+    }
+
+    @Test
+    @DisplayName("Should continue import after batch which couldn't be saved")
+    void shouldContinueImportAfterBatchWhichCouldntBeSaved() throws IOException {
+        //given
+        String catalogue = "title1,Name1,surname1,1\n" +
+                "title2,Name2,surname2,1\n" +
+                "title3,Name3,surname3,1\n";
+        when(mockCatalogueBatchWriter.write(anyList(), anyMap()))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(new CatalogueBatchResult(Map.of(), 0, 1));
+        //when
+        CatalogueImportReport result = catalogueImportService.importCatalogue(toInputStream(catalogue), CatalogueFormat.CSV);
+        //then
+        Assertions.assertEquals(1, result.getImportedBooks());
+        Assertions.assertEquals(2, result.getRejectedRecords());
+        Assertions.assertTrue(result.getErrors().get(0).startsWith("line 1: Batch of 2 records was not imported"));
+    }
+
+    private void writeBatchesSuccessfully() {
+        when(mockCatalogueBatchWriter.write(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<CatalogueRecord> records = invocation.getArgument(0);
+            Map<CatalogueAuthor, Integer> knownAuthors = invocation.getArgument(1);
+            writtenBatches.add(new ArrayList<>(records));
+            knownAuthorsOfBatches.add(new HashMap<>(knownAuthors));
+            Map<CatalogueAuthor, Integer> resolvedAuthors = new HashMap<>();
+            records.stream()
+                    .map(CatalogueRecord::getAuthor)
+                    .filter(author -> !knownAuthors.containsKey(author))
+                    .forEach(author -> resolvedAuthors.putIfAbsent(author, resolvedAuthors.size() + knownAuthors.size() + 1));
+            return new CatalogueBatchResult(resolvedAuthors, resolvedAuthors.size(), records.size());
+        });
+    }
+
+    private static InputStream toInputStream(String catalogue) {
+        return new ByteArrayInputStream(catalogue.getBytes(StandardCharsets.UTF_8));
+    }
+}
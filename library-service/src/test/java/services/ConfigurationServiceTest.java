@@ -1,7 +1,9 @@
 package services;
 
+import com.company.repository.models.configuration.LendingRules;
 import com.company.repository.models.repository.ConfigurationRepository;
 import com.company.service.ConfigurationService;
+import com.company.service.LendingRulesCache;
 import com.company.service.exceptions.ConfigurationValueIncorrectException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +19,10 @@
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 @ExtendWith(MockitoExtension.class)
 @TestExecutionListeners(MockitoTestExecutionListener.class)
 @ContextConfiguration
@@ -31,7 +37,7 @@ public class ConfigurationServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        configurationService = new ConfigurationService(configurationRepository);
+        configurationService = new ConfigurationService(configurationRepository, new LendingRulesCache(configurationRepository));
     }
 
     @Test
@@ -69,4 +75,35 @@ void shouldThrowExceptionBecauseNumberOfDaysIsIncorrect() {
         //then
         Assertions.assertEquals(ConfigurationService.INCORRECT_VALUE, result.getMessage());
     }
+
+    @Test
+    @DisplayName("Should load lending rules from database only once")
+    void shouldLoadLendingRulesFromDatabaseOnlyOnce() {
+        //given
+        when(configurationRepository.getLendingRules()).thenReturn(new LendingRules(5, 30, 12));
+        //when
+        int maxNumberOfBorrowedBooks = configurationService.getMaxNumberOfBorrowedBooks();
+        int maxNumberOfDaysToBorrowABook = configurationService.getMaxNumberOfDaysToBorrowABook();
+        Integer minAgeToBorrowABook = configurationService.getMinAgeToBorrowABook();
+        //then
+        Assertions.assertEquals(5, maxNumberOfBorrowedBooks);
+        Assertions.assertEquals(30, maxNumberOfDaysToBorrowABook);
+        Assertions.assertEquals(12, minAgeToBorrowABook);
+        verify(configurationRepository, times(1)).getLendingRules();
+    }
+
+    @Test
+    @DisplayName("Should swap lending rules after edit")
+    void shouldSwapLendingRulesAfterEdit() throws ConfigurationValueIncorrectException {
+        //given
+        when(configurationRepository.getLendingRules()).thenReturn(new LendingRules(5, 30, 12), new LendingRules(7, 30, 12));
+        configurationService.getMaxNumberOfBorrowedBooks();
+        //when
+        configurationService.editNumberOfBorrowedBooks(7);
+        int result = configurationService.getMaxNumberOfBorrowedBooks();
+        //then
+        Assertions.assertEquals(7, result);
+        verify(configurationRepository).editNumberOfBorrowedBooks(7);
+        verify(configurationRepository, times(2)).getLendingRules();
+    }
 }
@@ -0,0 +1,116 @@
+package services;
+
+import com.company.repository.models.repository.LoansRepository;
+import com.company.service.BookService;
+import com.company.service.LoanHistoryPurgeService;
+import com.company.service.ReaderService;
+import com.company.service.exceptions.BookNotFoundException;
+import com.company.service.exceptions.ReaderHasCurrentlyBookOnLoanException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockitoTestExecutionListener;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestExecutionListeners(MockitoTestExecutionListener.class)
+@ContextConfiguration
+@AutoConfigureMockMvc
+public class LoanHistoryPurgeServiceTest {
+
+    @Mock
+    private LoansRepository mockLoansRepository;
+    @Mock
+    private ReaderService mockReaderService;
+    @Mock
+    private BookService mockBookService;
+
+    private LoanHistoryPurgeService loanHistoryPurgeService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        loanHistoryPurgeService = new LoanHistoryPurgeService(mockLoansRepository, mockReaderService, mockBookService);
+        ReflectionTestUtils.setField(loanHistoryPurgeService, "chunkSize", 1000);
+    }
+
+    @Test
+    @DisplayName("Should delete loans of reader in chunks until chunk isn't full and then delete reader")
+    void shouldDeleteLoansOfReaderInChunksUntilChunkIsntFullAndThenDeleteReader() throws Exception {
+        //given
+        Integer readerId = 1;
+        when(mockLoansRepository.deleteReturnedLoansOfReader(readerId, 1000)).thenReturn(1000, 1000, 250);
+        when(mockReaderService.deleteReader(readerId)).thenReturn(0);
+        //when
+        CompletableFuture<Integer> result = loanHistoryPurgeService.deleteReaderInChunks(readerId);
+        //then
+        Assertions.assertEquals(2250, result.get());
+        verify(mockLoansRepository, times(3)).deleteReturnedLoansOfReader(readerId, 1000);
+        verify(mockReaderService).deleteReader(readerId);
+    }
+
+    @Test
+    @DisplayName("Should fail deletion of reader who borrowed book while his history was deleted")
+    void shouldFailDeletionOfReaderWhoBorrowedBookWhileHisHistoryWasDeleted() throws Exception {
+        //given
+        Integer readerId = 1;
+        when(mockLoansRepository.deleteReturnedLoansOfReader(readerId, 1000)).thenReturn(10);
+        when(mockReaderService.deleteReader(readerId))
+                .thenThrow(new ReaderHasCurrentlyBookOnLoanException(ReaderService.READER_HAVE_CURRENTLY_BORROWED_BOOKS));
+        //when
+        CompletableFuture<Integer> result = loanHistoryPurgeService.deleteReaderInChunks(readerId);
+        //then
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class, result::get);
+        Assertions.assertTrue(ex.getCause() instanceof ReaderHasCurrentlyBookOnLoanException);
+    }
+
+    @Test
+    @DisplayName("Should not delete any loan of reader who can't be deleted")
+    void shouldNotDeleteAnyLoanOfReaderWhoCantBeDeleted() throws Exception {
+        //given
+        Integer readerId = 1;
+        doThrow(new ReaderHasCurrentlyBookOnLoanException(ReaderService.READER_HAVE_CURRENTLY_BORROWED_BOOKS))
+                .when(mockReaderService).checkReaderCanBeDeleted(readerId);
+        //when
+        CompletableFuture<Integer> result = loanHistoryPurgeService.deleteReaderInChunks(readerId);
+        //then
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class, result::get);
+        Assertions.assertTrue(ex.getCause() instanceof ReaderHasCurrentlyBookOnLoanException);
+        verify(mockLoansRepository, never()).deleteReturnedLoansOfReader(any(), anyInt());
+        verify(mockReaderService, never()).deleteReader(readerId);
+    }
+
+    @Test
+    @DisplayName("Should not delete any loan of book which doesn't exist")
+    void shouldNotDeleteAnyLoanOfBookWhichDoesntExist() throws Exception {
+        //given
+        Integer bookId = 1;
+        doThrow(new BookNotFoundException(BookService.NOT_FOUND_BOOK_WITH_GIVEN_ID)).when(mockBookService).checkBookCanBeDeleted(bookId);
+        //when
+        CompletableFuture<Integer> result = loanHistoryPurgeService.deleteBookInChunks(bookId);
+        //then
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class, result::get);
+        Assertions.assertTrue(ex.getCause() instanceof BookNotFoundException);
+        verify(mockLoansRepository, never()).deleteReturnedLoansOfBook(any(), anyInt());
+        verify(mockBookService, never()).deleteBook(bookId);
+    }
+}
@@ -3,11 +3,15 @@
 import com.company.repository.models.entity.BookEntity;
 import com.company.repository.models.entity.LoanEntity;
 import com.company.repository.models.entity.ReaderEntity;
+import com.company.repository.models.repository.BulkLoansRepository;
 import com.company.repository.models.repository.LoansRepository;
 import com.company.service.BookService;
 import com.company.service.LoanService;
 import com.company.service.ReaderService;
 import com.company.service.exceptions.*;
+import com.company.service.loans.BookLoanStatus;
+import com.company.service.pagination.KeysetPage;
+import com.company.service.pagination.PageTokens;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,13 +25,24 @@
 import org.mockito.quality.Strictness;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockitoTestExecutionListener;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 
+import javax.persistence.EntityManager;
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static services.TestUtils.*;
 
@@ -41,9 +56,13 @@ public class LoanServiceTest {
     @Mock
     private LoansRepository mockLoansRepository;
     @Mock
+    private BulkLoansRepository mockBulkLoansRepository;
+    @Mock
     private ReaderService mockReaderService;
     @Mock
     private BookService mockBookService;
+    @Mock
+    private EntityManager mockEntityManager;
     @InjectMocks
     private LoanService loanService;
 
@@ -54,7 +73,7 @@ public class LoanServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        loanService = new LoanService(mockLoansRepository, mockReaderService, mockBookService);
+        loanService = new LoanService(mockLoansRepository, mockBulkLoansRepository, mockReaderService, mockBookService, mockEntityManager);
         readers = createReaders();
         books = createBooks();
         loans = createLoans();
@@ -69,7 +88,7 @@ void shouldThrowExceptionBecauseNotFoundLoanToReturnBook() throws ReaderNotFound
         BookEntity book = books.get(0);
         Integer bookId = book.getId();
 
-        when(mockReaderService.findReaderById(readerId)).thenReturn(reader);
+        when(mockReaderService.findReaderByIdForUpdate(readerId)).thenReturn(reader);
         when(mockBookService.findBookById(bookId)).thenReturn(book);
         when(mockLoansRepository.findAllByReaderAndBookAndReturnedDate(reader, book, null)).thenReturn(List.of());
         //when
@@ -92,7 +111,7 @@ void shouldReturnBook() throws ReaderNotFoundException, BookNotFoundException, L
         loan.setBook(book);
         loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(10)));
 
-        when(mockReaderService.findReaderById(readerId)).thenReturn(reader);
+        when(mockReaderService.findReaderByIdForUpdate(readerId)).thenReturn(reader);
         when(mockBookService.findBookById(bookId)).thenReturn(book);
         when(mockLoansRepository.findAllByReaderAndBookAndReturnedDate(reader, book, null)).thenReturn(List.of(loan));
         //when
@@ -102,24 +121,21 @@ void shouldReturnBook() throws ReaderNotFoundException, BookNotFoundException, L
         Assertions.assertEquals(loan.getReader(), result.getReader());
         Assertions.assertEquals(loan.getBorrowDate(), result.getBorrowDate());
         Assertions.assertNotNull(result.getReturnedDate());
+        verify(mockBookService).releaseCopy(book);
+        verify(mockReaderService).registerReturnedBook(reader);
     }
 
     @Test
     @DisplayName("Should throw exception because reader currently have book")
-    void shouldThrowExceptionBecauseReaderCurrentlyHaveBook() throws ReaderNotFoundException, BookNotFoundException {
+    void shouldThrowExceptionBecauseReaderCurrentlyHaveBook() throws ReaderNotFoundException, BookNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, ReaderCurrentlyHaveThisBookException {
         //given
         ReaderEntity reader = readers.get(0);
         Integer readerId = reader.getId();
         BookEntity book = books.get(0);
         Integer bookId = book.getId();
-        LoanEntity loan = new LoanEntity();
-        loan.setReader(reader);
-        loan.setBook(book);
-        loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(10)));
 
-        when(mockReaderService.findReaderById(readerId)).thenReturn(reader);
-        when(mockBookService.findBookById(bookId)).thenReturn(book);
-        when(mockLoansRepository.findAllByReaderAndBookAndReturnedDate(reader, book, null)).thenReturn(List.of(loan));
+        when(mockReaderService.checkReaderCanBorrowABook(readerId, bookId))
+                .thenThrow(new ReaderCurrentlyHaveThisBookException(LoanService.BOOK_IS_CURRENTLY_BORROWED));
         //when
         Exception result = Assertions.assertThrows(ReaderCurrentlyHaveThisBookException.class,
                 () -> loanService.borrowBook(bookId, readerId));
@@ -127,9 +143,29 @@ void shouldThrowExceptionBecauseReaderCurrentlyHaveBook() throws ReaderNotFoundE
         Assertions.assertEquals(LoanService.BOOK_IS_CURRENTLY_BORROWED, result.getMessage());
     }
 
+    @Test
+    @DisplayName("Should throw exception because reader returned book today")
+    void shouldThrowExceptionBecauseReaderReturnedBookToday() throws ReaderNotFoundException, BookNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, ReaderCurrentlyHaveThisBookException {
+        //given
+        ReaderEntity reader = readers.get(0);
+        Integer readerId = reader.getId();
+        BookEntity book = books.get(0);
+        Integer bookId = book.getId();
+
+        when(mockReaderService.checkReaderCanBorrowABook(readerId, bookId)).thenReturn(reader);
+        when(mockLoansRepository.existsReturnedLoanBorrowedOn(bookId, readerId, Date.valueOf(LocalDate.now()))).thenReturn(true);
+        //when
+        Exception result = Assertions.assertThrows(ReaderReturnedThisBookTodayException.class,
+                () -> loanService.borrowBook(bookId, readerId));
+        //then
+        Assertions.assertEquals(LoanService.BOOK_WAS_RETURNED_TODAY, result.getMessage());
+        verify(mockBookService, never()).reserveCopy(any());
+        verify(mockBulkLoansRepository, never()).insertLoan(any(), any(), any());
+    }
+
     @Test
     @DisplayName("Should throw exception because book is not available")
-    void shouldThrowExceptionBecauseBookIsNotAvailable() throws ReaderNotFoundException, BookNotFoundException {
+    void shouldThrowExceptionBecauseBookIsNotAvailable() throws ReaderNotFoundException, BookNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, ReaderCurrentlyHaveThisBookException {
         //given
         ReaderEntity reader = readers.get(0);
         Integer readerId = reader.getId();
@@ -141,9 +177,9 @@ void shouldThrowExceptionBecauseBookIsNotAvailable() throws ReaderNotFoundExcept
         loan.setBook(book);
         loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(10)));
 
-        when(mockReaderService.findReaderById(readerId)).thenReturn(reader);
-        when(mockBookService.findBookById(bookId)).thenReturn(book);
-        when(mockLoansRepository.findAllByReaderAndBookAndReturnedDate(reader, book, null)).thenReturn(List.of());
+        when(mockReaderService.checkReaderCanBorrowABook(readerId, bookId)).thenReturn(reader);
+        when(mockBookService.getBookReference(bookId)).thenReturn(book);
+        when(mockBookService.reserveCopy(book)).thenReturn(false);
         //when
         Exception result = Assertions.assertThrows(BookNotAvailableException.class,
                 () -> loanService.borrowBook(bookId, readerId));
@@ -153,7 +189,7 @@ void shouldThrowExceptionBecauseBookIsNotAvailable() throws ReaderNotFoundExcept
 
     @Test
     @DisplayName("Reader should borrow a book")
-    void readerShouldBorrowBook() throws ReaderNotFoundException, BookNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, ReaderCurrentlyHaveThisBookException, BookNotAvailableException {
+    void readerShouldBorrowBook() throws ReaderNotFoundException, BookNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, ReaderCurrentlyHaveThisBookException, BookNotAvailableException, ReaderReturnedThisBookTodayException {
         //given
         ReaderEntity reader = readers.get(0);
         Integer readerId = reader.getId();
@@ -165,14 +201,17 @@ void readerShouldBorrowBook() throws ReaderNotFoundException, BookNotFoundExcept
         loan.setBook(book);
         loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(10)));
 
-        when(mockReaderService.findReaderById(readerId)).thenReturn(reader);
-        when(mockBookService.findBookById(bookId)).thenReturn(book);
-        when(mockLoansRepository.findAllByReaderAndBookAndReturnedDate(reader, book, null)).thenReturn(List.of());
+        when(mockReaderService.checkReaderCanBorrowABook(readerId, bookId)).thenReturn(reader);
+        when(mockBookService.getBookReference(bookId)).thenReturn(book);
+        when(mockBookService.reserveCopy(book)).thenReturn(true);
+        when(mockBulkLoansRepository.insertLoan(bookId, readerId, Date.valueOf(LocalDate.now()))).thenReturn(Date.valueOf(LocalDate.now().plusDays(10)));
         //when
         LoanEntity loanEntity = loanService.borrowBook(bookId, readerId);
         //then
         Assertions.assertEquals(reader, loanEntity.getReader());
         Assertions.assertEquals(book, loanEntity.getBook());
+        Assertions.assertEquals(Date.valueOf(LocalDate.now().plusDays(10)), loanEntity.getDueDate());
+        verify(mockReaderService).registerBorrowedBook(reader);
     }
 
     @Test
@@ -212,4 +251,158 @@ void shouldReturnLoansOfGivenBook() throws BookNotFoundException {
         //then
         Assertions.assertEquals(List.of(loan), result);
     }
+
+    @Test
+    @DisplayName("Should return page of overdue loans starting after due date, reader and book of last loan from previous page")
+    void shouldReturnPageOfOverdueLoansStartingAfterDueDateReaderAndBookOfLastLoanFromPreviousPage() throws InvalidPageTokenException {
+        //given
+        Date dueDate = Date.valueOf(LocalDate.now().minusDays(3));
+        List<LoanEntity> overdueLoans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            LoanEntity loan = new LoanEntity();
+            loan.setReader(readers.get(i % readers.size()));
+            loan.setBook(books.get(0));
+            loan.setDueDate(dueDate);
+            overdueLoans.add(loan);
+        }
+        String pageToken = PageTokens.encode(dueDate, 1, 2);
+        when(mockLoansRepository.findOverdueLoansAfter(eq(Date.valueOf(LocalDate.now())), eq(dueDate), eq(1), eq(2), any(Pageable.class)))
+                .thenReturn(overdueLoans);
+        //when
+        KeysetPage<LoanEntity> result = loanService.findOverdue(pageToken, 2);
+        //then
+        Assertions.assertEquals(overdueLoans.subList(0, 2), result.getItems());
+        Assertions.assertEquals(PageTokens.encode(dueDate, readers.get(1).getId(), books.get(0).getId()), result.getNextPageToken());
+    }
+
+    @Test
+    @DisplayName("Should return page of loans starting after key of last loan from previous page")
+    void shouldReturnPageOfLoansStartingAfterKeyOfLastLoanFromPreviousPage() throws InvalidPageTokenException {
+        //given
+        LoanEntity loan = new LoanEntity();
+        loan.setReader(readers.get(0));
+        loan.setBook(books.get(0));
+        loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(10)));
+        String pageToken = PageTokens.encode(1, 2, loan.getBorrowDate());
+        when(mockLoansRepository.findAllAfter(eq(1), eq(2), eq(loan.getBorrowDate()), any(Pageable.class))).thenReturn(List.of(loan));
+        //when
+        KeysetPage<LoanEntity> result = loanService.findAll(pageToken, 10);
+        //then
+        Assertions.assertEquals(List.of(loan), result.getItems());
+        Assertions.assertNull(result.getNextPageToken());
+    }
+
+    @Test
+    @DisplayName("Should export every loan and close stream of loans")
+    void shouldExportEveryLoanAndCloseStreamOfLoans() {
+        //given
+        List<LoanEntity> exportedLoans = new ArrayList<>();
+        AtomicInteger closedStreams = new AtomicInteger();
+        when(mockLoansRepository.streamAll()).thenReturn(loans.stream().onClose(closedStreams::incrementAndGet));
+        //when
+        loanService.exportAll(exportedLoans::add);
+        //then
+        Assertions.assertEquals(loans, exportedLoans);
+        Assertions.assertEquals(1, closedStreams.get());
+    }
+
+    @Test
+    @DisplayName("Should borrow available books and report status of every other book")
+    void shouldBorrowAvailableBooksAndReportStatusOfEveryOtherBook() throws ReaderNotFoundException, ReaderTooYoungException,
+            ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, TooManyBooksInRequestException {
+        //given
+        Integer readerId = readers.get(0).getId();
+        when(mockReaderService.checkReaderCanBorrowBooks(readerId)).thenReturn(3);
+        when(mockLoansRepository.findBorrowStatuses(eq(readerId), any(), any(Date.class))).thenReturn(List.of(createBookBorrowStatus(1, false),
+                createBookBorrowStatus(2, true), createBookBorrowStatus(3, false), createBookBorrowStatus(4, false),
+                createBookBorrowStatus(5, false), createBookBorrowStatus(6, false)));
+        when(mockBookService.reserveCopies(List.of(1, 3, 4))).thenReturn(List.of(1, 4));
+        when(mockBookService.reserveCopies(List.of(5))).thenReturn(List.of(5));
+        //when
+        List<BookLoanStatus> result = loanService.borrowBooks(readerId, List.of(1, 2, 3, 1, 4, 5, 6, 99));
+        //then
+        Assertions.assertEquals(List.of(
+                new BookLoanStatus(1, BookLoanStatus.Status.BORROWED),
+                new BookLoanStatus(2, BookLoanStatus.Status.READER_CURRENTLY_HAVE_THIS_BOOK),
+                new BookLoanStatus(3, BookLoanStatus.Status.BOOK_NOT_AVAILABLE),
+                new BookLoanStatus(1, BookLoanStatus.Status.DUPLICATED),
+                new BookLoanStatus(4, BookLoanStatus.Status.BORROWED),
+                new BookLoanStatus(5, BookLoanStatus.Status.BORROWED),
+                new BookLoanStatus(6, BookLoanStatus.Status.READER_HAVE_TOO_MUCH_BOOKS),
+                new BookLoanStatus(99, BookLoanStatus.Status.BOOK_NOT_FOUND)), result);
+        verify(mockBulkLoansRepository).insertLoans(readerId, List.of(1, 4, 5), Date.valueOf(LocalDate.now()));
+        verify(mockReaderService).registerBorrowedBooks(readerId, 3);
+    }
+
+    @Test
+    @DisplayName("Should reject request with more books than limit")
+    void shouldRejectRequestWithMoreBooksThanLimit() throws ReaderNotFoundException, ReaderTooYoungException, ReaderHaveBooksTooLongException,
+            ReaderHaveTooMuchBooksException {
+        //given
+        Integer readerId = readers.get(0).getId();
+        List<Integer> bookIds = Stream.iterate(1, bookId -> bookId + 1).limit(LoanService.MAX_BOOKS_PER_REQUEST + 1).collect(Collectors.toList());
+        //when
+        Exception borrowResult = Assertions.assertThrows(TooManyBooksInRequestException.class,
+                () -> loanService.borrowBooks(readerId, bookIds));
+        Exception returnResult = Assertions.assertThrows(TooManyBooksInRequestException.class,
+                () -> loanService.returnBooks(readerId, bookIds));
+        //then
+        Assertions.assertEquals(LoanService.TOO_MANY_BOOKS_IN_REQUEST, borrowResult.getMessage());
+        Assertions.assertEquals(LoanService.TOO_MANY_BOOKS_IN_REQUEST, returnResult.getMessage());
+        verify(mockReaderService, never()).checkReaderCanBorrowBooks(any());
+        verify(mockBookService, never()).reserveCopies(anyList());
+    }
+
+    @Test
+    @DisplayName("Should not borrow again books which reader returned today")
+    void shouldNotBorrowAgainBooksWhichReaderReturnedToday() throws ReaderNotFoundException, ReaderTooYoungException,
+            ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, TooManyBooksInRequestException {
+        //given
+        Integer readerId = readers.get(0).getId();
+        when(mockReaderService.checkReaderCanBorrowBooks(readerId)).thenReturn(2);
+        when(mockLoansRepository.findBorrowStatuses(eq(readerId), any(), eq(Date.valueOf(LocalDate.now()))))
+                .thenReturn(List.of(createBookBorrowStatus(1, false, true), createBookBorrowStatus(2, false, false)));
+        when(mockBookService.reserveCopies(List.of(2))).thenReturn(List.of(2));
+        //when
+        List<BookLoanStatus> result = loanService.borrowBooks(readerId, List.of(1, 2));
+        //then
+        Assertions.assertEquals(List.of(
+                new BookLoanStatus(1, BookLoanStatus.Status.READER_RETURNED_THIS_BOOK_TODAY),
+                new BookLoanStatus(2, BookLoanStatus.Status.BORROWED)), result);
+        verify(mockBulkLoansRepository).insertLoans(eq(readerId), eq(List.of(2)), any(Date.class));
+    }
+
+    @Test
+    @DisplayName("Should return borrowed books and report books without open loan")
+    void shouldReturnBorrowedBooksAndReportBooksWithoutOpenLoan() throws ReaderNotFoundException, TooManyBooksInRequestException {
+        //given
+        Integer readerId = readers.get(0).getId();
+        when(mockBulkLoansRepository.closeOpenLoans(eq(readerId), any(), any(Date.class))).thenReturn(List.of(2));
+        //when
+        List<BookLoanStatus> result = loanService.returnBooks(readerId, List.of(1, 2, 2));
+        //then
+        Assertions.assertEquals(List.of(
+                new BookLoanStatus(1, BookLoanStatus.Status.LOAN_NOT_FOUND),
+                new BookLoanStatus(2, BookLoanStatus.Status.RETURNED),
+                new BookLoanStatus(2, BookLoanStatus.Status.DUPLICATED)), result);
+        verify(mockReaderService).findReaderByIdForUpdate(readerId);
+        verify(mockBookService).releaseCopies(List.of(2));
+        verify(mockReaderService).registerReturnedBooks(readerId, 1);
+    }
+
+    @Test
+    @DisplayName("Should not insert loans when no book can be borrowed")
+    void shouldNotInsertLoansWhenNoBookCanBeBorrowed() throws ReaderNotFoundException, ReaderTooYoungException,
+            ReaderHaveBooksTooLongException, ReaderHaveTooMuchBooksException, TooManyBooksInRequestException {
+        //given
+        Integer readerId = readers.get(0).getId();
+        when(mockReaderService.checkReaderCanBorrowBooks(readerId)).thenReturn(2);
+        when(mockLoansRepository.findBorrowStatuses(eq(readerId), any(), any(Date.class))).thenReturn(List.of());
+        //when
+        List<BookLoanStatus> result = loanService.borrowBooks(readerId, List.of(7));
+        //then
+        Assertions.assertEquals(List.of(new BookLoanStatus(7, BookLoanStatus.Status.BOOK_NOT_FOUND)), result);
+        verify(mockBookService, never()).reserveCopies(anyList());
+        verify(mockBulkLoansRepository, never()).insertLoans(any(), any(), any());
+    }
 }
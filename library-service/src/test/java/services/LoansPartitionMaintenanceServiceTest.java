@@ -0,0 +1,72 @@
+package services;
+
+import com.company.repository.models.repository.LoansPartitionsRepository;
+import com.company.service.LoansPartitionMaintenanceService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockitoTestExecutionListener;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestExecutionListeners(MockitoTestExecutionListener.class)
+@ContextConfiguration
+@AutoConfigureMockMvc
+public class LoansPartitionMaintenanceServiceTest {
+
+    @Mock
+    private LoansPartitionsRepository mockLoansPartitionsRepository;
+
+    private LoansPartitionMaintenanceService maintenanceService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        maintenanceService = new LoansPartitionMaintenanceService(mockLoansPartitionsRepository);
+        ReflectionTestUtils.setField(maintenanceService, "monthsAhead", 3);
+    }
+
+    @Test
+    @DisplayName("Should create partitions of next months and not detach anything when archival is disabled")
+    void shouldCreatePartitionsOfNextMonthsAndNotDetachAnythingWhenArchivalIsDisabled() {
+        //given
+        LocalDate today = LocalDate.now();
+        when(mockLoansPartitionsRepository.createHistoryPartitions(Date.valueOf(today), Date.valueOf(today.plusMonths(3)))).thenReturn(1);
+        //when
+        List<String> result = maintenanceService.maintainPartitions();
+        //then
+        Assertions.assertEquals(List.of(), result);
+        verify(mockLoansPartitionsRepository, never()).detachHistoryPartitions(any());
+    }
+
+    @Test
+    @DisplayName("Should detach partitions of loans returned before first day of month given number of months ago")
+    void shouldDetachPartitionsOfLoansReturnedBeforeFirstDayOfMonthGivenNumberOfMonthsAgo() {
+        //given
+        ReflectionTestUtils.setField(maintenanceService, "archiveAfterMonths", 24);
+        Date archiveBefore = Date.valueOf(LocalDate.now().withDayOfMonth(1).minusMonths(24));
+        List<String> detached = List.of("loans_returned_2020_01", "loans_returned_2020_02");
+        when(mockLoansPartitionsRepository.detachHistoryPartitions(archiveBefore)).thenReturn(detached);
+        //when
+        List<String> result = maintenanceService.maintainPartitions();
+        //then
+        Assertions.assertEquals(detached, result);
+    }
+}
@@ -0,0 +1,80 @@
+package services;
+
+import com.company.repository.models.repository.ReaderRepository;
+import com.company.service.ReaderLoanCountersReconciliationService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockitoTestExecutionListener;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestExecutionListeners(MockitoTestExecutionListener.class)
+@ContextConfiguration
+@AutoConfigureMockMvc
+public class ReaderLoanCountersReconciliationServiceTest {
+
+    @Mock
+    private ReaderRepository mockReaderRepository;
+    @InjectMocks
+    private ReaderLoanCountersReconciliationService reconciliationService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        reconciliationService = new ReaderLoanCountersReconciliationService(mockReaderRepository);
+    }
+
+    @Test
+    @DisplayName("Should only report readers with incorrect counters when repair is disabled")
+    void shouldOnlyReportReadersWithIncorrectCountersWhenRepairIsDisabled() {
+        //given
+        List<Integer> readersIds = List.of(1, 2);
+        when(mockReaderRepository.findIdsOfReadersWithIncorrectLoanCounters()).thenReturn(readersIds);
+        //when
+        List<Integer> result = reconciliationService.reconcileLoanCounters();
+        //then
+        Assertions.assertEquals(readersIds, result);
+        verify(mockReaderRepository, never()).recalculateLoanCounters(any());
+    }
+
+    @Test
+    @DisplayName("Should recalculate counters of readers with incorrect counters when repair is enabled")
+    void shouldRecalculateCountersOfReadersWithIncorrectCountersWhenRepairIsEnabled() {
+        //given
+        List<Integer> readersIds = List.of(1, 2);
+        ReflectionTestUtils.setField(reconciliationService, "repairIncorrectCounters", true);
+        when(mockReaderRepository.findIdsOfReadersWithIncorrectLoanCounters()).thenReturn(readersIds);
+        //when
+        reconciliationService.reconcileLoanCounters();
+        //then
+        verify(mockReaderRepository).recalculateLoanCounters(readersIds);
+    }
+
+    @Test
+    @DisplayName("Should not recalculate anything because every counter is correct")
+    void shouldNotRecalculateAnythingBecauseEveryCounterIsCorrect() {
+        //given
+        ReflectionTestUtils.setField(reconciliationService, "repairIncorrectCounters", true);
+        when(mockReaderRepository.findIdsOfReadersWithIncorrectLoanCounters()).thenReturn(List.of());
+        //when
+        List<Integer> result = reconciliationService.reconcileLoanCounters();
+        //then
+        Assertions.assertEquals(List.of(), result);
+        verify(mockReaderRepository, never()).recalculateLoanCounters(any());
+    }
+}
@@ -1,10 +1,13 @@
 package services;
 
+import com.company.repository.models.configuration.LendingRules;
 import com.company.repository.models.entity.ChildEntity;
 import com.company.repository.models.entity.LoanEntity;
 import com.company.repository.models.entity.ParentEntity;
 import com.company.repository.models.entity.ReaderEntity;
 import com.company.repository.models.repository.*;
+import com.company.service.BookService;
+import com.company.service.LendingRulesCache;
 import com.company.service.ReaderService;
 import com.company.service.exceptions.*;
 import org.junit.jupiter.api.Assertions;
@@ -12,6 +15,7 @@
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -20,6 +24,7 @@
 import org.mockito.quality.Strictness;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockitoTestExecutionListener;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 
@@ -29,6 +34,9 @@
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static services.TestUtils.*;
 
@@ -59,7 +67,7 @@ public class ReaderServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        readerService = new ReaderService(mockReaderRepository, mockParentRepository, mockChildRepository, mockLoansRepository, mockConfigurationRepository);
+        readerService = new ReaderService(mockReaderRepository, mockParentRepository, mockChildRepository, mockLoansRepository, new LendingRulesCache(mockConfigurationRepository));
         readers = createReaders();
         parents = createParents();
         childs = createChilds();
@@ -71,13 +79,12 @@ void shouldReturnListOfBooksIdWhichReaderHaveTooLong() throws ReaderNotFoundExce
         //given
         ReaderEntity reader = readers.get(0);
         Integer id = reader.getId();
-        Integer maxNumberOfDaysToBorrowABook = 2;
         LoanEntity loan = new LoanEntity();
-        loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(maxNumberOfDaysToBorrowABook + 1)));
+        loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(3)));
+        loan.setDueDate(Date.valueOf(LocalDate.now().minusDays(1)));
 
         when(mockReaderRepository.findById(id)).thenReturn(Optional.of(reader));
-        when(mockConfigurationRepository.getMaxNumberOfDaysToBorrowABook()).thenReturn(maxNumberOfDaysToBorrowABook);
-        when(mockLoansRepository.findAllByReaderAndReturnedDate(reader, null)).thenReturn(List.of(loan));
+        when(mockLoansRepository.findOverdueLoansOfReader(reader, Date.valueOf(LocalDate.now()))).thenReturn(List.of(loan));
         //when
         List<LoanEntity> result = readerService.booksIdWhichReaderHaveTooMuchTime(id);
         //then
@@ -90,13 +97,9 @@ void shouldReturnEmptyListBecauseReaderHaventGotAnyBookToLong() throws ReaderNot
         //given
         ReaderEntity reader = readers.get(0);
         Integer id = reader.getId();
-        Integer maxNumberOfDaysToBorrowABook = 2;
-        LoanEntity loan = new LoanEntity();
-        loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(maxNumberOfDaysToBorrowABook + 1)));
 
         when(mockReaderRepository.findById(id)).thenReturn(Optional.of(reader));
-        when(mockConfigurationRepository.getMaxNumberOfDaysToBorrowABook()).thenReturn(maxNumberOfDaysToBorrowABook);
-        when(mockLoansRepository.findAllByReaderAndReturnedDate(reader, null)).thenReturn(List.of());
+        when(mockLoansRepository.findOverdueLoansOfReader(reader, Date.valueOf(LocalDate.now()))).thenReturn(List.of());
         //when
         List<LoanEntity> result = readerService.booksIdWhichReaderHaveTooMuchTime(id);
         //then
@@ -110,7 +113,7 @@ void shouldReturnReadersWithGivenParameters() {
         ReaderEntity reader = readers.get(0);
         Integer idToFind = reader.getId();
 
-        when(mockReaderRepository.findAll()).thenReturn(readers);
+        when(mockReaderRepository.findAll(any(Specification.class))).thenReturn(List.of(reader));
         //when
         List<ReaderEntity> result = readerService.findReaderByParameters(idToFind, null, null, null, null, null);
         //then
@@ -121,10 +124,9 @@ void shouldReturnReadersWithGivenParameters() {
     @DisplayName("Should return empty list because couldn't find reader with given parameters")
     void shouldReturnEmptyListBecauseCouldntFindReaderWithGivenParameters() {
         //given
-        ReaderEntity reader = readers.get(0);
         Integer idToFind = 99;
 
-        when(mockReaderRepository.findAll()).thenReturn(readers);
+        when(mockReaderRepository.findAll(any(Specification.class))).thenReturn(List.of());
         //when
         List<ReaderEntity> result = readerService.findReaderByParameters(idToFind, null, null, null, null, null);
         //then
@@ -135,10 +137,7 @@ void shouldReturnEmptyListBecauseCouldntFindReaderWithGivenParameters() {
     @DisplayName("Should return all readers because not given filter parameters")
     void shouldReturnAllReadersBecauseNotGivenFilterParameters() {
         //given
-        ReaderEntity reader = readers.get(0);
-        Integer idToFind = reader.getId();
-
-        when(mockReaderRepository.findAll()).thenReturn(readers);
+        when(mockReaderRepository.findAll(any(Specification.class))).thenReturn(readers);
         //when
         List<ReaderEntity> result = readerService.findReaderByParameters(null, null, null, null, null, null);
         //then
@@ -152,12 +151,13 @@ void shouldReturnParentReaderWithGivenParameters() {
         ParentEntity parent = (ParentEntity) parents.get(0);
         String phoneToFind = parent.getPhoneNumber();
 
-        when(mockReaderRepository.findAll()).thenReturn(parents);
+        when(mockParentRepository.findAll(any(Specification.class))).thenReturn(List.of(parent));
         //when
         List<ReaderEntity> result = readerService.findParentByParameters(null, null, null, null, null,
                 null, null, phoneToFind);
         //then
         Assertions.assertEquals(List.of(parent), result);
+        verify(mockReaderRepository, never()).findAll(any(Specification.class));
     }
 
     @Test
@@ -167,7 +167,7 @@ void shouldReturnEmptyListBecauseCouldntFindAnyParentWithGivenParameters() {
         String phoneToFind = "phone3333333";
         String address = "addresssss";
 
-        when(mockReaderRepository.findAll()).thenReturn(parents);
+        when(mockParentRepository.findAll(any(Specification.class))).thenReturn(List.of());
         //when
         List<ReaderEntity> result = readerService.findParentByParameters(null, null, null, null,
                 null, null, address, phoneToFind);
@@ -179,7 +179,7 @@ void shouldReturnEmptyListBecauseCouldntFindAnyParentWithGivenParameters() {
     @DisplayName("Should return all parents because not given any filter parameters")
     void shouldReturnAllParentsBecauseNotGivenAnyFilterParameters() {
         //given
-        when(mockReaderRepository.findAll()).thenReturn(parents);
+        when(mockParentRepository.findAll(any(Specification.class))).thenReturn(parents);
         //when
         List<ReaderEntity> result = readerService.findParentByParameters(null, null, null, null, null,
                 null, null, null);
@@ -195,12 +195,13 @@ void shouldReturnChildWithGivenParentId() {
 
         Integer parentId = child.getParent().getId();
 
-        when(mockReaderRepository.findAll()).thenReturn(childs);
+        when(mockChildRepository.findAll(any(Specification.class))).thenReturn(List.of(child));
         //when
         List<ReaderEntity> result = readerService.findChildByParameters(null, null, null, null,
                 null, null, parentId);
         //then
         Assertions.assertEquals(List.of(child), result);
+        verify(mockReaderRepository, never()).findAll(any(Specification.class));
     }
 
     @Test
@@ -209,7 +210,7 @@ void shouldReturnEmptyListBecauseCouldntFindAnyChildWithGivenParameters() {
         //given
         Integer parentId = 99;
 
-        when(mockReaderRepository.findAll()).thenReturn(childs);
+        when(mockChildRepository.findAll(any(Specification.class))).thenReturn(List.of());
         //when
         List<ReaderEntity> result = readerService.findChildByParameters(null, null, null, null,
                 null, null, parentId);
@@ -221,7 +222,7 @@ void shouldReturnEmptyListBecauseCouldntFindAnyChildWithGivenParameters() {
     @DisplayName("Should return all child because not given any filter parameters")
     void shouldReturnAllChildBecauseNotGivenAnyFilterParameters() {
         //given
-        when(mockReaderRepository.findAll()).thenReturn(childs);
+        when(mockChildRepository.findAll(any(Specification.class))).thenReturn(childs);
         //when
         List<ReaderEntity> result = readerService.findChildByParameters(null, null, null, null,
                 null, null, null);
@@ -244,6 +245,22 @@ void shouldThrowExceptionWhileDeleteBecauseReaderHaveCurrentlyBorrowedBooks() {
         Assertions.assertEquals(ReaderService.READER_HAVE_CURRENTLY_BORROWED_BOOKS, result.getMessage());
     }
 
+    @Test
+    @DisplayName("Should delete loans of reader by one statement and return their number")
+    void shouldDeleteLoansOfReaderByOneStatementAndReturnTheirNumber() throws ReaderNotFoundException, ReaderHasCurrentlyBookOnLoanException {
+        //given
+        ReaderEntity reader = readers.get(0);
+        Integer id = reader.getId();
+        when(mockReaderRepository.findById(id)).thenReturn(Optional.of(reader));
+        when(mockLoansRepository.findAllByReaderAndReturnedDate(reader, null)).thenReturn(List.of());
+        when(mockLoansRepository.deleteAllByReaderId(id)).thenReturn(100000);
+        //when
+        int result = readerService.deleteReader(id);
+        //then
+        Assertions.assertEquals(100000, result);
+        verify(mockReaderRepository).deleteById(id);
+    }
+
     @Test
     @DisplayName("Should add parent reader with given parameters")
     void shouldAddParentReaderWithGivenParameters() {
@@ -491,8 +508,9 @@ void shouldThrowExceptionBecauseReaderIsTooYoung() {
         Integer currentYear = LocalDate.now().getYear();
         Integer minAge = currentYear - reader.getBirthDate().getYear() + 1;
 
-        when(mockReaderRepository.findById(id)).thenReturn(Optional.of(reader));
-        when(mockConfigurationRepository.getMinAgeToBorrowABook()).thenReturn(minAge);
+        when(mockConfigurationRepository.getLendingRules()).thenReturn(new LendingRules(Integer.MAX_VALUE, Integer.MAX_VALUE, minAge));
+        when(mockReaderRepository.findBorrowEligibility(id))
+                .thenReturn(Optional.of(createBorrowEligibility(reader.getBirthDate(), 0, 0, true, false)));
         //when
         Exception result = Assertions.assertThrows(ReaderTooYoungException.class,
                 () -> readerService.isReaderCanBorrowABook(id));
@@ -509,10 +527,9 @@ void shouldThrowExceptionBecauseReaderHaveTooManyBooks() {
         Integer currentYear = LocalDate.now().getYear();
         Integer minAge = currentYear - reader.getBirthDate().getYear() - 1;
         Integer maxNumberOfBooks = 6;
-        reader.setNumberOfCurrentlyBorrowedBooks(maxNumberOfBooks);
-        when(mockReaderRepository.findById(id)).thenReturn(Optional.of(reader));
-        when(mockConfigurationRepository.getMinAgeToBorrowABook()).thenReturn(minAge);
-        when(mockConfigurationRepository.getMaxNumberOfBorrowedBooks()).thenReturn(maxNumberOfBooks);
+        when(mockConfigurationRepository.getLendingRules()).thenReturn(new LendingRules(maxNumberOfBooks, Integer.MAX_VALUE, minAge));
+        when(mockReaderRepository.findBorrowEligibility(id))
+                .thenReturn(Optional.of(createBorrowEligibility(reader.getBirthDate(), maxNumberOfBooks, 0, true, false)));
         //when
         Exception result = Assertions.assertThrows(ReaderHaveTooMuchBooksException.class,
                 () -> readerService.isReaderCanBorrowABook(id));
@@ -530,14 +547,9 @@ void shouldThrowExceptionBecauseReaderHaveBookTooLong() {
         Integer minAge = currentYear - reader.getBirthDate().getYear() - 1;
         Integer maxNumberOfBooks = 6;
         Integer maxNumberOfDaysToBorrowABook = 2;
-        reader.setNumberOfCurrentlyBorrowedBooks(maxNumberOfBooks - 1);
-        when(mockReaderRepository.findById(id)).thenReturn(Optional.of(reader));
-        when(mockConfigurationRepository.getMinAgeToBorrowABook()).thenReturn(minAge);
-        when(mockConfigurationRepository.getMaxNumberOfBorrowedBooks()).thenReturn(maxNumberOfBooks);
-        when(mockConfigurationRepository.getMaxNumberOfDaysToBorrowABook()).thenReturn(maxNumberOfDaysToBorrowABook);
-        LoanEntity loan = new LoanEntity();
-        loan.setBorrowDate(Date.valueOf(LocalDate.now().minusDays(maxNumberOfDaysToBorrowABook + 1)));
-        when(mockLoansRepository.findAllByReaderAndReturnedDate(reader, null)).thenReturn(List.of(loan));
+        when(mockConfigurationRepository.getLendingRules()).thenReturn(new LendingRules(maxNumberOfBooks, maxNumberOfDaysToBorrowABook, minAge));
+        when(mockReaderRepository.findBorrowEligibility(id))
+                .thenReturn(Optional.of(createBorrowEligibility(reader.getBirthDate(), maxNumberOfBooks - 1, 1, true, false)));
         //when
         Exception result = Assertions.assertThrows(ReaderHaveBooksTooLongException.class,
                 () -> readerService.isReaderCanBorrowABook(id));
@@ -546,6 +558,74 @@ void shouldThrowExceptionBecauseReaderHaveBookTooLong() {
     }
 
 
+    @Test
+    @DisplayName("Should throw exception because reader to borrow a book doesn't exist")
+    void shouldThrowExceptionBecauseReaderToBorrowABookDoesntExist() {
+        //given
+        Integer readerId = 100;
+        Integer bookId = 1;
+        when(mockConfigurationRepository.getLendingRules()).thenReturn(new LendingRules(6, 2, 0));
+        when(mockReaderRepository.findBorrowEligibilityForUpdate(readerId, bookId)).thenReturn(Optional.empty());
+        //when
+        Exception result = Assertions.assertThrows(ReaderNotFoundException.class,
+                () -> readerService.checkReaderCanBorrowABook(readerId, bookId));
+        //then
+        Assertions.assertEquals(ReaderService.NOT_FOUND_READER_WITH_GIVEN_ID, result.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw exception because book to borrow doesn't exist")
+    void shouldThrowExceptionBecauseBookToBorrowDoesntExist() {
+        //given
+        ReaderEntity reader = readers.get(1);
+        Integer readerId = reader.getId();
+        Integer bookId = 100;
+        when(mockConfigurationRepository.getLendingRules()).thenReturn(new LendingRules(6, 2, 0));
+        when(mockReaderRepository.findBorrowEligibilityForUpdate(readerId, bookId))
+                .thenReturn(Optional.of(createBorrowEligibility(reader.getBirthDate(), 0, 0, false, false)));
+        //when
+        Exception result = Assertions.assertThrows(BookNotFoundException.class,
+                () -> readerService.checkReaderCanBorrowABook(readerId, bookId));
+        //then
+        Assertions.assertEquals(BookService.NOT_FOUND_BOOK_WITH_GIVEN_ID, result.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw exception because reader currently have book to borrow")
+    void shouldThrowExceptionBecauseReaderCurrentlyHaveBookToBorrow() {
+        //given
+        ReaderEntity reader = readers.get(1);
+        Integer readerId = reader.getId();
+        Integer bookId = 1;
+        when(mockConfigurationRepository.getLendingRules()).thenReturn(new LendingRules(6, 2, 0));
+        when(mockReaderRepository.findBorrowEligibilityForUpdate(readerId, bookId))
+                .thenReturn(Optional.of(createBorrowEligibility(reader.getBirthDate(), 1, 0, true, true)));
+        //when
+        Exception result = Assertions.assertThrows(ReaderCurrentlyHaveThisBookException.class,
+                () -> readerService.checkReaderCanBorrowABook(readerId, bookId));
+        //then
+        Assertions.assertEquals(BookService.BOOK_IS_CURRENTLY_BORROWED, result.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should return reader who can borrow a book")
+    void shouldReturnReaderWhoCanBorrowABook() throws ReaderNotFoundException, BookNotFoundException, ReaderTooYoungException,
+            ReaderHaveTooMuchBooksException, ReaderHaveBooksTooLongException, ReaderCurrentlyHaveThisBookException {
+        //given
+        ReaderEntity reader = readers.get(1);
+        Integer readerId = reader.getId();
+        Integer bookId = 1;
+        when(mockConfigurationRepository.getLendingRules()).thenReturn(new LendingRules(6, 2, 0));
+        when(mockReaderRepository.findBorrowEligibilityForUpdate(readerId, bookId))
+                .thenReturn(Optional.of(createBorrowEligibility(reader.getBirthDate(), 1, 0, true, false)));
+        when(mockReaderRepository.getReferenceById(readerId)).thenReturn(reader);
+        //when
+        ReaderEntity result = readerService.checkReaderCanBorrowABook(readerId, bookId);
+        //then
+        Assertions.assertEquals(reader, result);
+        verify(mockReaderRepository, never()).findById(readerId);
+    }
+
     @Test
     @DisplayName("Should add reader")
     void shouldAddReader() {
@@ -556,4 +636,50 @@ void shouldAddReader() {
         //then
         Assertions.assertEquals(readerEntity, result);
     }
+
+    @Test
+    @DisplayName("Should reset loan counters of added reader")
+    void shouldResetLoanCountersOfAddedReader() {
+        //given
+        ReaderEntity readerEntity = readers.get(0);
+        readerEntity.setNumberOfCurrentlyBorrowedBooks(5);
+        readerEntity.setNumberOfEveryBorrowedBooks(10);
+        //when
+        ReaderEntity result = readerService.addReader(readerEntity);
+        //then
+        Assertions.assertEquals(0, result.getNumberOfCurrentlyBorrowedBooks());
+        Assertions.assertEquals(0, result.getNumberOfEveryBorrowedBooks());
+    }
+
+    @Test
+    @DisplayName("Should add readers by one save of all readers")
+    void shouldAddReadersByOneSaveOfAllReaders() {
+        //given
+        List<ReaderEntity> readersToAdd = List.of(readers.get(0), readers.get(1));
+        readersToAdd.forEach(reader -> reader.setNumberOfCurrentlyBorrowedBooks(3));
+        when(mockReaderRepository.saveAll(readersToAdd)).thenReturn(readersToAdd);
+        //when
+        List<ReaderEntity> result = readerService.addReaders(readersToAdd);
+        //then
+        Assertions.assertEquals(readersToAdd, result);
+        Assertions.assertNull(result.get(0).getId());
+        Assertions.assertEquals(0, result.get(1).getNumberOfCurrentlyBorrowedBooks());
+        verify(mockReaderRepository).saveAll(readersToAdd);
+    }
+
+    @Test
+    @DisplayName("Should refresh reader after its loan counters are changed")
+    void shouldRefreshReaderAfterItsLoanCountersAreChanged() {
+        //given
+        ReaderEntity reader = readers.get(0);
+        InOrder inOrder = inOrder(mockReaderRepository);
+        //when
+        readerService.registerBorrowedBook(reader);
+        readerService.registerReturnedBooks(reader.getId(), 1);
+        //then
+        inOrder.verify(mockReaderRepository).incrementLoanCounters(reader.getId());
+        inOrder.verify(mockReaderRepository).refreshLoanCounters(List.of(reader.getId()));
+        inOrder.verify(mockReaderRepository).subtractFromCurrentlyBorrowedBooksCounter(reader.getId(), 1);
+        inOrder.verify(mockReaderRepository).refreshLoanCounters(List.of(reader.getId()));
+    }
 }
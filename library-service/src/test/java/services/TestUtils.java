@@ -1,6 +1,10 @@
 package services;
 
 import com.company.repository.models.entity.*;
+import com.company.repository.models.projection.BookAvailability;
+import com.company.repository.models.projection.BookBorrowStatus;
+import com.company.repository.models.projection.BookSummary;
+import com.company.repository.models.projection.BorrowEligibility;
 
 import java.sql.Date;
 import java.time.LocalDate;
@@ -102,4 +106,105 @@ static List<ReaderEntity> createChilds() {
         child1.setBirthDate(new Date(2015, 10, 10));
         return List.of(child1, child2);
     }
+
+    static BorrowEligibility createBorrowEligibility(Date birthDate, Integer numberOfCurrentlyBorrowedBooks, Integer numberOfOverdueBooks,
+                                                     Boolean bookExists, Boolean readerHasBook) {
+        return new BorrowEligibility() {
+            @Override
+            public Date getBirthDate() {
+                return birthDate;
+            }
+
+            @Override
+            public Integer getNumberOfCurrentlyBorrowedBooks() {
+                return numberOfCurrentlyBorrowedBooks;
+            }
+
+            @Override
+            public Integer getNumberOfOverdueBooks() {
+                return numberOfOverdueBooks;
+            }
+
+            @Override
+            public Boolean getBookExists() {
+                return bookExists;
+            }
+
+            @Override
+            public Boolean getReaderHasBook() {
+                return readerHasBook;
+            }
+
+            @Override
+            public Boolean getReaderReturnedBookToday() {
+                return readerReturnedBookToday;
+            }
+        };
+    }
+
+    static BookBorrowStatus createBookBorrowStatus(Integer bookId, Boolean readerHasBook) {
+        return createBookBorrowStatus(bookId, readerHasBook, false);
+    }
+
+    static BookBorrowStatus createBookBorrowStatus(Integer bookId, Boolean readerHasBook, Boolean readerReturnedBookToday) {
+        return new BookBorrowStatus() {
+            @Override
+            public Integer getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public Boolean getReaderHasBook() {
+                return readerHasBook;
+            }
+
+            @Override
+            public Boolean getReaderReturnedBookToday() {
+                return readerReturnedBookToday;
+            }
+        };
+    }
+
+    static BookSummary createBookSummary(BookEntity book) {
+        return new BookSummary() {
+            @Override
+            public Integer getId() {
+                return book.getId();
+            }
+
+            @Override
+            public String getTitle() {
+                return book.getTitle();
+            }
+
+            @Override
+            public Integer getAuthorId() {
+                return book.getAuthor().getId();
+            }
+
+            @Override
+            public String getAuthorName() {
+                return book.getAuthor().getName();
+            }
+
+            @Override
+            public String getAuthorSurname() {
+                return book.getAuthor().getSurname();
+            }
+        };
+    }
+
+    static BookAvailability createBookAvailability(Integer bookId, Integer quantityAvailable) {
+        return new BookAvailability() {
+            @Override
+            public Integer getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public Integer getQuantityAvailable() {
+                return quantityAvailable;
+            }
+        };
+    }
 }